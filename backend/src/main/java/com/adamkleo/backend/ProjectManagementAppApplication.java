@@ -2,12 +2,18 @@ package com.adamkleo.backend;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 
 @SpringBootApplication
 public class ProjectManagementAppApplication {
 
+	// Enough for every bean and phase of one startup, read by StartupTimelineReport and /actuator/startup
+	private static final int STARTUP_STEPS = 8192;
+
 	public static void main(String[] args) {
-		SpringApplication.run(ProjectManagementAppApplication.class, args);
+		SpringApplication application = new SpringApplication(ProjectManagementAppApplication.class);
+		application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEPS));
+		application.run(args);
 	}
 
 }
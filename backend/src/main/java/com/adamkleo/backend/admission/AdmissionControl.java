@@ -0,0 +1,54 @@
+package com.adamkleo.backend.admission;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * The {@link LaneLimiter} of every lane, configured from {@code app.admission.<lane>.*}
+ * with the defaults in {@link Lane}.
+ */
+@Component
+public class AdmissionControl {
+
+    private final Map<Lane, LaneLimiter> limiters = new EnumMap<>(Lane.class);
+    private final boolean enabled;
+
+    public AdmissionControl(Environment env, MeterRegistry meterRegistry) {
+        this.enabled = env.getProperty("app.admission.enabled", Boolean.class, true);
+        double backoff = env.getProperty("app.admission.backoff", Double.class, 0.9);
+        for (Lane lane : Lane.values()) {
+            if (lane == Lane.NONE) {
+                continue;
+            }
+            String prefix = "app.admission." + lane.key() + ".";
+            LaneLimiter limiter = new LaneLimiter(lane,
+                    env.getProperty(prefix + "initial-limit", Integer.class, lane.getInitialLimit()),
+                    env.getProperty(prefix + "min-limit", Integer.class, lane.getMinLimit()),
+                    env.getProperty(prefix + "max-limit", Integer.class, lane.getMaxLimit()),
+                    env.getProperty(prefix + "queue-size", Integer.class, lane.getQueueSize()),
+                    env.getProperty(prefix + "queue-timeout", Duration.class, lane.getQueueTimeout()),
+                    env.getProperty(prefix + "latency-target", Duration.class, lane.getLatencyTarget()),
+                    backoff,
+                    env.getProperty(prefix + "retry-after", Duration.class, lane.getRetryAfter()),
+                    meterRegistry);
+            limiters.put(lane, limiter);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public LaneLimiter lane(Lane lane) {
+        LaneLimiter limiter = limiters.get(lane);
+        if (limiter == null) {
+            throw new IllegalArgumentException("Lane " + lane + " is not admission controlled");
+        }
+        return limiter;
+    }
+}
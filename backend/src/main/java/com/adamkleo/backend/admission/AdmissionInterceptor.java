@@ -0,0 +1,63 @@
+package com.adamkleo.backend.admission;
+
+import com.adamkleo.backend.exception.LaneSaturatedException;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Admits each request through the lane of its controller method (or class), see
+ * {@link AdmissionLane}. A rejected request fails with {@link LaneSaturatedException}
+ * before the controller runs. The slot is freed once the response is complete.
+ */
+@Component
+public class AdmissionInterceptor implements HandlerInterceptor {
+
+    private static final String PERMIT = AdmissionInterceptor.class.getName() + ".permit";
+
+    private final AdmissionControl admissionControl;
+
+    public AdmissionInterceptor(AdmissionControl admissionControl) {
+        this.admissionControl = admissionControl;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Error and async dispatches belong to a request that was already admitted
+        if (!admissionControl.isEnabled() || request.getDispatcherType() != DispatcherType.REQUEST
+                || !(handler instanceof HandlerMethod method)) {
+            return true;
+        }
+        Lane lane = laneOf(method);
+        if (lane == Lane.NONE) {
+            return true;
+        }
+        LaneLimiter limiter = admissionControl.lane(lane);
+        LaneLimiter.Permit permit = limiter.acquire();
+        if (permit == null) {
+            throw new LaneSaturatedException(lane.key(), limiter.getRetryAfter());
+        }
+        request.setAttribute(PERMIT, permit);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(PERMIT) instanceof LaneLimiter.Permit permit) {
+            request.removeAttribute(PERMIT);
+            permit.release(ex != null ? 500 : response.getStatus());
+        }
+    }
+
+    private static Lane laneOf(HandlerMethod method) {
+        AdmissionLane lane = method.getMethodAnnotation(AdmissionLane.class);
+        if (lane == null) {
+            lane = AnnotatedElementUtils.findMergedAnnotation(method.getBeanType(), AdmissionLane.class);
+        }
+        return lane != null ? lane.value() : Lane.INTERACTIVE;
+    }
+}
@@ -0,0 +1,19 @@
+package com.adamkleo.backend.admission;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Lane a request to the annotated endpoint is admitted through. Endpoints without it
+ * are {@link Lane#INTERACTIVE}.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface AdmissionLane {
+
+    Lane value();
+}
@@ -0,0 +1,71 @@
+package com.adamkleo.backend.admission;
+
+import java.time.Duration;
+
+/**
+ * Class of endpoints admitted together by one {@link LaneLimiter}, so a burst in one
+ * lane cannot take the request threads and connections the others need. The values
+ * are the defaults of the {@code app.admission.<lane>.*} properties.
+ */
+public enum Lane {
+
+    // Short reads and single-row writes the pages wait on
+    INTERACTIVE(40, 8, 100, 50, Duration.ofSeconds(1), Duration.ofMillis(500), Duration.ofSeconds(1)),
+    // Imports and syncs whose work grows with the request body
+    BULK(2, 1, 4, 4, Duration.ofSeconds(2), Duration.ofMinutes(2), Duration.ofSeconds(30)),
+    // Full dumps of a table
+    EXPORT(2, 1, 4, 8, Duration.ofSeconds(2), Duration.ofMinutes(5), Duration.ofSeconds(10)),
+    // Not admitted at all: long-lived streams that hold no request thread while open
+    NONE(0, 0, 0, 0, Duration.ZERO, Duration.ZERO, Duration.ZERO);
+
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final int queueSize;
+    private final Duration queueTimeout;
+    private final Duration latencyTarget;
+    private final Duration retryAfter;
+
+    Lane(int initialLimit, int minLimit, int maxLimit, int queueSize,
+         Duration queueTimeout, Duration latencyTarget, Duration retryAfter) {
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.queueSize = queueSize;
+        this.queueTimeout = queueTimeout;
+        this.latencyTarget = latencyTarget;
+        this.retryAfter = retryAfter;
+    }
+
+    public String key() {
+        return name().toLowerCase();
+    }
+
+    int getInitialLimit() {
+        return initialLimit;
+    }
+
+    int getMinLimit() {
+        return minLimit;
+    }
+
+    int getMaxLimit() {
+        return maxLimit;
+    }
+
+    int getQueueSize() {
+        return queueSize;
+    }
+
+    Duration getQueueTimeout() {
+        return queueTimeout;
+    }
+
+    Duration getLatencyTarget() {
+        return latencyTarget;
+    }
+
+    Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,212 @@
+package com.adamkleo.backend.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Admission for one {@link Lane}: at most {@code limit} requests run at once, up to
+ * {@code queueSize} more wait up to {@code queueTimeout} for a slot, and the rest are
+ * turned away at once.
+ *
+ * <p>The limit adapts between {@code minLimit} and {@code maxLimit} (AIMD). It grows by
+ * one for each fast response while at least half of it is in use, and is multiplied by
+ * {@code backoff} for each response slower than {@code latencyTarget} or failing with a
+ * 5xx. When the database or the pool slows down, the lane lets fewer requests in instead
+ * of queueing more work behind them.
+ *
+ * <p>State is guarded by a {@link ReentrantLock} rather than {@code synchronized}, so
+ * queued virtual threads do not pin their carrier while they wait.
+ */
+public class LaneLimiter {
+
+    private final Lane lane;
+    private final int minLimit;
+    private final int maxLimit;
+    private final int queueSize;
+    private final long queueTimeoutNanos;
+    private final long latencyTargetNanos;
+    private final double backoff;
+    private final Duration retryAfter;
+    private final Counter queueFull;
+    private final Counter queueTimedOut;
+    private final Timer queueWait;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition slotFreed = lock.newCondition();
+
+    // Guarded by lock
+    private int limit;
+    private int inFlight;
+    private int waiting;
+
+    LaneLimiter(Lane lane, int initialLimit, int minLimit, int maxLimit, int queueSize, Duration queueTimeout,
+                Duration latencyTarget, double backoff, Duration retryAfter, MeterRegistry meterRegistry) {
+        if (minLimit < 1 || minLimit > maxLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Admission limits of lane " + lane.key() + " must satisfy 1 <= min ("
+                    + minLimit + ") <= initial (" + initialLimit + ") <= max (" + maxLimit + ")");
+        }
+        if (backoff <= 0 || backoff >= 1) {
+            throw new IllegalArgumentException("Admission backoff of lane " + lane.key() + " must be between 0 and 1, got " + backoff);
+        }
+        this.lane = lane;
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.queueSize = queueSize;
+        this.queueTimeoutNanos = queueTimeout.toNanos();
+        this.latencyTargetNanos = latencyTarget.toNanos();
+        this.backoff = backoff;
+        this.retryAfter = retryAfter;
+
+        Gauge.builder("admission.limit", this, LaneLimiter::getLimit)
+                .description("Requests the lane currently lets run at once")
+                .tag("lane", lane.key())
+                .register(meterRegistry);
+        Gauge.builder("admission.in.flight", this, LaneLimiter::getInFlight)
+                .description("Requests of the lane running now")
+                .tag("lane", lane.key())
+                .register(meterRegistry);
+        Gauge.builder("admission.queue.depth", this, LaneLimiter::getQueueDepth)
+                .description("Requests of the lane waiting for a slot")
+                .tag("lane", lane.key())
+                .register(meterRegistry);
+        this.queueFull = rejections(meterRegistry, "queue-full");
+        this.queueTimedOut = rejections(meterRegistry, "queue-timeout");
+        this.queueWait = Timer.builder("admission.queue.wait")
+                .description("Time admitted requests waited for a slot")
+                .tag("lane", lane.key())
+                .register(meterRegistry);
+    }
+
+    /**
+     * Takes a slot, waiting in the queue if there is room in it. Returns {@code null}
+     * when the request is rejected; the caller answers 503.
+     */
+    public Permit acquire() {
+        long start = System.nanoTime();
+        lock.lock();
+        try {
+            // Newcomers do not overtake the queue
+            if (inFlight < limit && waiting == 0) {
+                inFlight++;
+                return new Permit(start);
+            }
+            if (waiting >= queueSize) {
+                queueFull.increment();
+                return null;
+            }
+            waiting++;
+            try {
+                long remaining = queueTimeoutNanos;
+                while (inFlight >= limit) {
+                    if (remaining <= 0) {
+                        queueTimedOut.increment();
+                        return null;
+                    }
+                    remaining = slotFreed.awaitNanos(remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                queueTimedOut.increment();
+                return null;
+            } finally {
+                waiting--;
+            }
+            inFlight++;
+        } finally {
+            lock.unlock();
+        }
+        long admitted = System.nanoTime();
+        queueWait.record(admitted - start, TimeUnit.NANOSECONDS);
+        return new Permit(admitted);
+    }
+
+    public Lane getLane() {
+        return lane;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getQueueDepth() {
+        lock.lock();
+        try {
+            return waiting;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(long latencyNanos, boolean failed) {
+        lock.lock();
+        try {
+            // Utilisation before this request left, so the last of a burst still counts as busy
+            boolean busy = inFlight * 2 >= limit;
+            inFlight--;
+            if (failed || latencyNanos > latencyTargetNanos) {
+                limit = Math.max(minLimit, (int) (limit * backoff));
+            } else if (busy) {
+                limit = Math.min(maxLimit, limit + 1);
+            }
+            // The limit may have grown, so every waiter checks again
+            slotFreed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Counter rejections(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("admission.rejections")
+                .description("Requests of the lane answered 503 without running")
+                .tag("lane", lane.key())
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    /**
+     * A slot in the lane, held from admission until the response is complete.
+     */
+    public final class Permit {
+
+        private final long admittedAt;
+        private boolean released;
+
+        private Permit(long admittedAt) {
+            this.admittedAt = admittedAt;
+        }
+
+        /** Frees the slot and feeds the response time and status back into the limit. */
+        public void release(int status) {
+            if (!released) {
+                released = true;
+                LaneLimiter.this.release(System.nanoTime() - admittedAt, status >= 500);
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.adamkleo.backend.cache;
+
+import com.adamkleo.backend.datasource.ReadRouting;
+import com.adamkleo.backend.event.DataChangedEvent;
+import com.adamkleo.backend.event.DataTable;
+import com.adamkleo.backend.sync.ChangeVersions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The committed change version of each table, read from SY_VERSIONES on the primary
+ * (see {@link ChangeVersions}). Every instance sees the same versions, so anything
+ * derived from a table can be keyed by its version and stays valid across instances.
+ *
+ * <p>A read is reused for up to {@code app.snapshot-cache.versions-max-age}, which
+ * bounds how long a write made through another instance can go unseen. A write
+ * committed through this instance drops it, so the next caller reads again.
+ */
+@Component
+public class DataVersions {
+
+    private final ChangeVersions changeVersions;
+    private final long maxAgeNanos;
+    private final AtomicReference<Read> last = new AtomicReference<>(Read.DROPPED);
+
+    public DataVersions(ChangeVersions changeVersions,
+                        @Value("${app.snapshot-cache.versions-max-age:1s}") Duration maxAge) {
+        this.changeVersions = changeVersions;
+        this.maxAgeNanos = maxAge.toNanos();
+    }
+
+    // The versions of every table from one read, so a key built from several of them is consistent
+    public Map<DataTable, Long> current() {
+        Read seen = last.get();
+        if (seen.versions != null && System.nanoTime() - seen.readAt < maxAgeNanos) {
+            return seen.versions;
+        }
+        long readAt = System.nanoTime();
+        Map<DataTable, Long> versions = ReadRouting.onPrimary(changeVersions::committed);
+        // Not kept when a write committed meanwhile, the read may predate it
+        last.compareAndSet(seen, new Read(versions, readAt));
+        return versions;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDataChanged(DataChangedEvent event) {
+        last.set(new Read(null, 0));
+    }
+
+    private static final class Read {
+        private static final Read DROPPED = new Read(null, 0);
+
+        private final Map<DataTable, Long> versions;
+        private final long readAt;
+
+        private Read(Map<DataTable, Long> versions, long readAt) {
+            this.versions = versions;
+            this.readAt = readAt;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.adamkleo.backend.cache;
+
+import jakarta.persistence.CacheRetrieveMode;
+import jakarta.persistence.CacheStoreMode;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceUnitUtil;
+import org.hibernate.cache.spi.TimestampsCache;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps Hibernate's second-level and query caches right around rows written with plain
+ * JDBC, which Hibernate does not see. It does what Hibernate does for its own updates:
+ *
+ * <ul>
+ *   <li>Before the write, the table's update timestamp is moved past the transaction, so
+ *   no query result read in the meantime is cached as current.</li>
+ *   <li>Once the transaction has ended, the timestamp is set to that moment, which makes
+ *   every query result cached before it stale.</li>
+ *   <li>After a commit, the cached copies of the written rows are dropped and loaded again,
+ *   so a reader that loaded the old row during the transaction cannot leave it behind.</li>
+ * </ul>
+ */
+@Component
+public class JdbcCacheSync {
+
+    private static final Map<String, Object> PAST_THE_CACHE = Map.of(
+            "jakarta.persistence.cache.retrieveMode", CacheRetrieveMode.BYPASS,
+            "jakarta.persistence.cache.storeMode", CacheStoreMode.BYPASS);
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final EntityManager entityManager;
+
+    public JdbcCacheSync(EntityManagerFactory entityManagerFactory, EntityManager entityManager) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Call inside the transaction, before writing rows of the entity's table. {@code ids}
+     * are the existing rows the write changes, none for inserts.
+     */
+    public void beforeWrite(Class<?> entityClass, Object... ids) {
+        List<Object> written = List.of(ids);
+        synchronize(entityClass, () -> {
+            if (!written.isEmpty()) {
+                reload(entityClass, written);
+            }
+        });
+    }
+
+    /**
+     * Call inside the transaction, before stamping with JDBC entities this transaction
+     * persisted through Hibernate. They are detached, so values set on them afterwards are
+     * not written again, and the copies Hibernate caches as inserted are evicted after the
+     * commit, to be loaded again by their next read.
+     */
+    public void beforeStamp(Collection<?> entities) {
+        if (entities.isEmpty()) {
+            return;
+        }
+        Class<?> entityClass = entities.iterator().next().getClass();
+        PersistenceUnitUtil units = entityManagerFactory.getPersistenceUnitUtil();
+        List<Object> ids = entities.stream().map(units::getIdentifier).toList();
+        synchronize(entityClass, () -> {
+            for (Object id : ids) {
+                entityManagerFactory.getCache().evict(entityClass, id);
+            }
+        });
+        entities.forEach(entityManager::detach);
+    }
+
+    private void synchronize(Class<?> entityClass, Runnable afterCommit) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("JDBC writes to cached tables must run in a transaction");
+        }
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        String[] spaces = Arrays.stream(sessionFactory.getMappingMetamodel().getEntityDescriptor(entityClass).getQuerySpaces())
+                .map(String.class::cast)
+                .toArray(String[]::new);
+        TimestampsCache timestamps = sessionFactory.getCache().getTimestampsCache();
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        timestamps.preInvalidate(spaces, session);
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                timestamps.invalidate(spaces, session);
+                if (status == STATUS_COMMITTED) {
+                    afterCommit.run();
+                }
+            }
+        });
+    }
+
+    /**
+     * Reads a row this transaction wrote with JDBC, past the second-level cache, which
+     * still holds the committed version.
+     */
+    public <T> T find(Class<T> entityClass, Object id) {
+        return entityManager.find(entityClass, id, PAST_THE_CACHE);
+    }
+
+    /**
+     * Reads and loads the rest of the current transaction past the second-level cache, for
+     * full-table streams. The IGNORE hint on a streaming query only holds while it starts,
+     * and its rows are loaded later, as the stream is consumed.
+     */
+    public static void bypassForTransaction(EntityManager entityManager) {
+        PAST_THE_CACHE.forEach(entityManager::setProperty);
+    }
+
+    // A fresh session, so the rows are read from the database and cached in the state just committed
+    private void reload(Class<?> entityClass, List<Object> ids) {
+        for (Object id : ids) {
+            entityManagerFactory.getCache().evict(entityClass, id);
+        }
+        EntityManager reader = entityManagerFactory.createEntityManager();
+        try {
+            for (Object id : ids) {
+                reader.find(entityClass, id);
+            }
+        } finally {
+            reader.close();
+        }
+    }
+}
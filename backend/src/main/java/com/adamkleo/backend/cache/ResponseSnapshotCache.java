@@ -0,0 +1,172 @@
+package com.adamkleo.backend.cache;
+
+import com.adamkleo.backend.datasource.ReadRouting;
+import com.adamkleo.backend.event.DataTable;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the last serialized (plain and gzipped) body of each list endpoint,
+ * keyed by the versions of the tables it reads. The ETag is derived from those
+ * versions alone, so a matching If-None-Match is answered with 304 without
+ * loading or serializing anything. The versions are the committed change versions
+ * of {@link DataVersions}, the same on every instance, so an ETag handed out by one
+ * instance is checked correctly by any other. A miss is loaded from a replica that has
+ * committed those versions, or from the primary (see {@link ReadRouting#atLeast}).
+ * Concurrent misses share one load and serialization through {@link SingleFlight}.
+ */
+@Component
+public class ResponseSnapshotCache {
+
+    private final Map<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+    private final DataVersions dataVersions;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final SingleFlight singleFlight;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public ResponseSnapshotCache(DataVersions dataVersions, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                                 SingleFlight singleFlight, PlatformTransactionManager transactionManager) {
+        this.dataVersions = dataVersions;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.singleFlight = singleFlight;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public ResponseEntity<byte[]> respond(String name, HttpServletRequest request, Supplier<?> loader, DataTable... tables) {
+        Map<DataTable, Long> versions = versions(tables);
+        String etag = etag(name, versions);
+
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            record(name, "not_modified");
+            // The same validator and caching headers as the 200 it stands for (RFC 9110, 15.4.5)
+            return cacheHeaders(ResponseEntity.status(HttpStatus.NOT_MODIFIED), etag).build();
+        }
+
+        Snapshot snapshot = snapshots.get(name);
+        if (snapshot != null && snapshot.etag.equals(etag)) {
+            record(name, "hit");
+        } else {
+            record(name, "miss");
+            // The snapshot is stored under these versions, only a replica that has them may fill it. The load
+            // gets a read-only transaction, repository query methods run without one and would stay on the primary
+            snapshot = singleFlight.run("snapshot." + name, () -> {
+                byte[] json = ReadRouting.atLeast(versions,
+                        () -> readOnlyTransaction.execute(status -> serialize(loader.get())));
+                Snapshot loaded = new Snapshot(etag, json);
+                snapshots.put(name, loaded);
+                return loaded;
+            }, tables);
+        }
+
+        // A request that joined another's load gets that snapshot's ETag, which matches its body
+        ResponseEntity.BodyBuilder response = cacheHeaders(ResponseEntity.ok(), snapshot.etag)
+                .contentType(MediaType.APPLICATION_JSON);
+
+        if (acceptsGzip(request)) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(snapshot.gzip);
+        }
+        return response.body(snapshot.json);
+    }
+
+    private static ResponseEntity.BodyBuilder cacheHeaders(ResponseEntity.BodyBuilder response, String etag) {
+        return response.eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+    }
+
+    // The committed versions of the tables read, in the order given
+    private Map<DataTable, Long> versions(DataTable... tables) {
+        Map<DataTable, Long> current = dataVersions.current();
+        Map<DataTable, Long> versions = new LinkedHashMap<>();
+        for (DataTable table : tables) {
+            versions.put(table, current.getOrDefault(table, 0L));
+        }
+        return versions;
+    }
+
+    private String etag(String name, Map<DataTable, Long> versions) {
+        StringBuilder etag = new StringBuilder("\"").append(name);
+        for (Long version : versions.values()) {
+            etag.append('-').append(version);
+        }
+        return etag.append('"').toString();
+    }
+
+    private boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals(etag) || value.equals("*")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+    }
+
+    private byte[] serialize(Object body) {
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void record(String name, String result) {
+        meterRegistry.counter("snapshot.cache.requests", "endpoint", name, "result", result).increment();
+    }
+
+    private static final class Snapshot {
+        private final String etag;
+        private final byte[] json;
+        private final byte[] gzip;
+
+        private Snapshot(String etag, byte[] json) {
+            this.etag = etag;
+            this.json = json;
+            this.gzip = gzip(json);
+        }
+
+        private static byte[] gzip(byte[] json) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4 + 64);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+                gzip.write(json);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return out.toByteArray();
+        }
+    }
+}
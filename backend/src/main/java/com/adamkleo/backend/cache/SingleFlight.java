@@ -0,0 +1,108 @@
+package com.adamkleo.backend.cache;
+
+import com.adamkleo.backend.datasource.ReadRouting;
+import com.adamkleo.backend.event.DataChangedEvent;
+import com.adamkleo.backend.event.DataTable;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent identical reads: the first caller of a key runs the loader and
+ * every caller that arrives while it runs waits for it and gets the same result. When a
+ * dashboard is opened by many users at once, the database sees one query instead of one
+ * per request.
+ *
+ * <p>A key lives only while its loader runs, nothing is kept afterwards. A committed
+ * write to one of the tables a key reads drops that key, so a caller arriving after the
+ * write starts a new query instead of joining one that may not see it. Callers inside a
+ * read-write transaction always run their own loader, since they may need to see their
+ * own uncommitted writes. The result is shared, callers must not modify it.
+ */
+@Component
+public class SingleFlight {
+
+    private final Map<String, Flight> flights = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+
+    public SingleFlight(MeterRegistry meterRegistry, @Value("${app.single-flight.enabled:true}") boolean enabled) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T run(String name, Supplier<T> loader, DataTable... tables) {
+        if (!enabled || TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return loader.get();
+        }
+        // A caller kept on the primary must not be handed what a replica returned
+        String key = ReadRouting.isForcedToPrimary() ? name + "@primary" : name;
+        Flight mine = new Flight(tables);
+        Flight running = flights.putIfAbsent(key, mine);
+        if (running != null) {
+            record(name, "joined");
+            return (T) running.await();
+        }
+        record(name, "leader");
+        try {
+            T result = loader.get();
+            mine.result.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            mine.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            flights.remove(key, mine);
+        }
+    }
+
+    // Before DataVersions moves on, so a caller that already sees the new version cannot join an older flight
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDataChanged(DataChangedEvent event) {
+        flights.values().removeIf(flight -> flight.tables.contains(event.getTable()));
+    }
+
+    private void record(String name, String result) {
+        meterRegistry.counter("single.flight.calls", "name", name, "result", result).increment();
+    }
+
+    private static final class Flight {
+        private final Set<DataTable> tables = EnumSet.noneOf(DataTable.class);
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        private Flight(DataTable... tables) {
+            Collections.addAll(this.tables, tables);
+        }
+
+        // The leader's exception, as the leader itself got it
+        private Object await() {
+            try {
+                return result.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                if (e.getCause() instanceof Error cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+    }
+}
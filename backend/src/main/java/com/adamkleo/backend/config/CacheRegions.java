@@ -0,0 +1,16 @@
+package com.adamkleo.backend.config;
+
+// Second-level cache region names, each one is created in DatabaseConfig.secondLevelCacheManager()
+public final class CacheRegions {
+
+    public static final String EMPLOYEES = "employees";
+    public static final String PROJECTS = "projects";
+    public static final String ACTIVE_EMPLOYEES_QUERY = "active-employees-query";
+
+    // Hibernate's own regions for query results and table update timestamps
+    public static final String DEFAULT_QUERY_RESULTS = "default-query-results-region";
+    public static final String UPDATE_TIMESTAMPS = "default-update-timestamps-region";
+
+    private CacheRegions() {
+    }
+}
@@ -3,33 +3,124 @@ package com.adamkleo.backend.config;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.dao.annotation.PersistenceExceptionTranslationPostProcessor;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import com.adamkleo.backend.datasource.ReadYourWritesWindow;
+import com.adamkleo.backend.datasource.ReplicaRoutingDataSource;
+import com.adamkleo.backend.datasource.ReplicaSelection;
+import com.adamkleo.backend.entity.AssignmentId;
+import com.adamkleo.backend.entity.DeletedAssignment;
+import com.adamkleo.backend.entity.Employee;
+import com.adamkleo.backend.entity.Project;
+import com.adamkleo.backend.entity.ProjectAssignment;
+import com.adamkleo.backend.metrics.StatementCountingDataSource;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.persistenceunit.PersistenceManagedTypes;
 import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 import org.springframework.core.env.Environment;
 
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
 import javax.sql.DataSource;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
 import java.util.Properties;
+import java.util.UUID;
 
 @Configuration
 @EnableTransactionManagement
 public class DatabaseConfig {
 
     private final Environment env;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
 
-    public DatabaseConfig(Environment env) {
+    public DatabaseConfig(Environment env, ObjectProvider<MeterRegistry> meterRegistry) {
         this.env = env;
+        this.meterRegistry = meterRegistry;
     }
 
-    @Bean
+    @Bean(destroyMethod = "close")
     public DataSource dataSource() {
-        DriverManagerDataSource dataSource = new DriverManagerDataSource();
+        HikariDataSource primary = newPool("practica-pool", env.getProperty("spring.datasource.url"),
+                env.getProperty("spring.datasource.username"), env.getProperty("spring.datasource.password"));
+
+        List<String> replicaUrls = replicaUrls();
+        if (replicaUrls.isEmpty()) {
+            return new StatementCountingDataSource(primary);
+        }
+        // Read replicas take the read-only transactions, with the primary's credentials unless given their own
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            replicas.add(newPool("practica-replica-" + (i + 1), replicaUrls.get(i),
+                    env.getProperty("app.datasource.replica-username", env.getProperty("spring.datasource.username")),
+                    env.getProperty("app.datasource.replica-password", env.getProperty("spring.datasource.password"))));
+        }
+        return new StatementCountingDataSource(new ReplicaRoutingDataSource(primary, replicas,
+                ReplicaSelection.fromProperty(env.getProperty("app.datasource.replica-selection", "round-robin")),
+                env.getProperty("app.datasource.replica-retry-after", Duration.class, Duration.ofSeconds(30)),
+                readYourWritesWindow()));
+    }
+
+    @Bean
+    public ReadYourWritesWindow readYourWritesWindow() {
+        return new ReadYourWritesWindow(env.getProperty("app.datasource.read-your-writes-window", Duration.class, Duration.ZERO));
+    }
+
+    private List<String> replicaUrls() {
+        List<String> urls = new ArrayList<>();
+        for (String url : env.getProperty("app.datasource.replica-urls", String[].class, new String[0])) {
+            if (!url.isBlank()) {
+                urls.add(url.trim());
+            }
+        }
+        return urls;
+    }
+
+    private HikariDataSource newPool(String name, String url, String username, String password) {
+        // No-arg constructor: the pool starts lazily on the first getConnection()
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName(name);
         dataSource.setDriverClassName(env.getProperty("spring.datasource.driver-class-name"));
-        dataSource.setUrl(env.getProperty("spring.datasource.url"));
-        dataSource.setUsername(env.getProperty("spring.datasource.username"));
-        dataSource.setPassword(env.getProperty("spring.datasource.password"));
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+
+        // Pool sizing and timeouts (milliseconds)
+        dataSource.setMinimumIdle(env.getProperty("spring.datasource.hikari.minimum-idle", Integer.class, 5));
+        dataSource.setMaximumPoolSize(env.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 20));
+        dataSource.setConnectionTimeout(env.getProperty("spring.datasource.hikari.connection-timeout", Long.class, 5000L));
+        dataSource.setIdleTimeout(env.getProperty("spring.datasource.hikari.idle-timeout", Long.class, 600000L));
+        dataSource.setMaxLifetime(env.getProperty("spring.datasource.hikari.max-lifetime", Long.class, 1800000L));
+        dataSource.setLeakDetectionThreshold(env.getProperty("spring.datasource.hikari.leak-detection-threshold", Long.class, 30000L));
+
+        // Connections are checked with Connection.isValid() before being handed out
+        dataSource.setValidationTimeout(env.getProperty("spring.datasource.hikari.validation-timeout", Long.class, 3000L));
+
+        // MySQL driver-level prepared statement cache
+        dataSource.addDataSourceProperty("cachePrepStmts", env.getProperty("spring.datasource.hikari.data-source-properties.cachePrepStmts", "true"));
+        dataSource.addDataSourceProperty("prepStmtCacheSize", env.getProperty("spring.datasource.hikari.data-source-properties.prepStmtCacheSize", "250"));
+        dataSource.addDataSourceProperty("prepStmtCacheSqlLimit", env.getProperty("spring.datasource.hikari.data-source-properties.prepStmtCacheSqlLimit", "2048"));
+        dataSource.addDataSourceProperty("useServerPrepStmts", env.getProperty("spring.datasource.hikari.data-source-properties.useServerPrepStmts", "true"));
+
+        // Sends JDBC batches as multi-row INSERTs instead of one statement per row
+        dataSource.addDataSourceProperty("rewriteBatchedStatements", env.getProperty("spring.datasource.hikari.data-source-properties.rewriteBatchedStatements", "true"));
+
+        // Lets the MySQL driver honour fetch size hints instead of buffering whole result sets
+        dataSource.addDataSourceProperty("useCursorFetch", env.getProperty("spring.datasource.hikari.data-source-properties.useCursorFetch", "true"));
+
+        // hikaricp.* meters tagged with the pool name; Spring Boot only finds the primary pool behind the router
+        meterRegistry.ifAvailable(registry -> dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+
         return dataSource;
     }
 
@@ -37,7 +128,11 @@ public class DatabaseConfig {
     public LocalContainerEntityManagerFactoryBean entityManagerFactory() {
         LocalContainerEntityManagerFactoryBean em = new LocalContainerEntityManagerFactoryBean();
         em.setDataSource(dataSource());
-        em.setPackagesToScan("com.adamkleo.backend.entity");
+        em.setManagedTypes(managedTypes());
+        if (!"default".equals(env.getProperty("spring.data.jpa.repositories.bootstrap-mode", "default"))) {
+            // Deferred or lazy repositories: Hibernate bootstraps on its own thread while the context starts
+            em.setBootstrapExecutor(new SimpleAsyncTaskExecutor("jpa-bootstrap-"));
+        }
 
         HibernateJpaVendorAdapter vendorAdapter = new HibernateJpaVendorAdapter();
         em.setJpaVendorAdapter(vendorAdapter);
@@ -46,11 +141,69 @@ public class DatabaseConfig {
         additionalProperties.put("hibernate.dialect", env.getProperty("spring.jpa.database-platform"));
         additionalProperties.put("hibernate.show_sql", env.getProperty("spring.jpa.show-sql"));
         additionalProperties.put("hibernate.hbm2ddl.auto", env.getProperty("spring.jpa.hibernate.ddl-auto"));
+        additionalProperties.put("hibernate.generate_statistics", env.getProperty("spring.jpa.properties.hibernate.generate_statistics", "false"));
         em.setJpaProperties(additionalProperties);
+        if (!replicaUrls().isEmpty()) {
+            // Open session in view would otherwise hold the first transaction's connection, replica
+            // or primary, for the whole request. Released after each transaction, every one is routed.
+            em.getJpaPropertyMap().put("hibernate.connection.handling_mode", "DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION");
+        }
+
+        // Local second-level cache for Employee and Project (@Cache on the entities) and cacheable queries
+        if (env.getProperty("app.second-level-cache.enabled", Boolean.class, true)) {
+            em.getJpaPropertyMap().put("hibernate.cache.use_second_level_cache", "true");
+            em.getJpaPropertyMap().put("hibernate.cache.use_query_cache", "true");
+            em.getJpaPropertyMap().put("hibernate.cache.region.factory_class", "jcache");
+            em.getJpaPropertyMap().put("hibernate.javax.cache.cache_manager", secondLevelCacheManager());
+            // Every region must be declared in secondLevelCacheManager(), a typo fails at startup
+            em.getJpaPropertyMap().put("hibernate.javax.cache.missing_cache_strategy", "fail");
+        }
 
         return em;
     }
 
+    // Caffeine regions with a size bound and a time to live, the cache is per instance
+    private CacheManager secondLevelCacheManager() {
+        CachingProvider provider = Caching.getCachingProvider("com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider");
+        // Its own manager per session factory, Hibernate closes it on shutdown
+        CacheManager cacheManager = provider.getCacheManager(
+                URI.create("practica-" + UUID.randomUUID()), DatabaseConfig.class.getClassLoader());
+
+        long entities = env.getProperty("app.second-level-cache.entity-max-entries", Long.class, 10_000L);
+        Duration entityTtl = env.getProperty("app.second-level-cache.entity-ttl", Duration.class, Duration.ofMinutes(30));
+        long queries = env.getProperty("app.second-level-cache.query-max-entries", Long.class, 100L);
+        Duration queryTtl = env.getProperty("app.second-level-cache.query-ttl", Duration.class, Duration.ofMinutes(5));
+
+        createRegion(cacheManager, CacheRegions.EMPLOYEES, entities, entityTtl);
+        createRegion(cacheManager, CacheRegions.PROJECTS, entities, entityTtl);
+        createRegion(cacheManager, CacheRegions.ACTIVE_EMPLOYEES_QUERY, queries, queryTtl);
+        createRegion(cacheManager, CacheRegions.DEFAULT_QUERY_RESULTS, queries, queryTtl);
+        // Update timestamps decide whether a cached query is stale, they must never be evicted
+        createRegion(cacheManager, CacheRegions.UPDATE_TIMESTAMPS, null, null);
+        return cacheManager;
+    }
+
+    private static void createRegion(CacheManager cacheManager, String name, Long maxEntries, Duration ttl) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        if (maxEntries != null) {
+            configuration.setMaximumSize(OptionalLong.of(maxEntries));
+        }
+        if (ttl != null) {
+            configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        }
+        cacheManager.createCache(name, configuration);
+    }
+
+    // Listed rather than scanned from the classpath at every start, PersistenceUnitTests checks the list is complete
+    static PersistenceManagedTypes managedTypes() {
+        return PersistenceManagedTypes.of(
+                Employee.class.getName(),
+                Project.class.getName(),
+                ProjectAssignment.class.getName(),
+                DeletedAssignment.class.getName(),
+                AssignmentId.class.getName());
+    }
+
     @Bean
     public JpaTransactionManager transactionManager() {
         JpaTransactionManager transactionManager = new JpaTransactionManager();
@@ -58,8 +211,9 @@ public class DatabaseConfig {
         return transactionManager;
     }
 
+    // Static, so this configuration is not created before the post-processors are registered
     @Bean
-    public PersistenceExceptionTranslationPostProcessor exceptionTranslation() {
+    public static PersistenceExceptionTranslationPostProcessor exceptionTranslation() {
         return new PersistenceExceptionTranslationPostProcessor();
     }
 }
@@ -1,23 +1,25 @@
 package com.adamkleo.backend.config;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Component;
 
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Statement;
 
 @Component
-public class DatabaseCreator implements CommandLineRunner {
+@ConditionalOnProperty(name = "app.database.create-on-startup", havingValue = "true", matchIfMissing = true)
+public class DatabaseCreator {
 
     @Autowired
     private Environment env;
 
-    @Override
-    public void run(String... args) throws Exception {
+    // Called by MigrationConfig before the first migration, which needs the database to exist
+    public void createDatabaseIfMissing() throws SQLException {
         String url = env.getProperty("spring.datasource.url"); // includes db name
         String username = env.getProperty("spring.datasource.username");
         String password = env.getProperty("spring.datasource.password");
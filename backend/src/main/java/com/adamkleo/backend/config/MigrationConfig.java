@@ -0,0 +1,32 @@
+package com.adamkleo.backend.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.sql.SQLException;
+
+/**
+ * The schema is created and upgraded by Flyway at startup, before the entity manager
+ * factory is built. Migrations live in {@code db/migration} (SQL) and in
+ * {@code com.adamkleo.backend.migration} (Java).
+ */
+@Configuration
+public class MigrationConfig {
+
+    @Bean
+    public FlywayMigrationStrategy migrationStrategy(ObjectProvider<DatabaseCreator> databaseCreator) {
+        return flyway -> {
+            DatabaseCreator creator = databaseCreator.getIfAvailable();
+            if (creator != null) {
+                try {
+                    creator.createDatabaseIfMissing();
+                } catch (SQLException e) {
+                    throw new IllegalStateException("Could not create the PRACTICA database", e);
+                }
+            }
+            flyway.migrate();
+        };
+    }
+}
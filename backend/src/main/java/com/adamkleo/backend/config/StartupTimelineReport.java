@@ -0,0 +1,88 @@
+package com.adamkleo.backend.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Logs where the startup time went once the application is ready: the total per
+ * startup phase and the slowest bean instantiations. A bean's time includes the beans
+ * created for it. The full timeline stays available at {@code /actuator/startup}.
+ */
+@Component
+@ConditionalOnProperty(name = "app.startup.report", havingValue = "true")
+public class StartupTimelineReport {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupTimelineReport.class);
+
+    private static final String BEAN_STEP = "spring.beans.instantiate";
+
+    private final int lines;
+
+    public StartupTimelineReport(@Value("${app.startup.report-lines:10}") int lines) {
+        this.lines = lines;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void report(ApplicationReadyEvent event) {
+        ApplicationStartup startup = event.getApplicationContext().getApplicationStartup();
+        if (!(startup instanceof BufferingApplicationStartup buffering)) {
+            // Started by a test or another main class
+            log.info("Ready in {} ms, no startup timeline was recorded", event.getTimeTaken().toMillis());
+            return;
+        }
+
+        Map<String, Duration> phases = new HashMap<>();
+        Map<String, Duration> beans = new HashMap<>();
+        for (StartupTimeline.TimelineEvent step : buffering.getBufferedTimeline().getEvents()) {
+            String name = step.getStartupStep().getName();
+            if (BEAN_STEP.equals(name)) {
+                beans.merge(beanName(step.getStartupStep()), step.getDuration(), Duration::plus);
+            } else {
+                phases.merge(name, step.getDuration(), Duration::plus);
+            }
+        }
+
+        StringBuilder report = new StringBuilder()
+                .append("Ready in ").append(event.getTimeTaken().toMillis()).append(" ms, JVM up for ")
+                .append(ManagementFactory.getRuntimeMXBean().getUptime()).append(" ms");
+        append(report, "Slowest phases", phases);
+        append(report, "Slowest beans", beans);
+        log.info(report.toString());
+    }
+
+    private void append(StringBuilder report, String title, Map<String, Duration> durations) {
+        report.append(System.lineSeparator()).append(title).append(':');
+        List<Map.Entry<String, Duration>> slowest = new ArrayList<>(durations.entrySet());
+        slowest.sort(Map.Entry.<String, Duration>comparingByValue(Comparator.reverseOrder()));
+        for (Map.Entry<String, Duration> entry : slowest.subList(0, Math.min(lines, slowest.size()))) {
+            report.append(System.lineSeparator())
+                    .append(String.format("  %6d ms  %s", entry.getValue().toMillis(), entry.getKey()));
+        }
+    }
+
+    private static String beanName(StartupStep step) {
+        for (StartupStep.Tag tag : step.getTags()) {
+            if ("beanName".equals(tag.getKey())) {
+                return tag.getValue();
+            }
+        }
+        return "(unnamed)";
+    }
+}
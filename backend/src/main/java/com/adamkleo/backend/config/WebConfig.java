@@ -1,20 +1,33 @@
 package com.adamkleo.backend.config;
 
+import com.adamkleo.backend.admission.AdmissionInterceptor;
+import com.adamkleo.backend.metrics.SqlBudgetInterceptor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
 public class WebConfig {
     @Bean
-    public WebMvcConfigurer corsConfigurer() {
+    public WebMvcConfigurer webMvcConfigurer(AdmissionInterceptor admissionInterceptor,
+                                             SqlBudgetInterceptor sqlBudgetInterceptor) {
         return new WebMvcConfigurer() {
             @Override
             public void addCorsMappings(CorsRegistry registry) {
                 registry.addMapping("/**")
                         .allowedOrigins("http://localhost:3000")
-                        .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS");
+                        .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
+                        // The read-your-writes cookie is only stored and sent back on credentialed requests
+                        .allowCredentials(true);
+            }
+
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                // First, so a rejected request does no other work
+                registry.addInterceptor(admissionInterceptor);
+                registry.addInterceptor(sqlBudgetInterceptor);
             }
         };
     }
@@ -1,20 +1,34 @@
 package com.adamkleo.backend.controller;
 
+import com.adamkleo.backend.admission.AdmissionLane;
+import com.adamkleo.backend.admission.Lane;
+import com.adamkleo.backend.cache.ResponseSnapshotCache;
+import com.adamkleo.backend.dto.AssignmentDTO;
+import com.adamkleo.backend.dto.AssignmentSyncResultDTO;
+import com.adamkleo.backend.dto.ChangeSetDTO;
+import com.adamkleo.backend.entity.AssignmentId;
 import com.adamkleo.backend.entity.ProjectAssignment;
+import com.adamkleo.backend.event.DataTable;
+import com.adamkleo.backend.metrics.SqlBudget;
 import com.adamkleo.backend.service.AssignmentService;
+import com.adamkleo.backend.sync.ChangeWindow;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/assignments")
 public class AssignmentController {
 
     private final AssignmentService assignmentService;
+    private final ResponseSnapshotCache snapshotCache;
 
-    public AssignmentController(AssignmentService assignmentService) {
+    public AssignmentController(AssignmentService assignmentService, ResponseSnapshotCache snapshotCache) {
         this.assignmentService = assignmentService;
+        this.snapshotCache = snapshotCache;
     }
 
     @PostMapping("/{projectId}/assign/{employeeId}")
@@ -29,23 +43,71 @@ public class AssignmentController {
         return ResponseEntity.ok().build();
     }
 
+    @AdmissionLane(Lane.BULK)
+    @SqlBudget(SqlBudget.UNLIMITED)
+    @PutMapping("/project/{projectId}")
+    public ResponseEntity<AssignmentSyncResultDTO> syncProjectAssignments(@PathVariable Integer projectId,
+                                                                          @RequestBody Set<Integer> employeeIds) {
+        return ResponseEntity.ok(assignmentService.syncProjectAssignments(projectId, employeeIds));
+    }
+
+    // Rows written after since, for clients that keep a copy; without since, the version to start from
+    @SqlBudget(5)
+    @GetMapping("/changes")
+    public ChangeSetDTO<ProjectAssignment, AssignmentId> getChanges(
+            @RequestParam(required = false) Long since,
+            @RequestParam(defaultValue = "1000") int limit
+    ) {
+        if (limit < 1 || limit > ChangeWindow.MAX_LIMIT) {
+            throw new IllegalArgumentException("El número de cambios debe estar entre 1 y " + ChangeWindow.MAX_LIMIT + ".");
+        }
+        return assignmentService.getChangesSince(since, limit);
+    }
+
+    @SqlBudget(2)
     @GetMapping("/project/{projectId}")
     public ResponseEntity<List<ProjectAssignment>> getAssignmentsByProject(@PathVariable Integer projectId) {
         return ResponseEntity.ok(assignmentService.getAssignmentsByProject(projectId));
     }
 
+    @SqlBudget(2)
     @GetMapping("/employee/{employeeId}")
     public ResponseEntity<List<ProjectAssignment>> getAssignmentsByEmployee(@PathVariable Integer employeeId) {
         return ResponseEntity.ok(assignmentService.getAssignmentsByEmployee(employeeId));
     }
 
+    // Every assignment with its employee and project, as large as an export
+    @AdmissionLane(Lane.EXPORT)
+    @SqlBudget(2)
     @GetMapping()
     public ResponseEntity<List<ProjectAssignment>> getAssignments() {
         return ResponseEntity.ok(assignmentService.getAssignments());
     }
 
+    // Embeds full employees and projects, so any of the three tables changes the response
+    @SqlBudget(2)
     @GetMapping("/active")
-    public ResponseEntity<List<ProjectAssignment>> getAssignmentsActive() {
-        return ResponseEntity.ok(assignmentService.getActiveAssignments());
+    public ResponseEntity<byte[]> getAssignmentsActive(HttpServletRequest request) {
+        return snapshotCache.respond("assignments-active", request, assignmentService::getActiveAssignments,
+                DataTable.ASSIGNMENTS, DataTable.PROJECTS, DataTable.EMPLOYEES);
+    }
+
+    @AdmissionLane(Lane.EXPORT)
+    @SqlBudget(2)
+    @GetMapping("/flat")
+    public ResponseEntity<List<AssignmentDTO>> getFlatAssignments() {
+        return ResponseEntity.ok(assignmentService.getFlatAssignments());
+    }
+
+    @SqlBudget(2)
+    @GetMapping("/active/flat")
+    public ResponseEntity<List<AssignmentDTO>> getFlatAssignmentsActive() {
+        return ResponseEntity.ok(assignmentService.getFlatActiveAssignments());
+    }
+
+    @SqlBudget(2)
+    @GetMapping("/project/{projectId}/flat")
+    public ResponseEntity<List<AssignmentDTO>> getFlatAssignmentsByProject(@PathVariable Integer projectId) {
+        return ResponseEntity.ok(assignmentService.getFlatAssignmentsByProject(projectId));
     }
 }
@@ -0,0 +1,28 @@
+package com.adamkleo.backend.controller;
+
+import com.adamkleo.backend.admission.AdmissionLane;
+import com.adamkleo.backend.admission.Lane;
+import com.adamkleo.backend.feed.ChangeFeed;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/changes")
+public class ChangeFeedController {
+
+    private final ChangeFeed changeFeed;
+
+    public ChangeFeedController(ChangeFeed changeFeed) {
+        this.changeFeed = changeFeed;
+    }
+
+    // Waiting subscribers hold no request thread, so the stream is not admission controlled
+    @AdmissionLane(Lane.NONE)
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream() {
+        return changeFeed.subscribe();
+    }
+}
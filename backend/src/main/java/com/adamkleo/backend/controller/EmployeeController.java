@@ -1,42 +1,95 @@
 package com.adamkleo.backend.controller;
 
+import com.adamkleo.backend.admission.AdmissionLane;
+import com.adamkleo.backend.admission.Lane;
+import com.adamkleo.backend.cache.ResponseSnapshotCache;
+import com.adamkleo.backend.dto.BulkImportReportDTO;
+import com.adamkleo.backend.dto.ChangeSetDTO;
+import com.adamkleo.backend.dto.CursorPageDTO;
 import com.adamkleo.backend.dto.EmployeeBasicDTO;
 import com.adamkleo.backend.entity.Employee;
+import com.adamkleo.backend.event.DataTable;
+import com.adamkleo.backend.metrics.SqlBudget;
+import com.adamkleo.backend.service.EmployeeImportService;
 import com.adamkleo.backend.service.EmployeeService;
+import com.adamkleo.backend.sync.ChangeWindow;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
-
+import java.io.IOException;
 import java.util.List;
 
 @RestController
 @RequestMapping("/employees")
 public class EmployeeController {
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+    private static final int MAX_SEARCH_RESULTS = 50;
+
     private final EmployeeService employeeService;
+    private final EmployeeImportService employeeImportService;
+    private final ResponseSnapshotCache snapshotCache;
+    private final int maxPageSize;
 
-    public EmployeeController(EmployeeService employeeService) {
+    public EmployeeController(EmployeeService employeeService,
+                              EmployeeImportService employeeImportService,
+                              ResponseSnapshotCache snapshotCache,
+                              @Value("${app.pagination.max-page-size:100}") int maxPageSize) {
         this.employeeService = employeeService;
+        this.employeeImportService = employeeImportService;
+        this.snapshotCache = snapshotCache;
+        this.maxPageSize = maxPageSize;
     }
 
+    @SqlBudget(2)
     @GetMapping
-    public List<Employee> getActiveEmployees() {
-        return employeeService.getActiveEmployees();
+    public ResponseEntity<byte[]> getActiveEmployees(HttpServletRequest request) {
+        return snapshotCache.respond("employees", request, employeeService::getActiveEmployees, DataTable.EMPLOYEES);
     }
 
+    @SqlBudget(2)
     @GetMapping("/paginated")
     public Page<Employee> getPaginatedActiveEmployees(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size
     ) {
-        Pageable pageable = PageRequest.of(page, size);
+        Pageable pageable = PageRequest.of(page, Math.min(size, maxPageSize));
         return employeeService.getActiveEmployees(pageable);
     }
 
+    @SqlBudget(2)
+    @GetMapping("/cursor")
+    public CursorPageDTO<Employee> getCursorPaginatedActiveEmployees(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal
+    ) {
+        if (size < 1 || size > MAX_CURSOR_PAGE_SIZE) {
+            throw new IllegalArgumentException("El tamaño de página debe estar entre 1 y " + MAX_CURSOR_PAGE_SIZE + ".");
+        }
+        return employeeService.getActiveEmployees(cursor, size, includeTotal);
+    }
+
+
+    // Rows written after since, for clients that keep a copy; without since, the version to start from
+    @SqlBudget(3)
+    @GetMapping("/changes")
+    public ChangeSetDTO<Employee, Integer> getChanges(
+            @RequestParam(required = false) Long since,
+            @RequestParam(defaultValue = "1000") int limit
+    ) {
+        if (limit < 1 || limit > ChangeWindow.MAX_LIMIT) {
+            throw new IllegalArgumentException("El número de cambios debe estar entre 1 y " + ChangeWindow.MAX_LIMIT + ".");
+        }
+        return employeeService.getChangesSince(since, limit);
+    }
 
     @PostMapping
     public ResponseEntity<Employee> addEmployee(@RequestBody @Valid Employee employee) {
@@ -44,20 +97,43 @@ public class EmployeeController {
         return ResponseEntity.ok(saved);
     }
 
+    @AdmissionLane(Lane.BULK)
+    @SqlBudget(SqlBudget.UNLIMITED)
     @PostMapping("/bulk")
     public ResponseEntity<List<Employee>> addEmployees(@RequestBody @Valid List<@Valid Employee> employees) {
         List<Employee> saved = employeeService.addEmployees(employees);
         return ResponseEntity.ok(saved);
     }
 
+    // Reads the request body as a stream, so it is not bound to a List like /bulk
+    @AdmissionLane(Lane.BULK)
+    @SqlBudget(SqlBudget.UNLIMITED)
+    @PostMapping(value = "/bulk/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BulkImportReportDTO> importEmployees(HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(employeeImportService.importEmployees(request.getInputStream()));
+    }
+
     @PutMapping("/{id}/terminate")
     public ResponseEntity<Void> terminateEmployee(@PathVariable Integer id) {
         employeeService.terminateEmployee(id);
         return ResponseEntity.ok().build();
     }
 
+    @SqlBudget(2)
     @GetMapping("/basic")
-    public List<EmployeeBasicDTO> getBasicEmployees() {
-        return employeeService.getAllBasicEmployees();
+    public ResponseEntity<byte[]> getBasicEmployees(HttpServletRequest request) {
+        return snapshotCache.respond("employees-basic", request, employeeService::getAllBasicEmployees, DataTable.EMPLOYEES);
+    }
+
+    @SqlBudget(2)
+    @GetMapping("/search")
+    public List<EmployeeBasicDTO> searchEmployees(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        if (limit < 1 || limit > MAX_SEARCH_RESULTS) {
+            throw new IllegalArgumentException("El número de resultados debe estar entre 1 y " + MAX_SEARCH_RESULTS + ".");
+        }
+        return employeeService.searchEmployees(q, limit);
     }
 }
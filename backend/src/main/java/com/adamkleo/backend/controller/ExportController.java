@@ -0,0 +1,58 @@
+package com.adamkleo.backend.controller;
+
+import com.adamkleo.backend.admission.AdmissionLane;
+import com.adamkleo.backend.admission.Lane;
+import com.adamkleo.backend.service.ExportFormat;
+import com.adamkleo.backend.service.ExportService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+@AdmissionLane(Lane.EXPORT)
+@RestController
+@RequestMapping("/export")
+public class ExportController {
+
+    private final ExportService exportService;
+
+    public ExportController(ExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    @GetMapping("/employees")
+    public void exportEmployees(@RequestParam(defaultValue = "ndjson") String format,
+                                HttpServletResponse response) throws IOException {
+        ExportFormat exportFormat = ExportFormat.from(format);
+        prepare(response, exportFormat, "empleados");
+        exportService.exportEmployees(exportFormat, response.getOutputStream());
+    }
+
+    @GetMapping("/projects")
+    public void exportProjects(@RequestParam(defaultValue = "ndjson") String format,
+                               HttpServletResponse response) throws IOException {
+        ExportFormat exportFormat = ExportFormat.from(format);
+        prepare(response, exportFormat, "proyectos");
+        exportService.exportProjects(exportFormat, response.getOutputStream());
+    }
+
+    @GetMapping("/assignments")
+    public void exportAssignments(@RequestParam(defaultValue = "ndjson") String format,
+                                  HttpServletResponse response) throws IOException {
+        ExportFormat exportFormat = ExportFormat.from(format);
+        prepare(response, exportFormat, "asignaciones");
+        exportService.exportAssignments(exportFormat, response.getOutputStream());
+    }
+
+    private void prepare(HttpServletResponse response, ExportFormat format, String name) {
+        response.setContentType(format.getContentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"" + name + "." + format.getExtension() + "\"");
+    }
+}
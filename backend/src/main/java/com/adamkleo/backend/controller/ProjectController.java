@@ -1,26 +1,74 @@
 package com.adamkleo.backend.controller;
 
+import com.adamkleo.backend.cache.ResponseSnapshotCache;
+import com.adamkleo.backend.dto.ChangeSetDTO;
 import com.adamkleo.backend.entity.Project;
+import com.adamkleo.backend.event.DataTable;
+import com.adamkleo.backend.metrics.SqlBudget;
 import com.adamkleo.backend.service.ProjectService;
+import com.adamkleo.backend.sync.ChangeWindow;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/projects")
 public class ProjectController {
 
+    private static final Set<String> SORTABLE_FIELDS = Set.of("id", "description", "startDate", "endDate", "location");
+
     private final ProjectService projectService;
+    private final ResponseSnapshotCache snapshotCache;
+    private final int maxPageSize;
 
-    public ProjectController(ProjectService projectService) {
+    public ProjectController(ProjectService projectService,
+                             ResponseSnapshotCache snapshotCache,
+                             @Value("${app.pagination.max-page-size:100}") int maxPageSize) {
         this.projectService = projectService;
+        this.snapshotCache = snapshotCache;
+        this.maxPageSize = maxPageSize;
     }
 
+    @SqlBudget(2)
     @GetMapping
-    public List<Project> getActiveProjects() {
-        return projectService.getActiveProjects();
+    public ResponseEntity<byte[]> getActiveProjects(HttpServletRequest request) {
+        return snapshotCache.respond("projects", request, projectService::getActiveProjects, DataTable.PROJECTS);
+    }
+
+    @SqlBudget(2)
+    @GetMapping("/paginated")
+    public Page<Project> getPaginatedActiveProjects(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(defaultValue = "asc") String direction
+    ) {
+        if (!SORTABLE_FIELDS.contains(sort)) {
+            throw new IllegalArgumentException("No se puede ordenar por el campo: " + sort);
+        }
+        Pageable pageable = PageRequest.of(page, Math.min(size, maxPageSize), Sort.by(Sort.Direction.fromString(direction), sort));
+        return projectService.getActiveProjects(pageable);
+    }
+
+    // Rows written after since, for clients that keep a copy; without since, the version to start from
+    @SqlBudget(3)
+    @GetMapping("/changes")
+    public ChangeSetDTO<Project, Integer> getChanges(
+            @RequestParam(required = false) Long since,
+            @RequestParam(defaultValue = "1000") int limit
+    ) {
+        if (limit < 1 || limit > ChangeWindow.MAX_LIMIT) {
+            throw new IllegalArgumentException("El número de cambios debe estar entre 1 y " + ChangeWindow.MAX_LIMIT + ".");
+        }
+        return projectService.getChangesSince(since, limit);
     }
 
     @PostMapping
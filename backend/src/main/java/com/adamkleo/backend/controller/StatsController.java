@@ -0,0 +1,35 @@
+package com.adamkleo.backend.controller;
+
+import com.adamkleo.backend.dto.AssignmentStatsDTO;
+import com.adamkleo.backend.dto.EmployeeStatsDTO;
+import com.adamkleo.backend.dto.ProjectStatsDTO;
+import com.adamkleo.backend.stats.WorkforceStatistics;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/stats")
+public class StatsController {
+
+    private final WorkforceStatistics workforceStatistics;
+
+    public StatsController(WorkforceStatistics workforceStatistics) {
+        this.workforceStatistics = workforceStatistics;
+    }
+
+    @GetMapping("/employees")
+    public EmployeeStatsDTO getEmployeeStats() {
+        return workforceStatistics.getEmployeeStats();
+    }
+
+    @GetMapping("/projects")
+    public ProjectStatsDTO getProjectStats() {
+        return workforceStatistics.getProjectStats();
+    }
+
+    @GetMapping("/assignments")
+    public AssignmentStatsDTO getAssignmentStats() {
+        return workforceStatistics.getAssignmentStats();
+    }
+}
@@ -0,0 +1,70 @@
+package com.adamkleo.backend.datasource;
+
+import com.adamkleo.backend.event.DataTable;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the read-only transactions started by a piece of code on the primary when
+ * read replicas are configured. Used by whatever must not see a replica that is
+ * behind: snapshots cached under the current data version and index rebuilds that
+ * replay the events published while they read.
+ *
+ * <p>Code that only needs the data as of known change versions can use
+ * {@link #atLeast} instead, which lets a replica serve it once it has applied them.
+ */
+public final class ReadRouting {
+
+    private static final ThreadLocal<Boolean> ON_PRIMARY = new ThreadLocal<>();
+    private static final ThreadLocal<Map<DataTable, Long>> AT_LEAST = new ThreadLocal<>();
+
+    private ReadRouting() {
+    }
+
+    public static <T> T onPrimary(Supplier<T> work) {
+        boolean outermost = ON_PRIMARY.get() == null;
+        ON_PRIMARY.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            if (outermost) {
+                ON_PRIMARY.remove();
+            }
+        }
+    }
+
+    public static void runOnPrimary(Runnable work) {
+        onPrimary(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    public static boolean isForcedToPrimary() {
+        return ON_PRIMARY.get() != null;
+    }
+
+    /**
+     * Runs the work with its read-only transactions on a replica that has committed at
+     * least the given version of each table, or on the primary when none has.
+     */
+    public static <T> T atLeast(Map<DataTable, Long> versions, Supplier<T> work) {
+        Map<DataTable, Long> outer = AT_LEAST.get();
+        AT_LEAST.set(Map.copyOf(versions));
+        try {
+            return work.get();
+        } finally {
+            if (outer == null) {
+                AT_LEAST.remove();
+            } else {
+                AT_LEAST.set(outer);
+            }
+        }
+    }
+
+    // The versions a replica must have committed to serve the current read, null when any will do
+    public static Map<DataTable, Long> requiredVersions() {
+        return AT_LEAST.get();
+    }
+}
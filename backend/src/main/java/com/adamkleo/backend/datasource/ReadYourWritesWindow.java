@@ -0,0 +1,111 @@
+package com.adamkleo.backend.datasource;
+
+import com.adamkleo.backend.event.DataChangedEvent;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Sends a client's read-only transactions to the primary for a while after it commits
+ * a write, so it does not read its own change back from a replica that has not applied
+ * it yet. The response to the write sets the {@value #COOKIE} cookie to the end of the
+ * window, and the client's requests carrying it until then read the primary, whichever
+ * instance they reach. Other clients keep reading the replicas. The window should
+ * cover the usual replication lag; zero turns it off.
+ */
+public class ReadYourWritesWindow extends OncePerRequestFilter {
+
+    public static final String COOKIE = "read-your-writes";
+
+    private static final String ATTRIBUTE = ReadYourWritesWindow.class.getName();
+
+    private volatile Duration window;
+
+    public ReadYourWritesWindow(Duration window) {
+        this.window = window;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        // Never longer than the window from now, whatever the cookie says
+        long openUntil = Math.min(openUntil(request), System.currentTimeMillis() + window.toMillis());
+        request.setAttribute(ATTRIBUTE, new Client(response, openUntil));
+        chain.doFilter(request, response);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDataChanged(DataChangedEvent event) {
+        Client client = current();
+        // Writes outside a request (imports, scheduled jobs) have no client to send back to
+        if (client == null || window.isZero()) {
+            return;
+        }
+        client.openUntil = System.currentTimeMillis() + window.toMillis();
+        if (!client.response.isCommitted()) {
+            Cookie cookie = new Cookie(COOKIE, Long.toString(client.openUntil));
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            cookie.setMaxAge((int) Math.max(1, window.toSeconds()));
+            client.response.addCookie(cookie);
+        }
+    }
+
+    public boolean isOpen() {
+        Client client = current();
+        return client != null && System.currentTimeMillis() < client.openUntil;
+    }
+
+    public Duration getWindow() {
+        return window;
+    }
+
+    public void setWindow(Duration window) {
+        this.window = window;
+    }
+
+    private static Client current() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        return (Client) attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+    }
+
+    // Epoch millis from the cookie, 0 when it is missing or not a number
+    private static long openUntil(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return 0;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 0;
+    }
+
+    private static final class Client {
+        private final HttpServletResponse response;
+        private volatile long openUntil;
+
+        private Client(HttpServletResponse response, long openUntil) {
+            this.response = response;
+            this.openUntil = openUntil;
+        }
+    }
+}
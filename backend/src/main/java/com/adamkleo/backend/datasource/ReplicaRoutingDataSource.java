@@ -0,0 +1,169 @@
+package com.adamkleo.backend.datasource;
+
+import com.adamkleo.backend.event.DataTable;
+import com.adamkleo.backend.sync.ChangeVersions;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Sends read-only transactions to a replica pool and everything else to the primary.
+ * The pool is chosen when the transaction runs its first statement: Spring marks the
+ * transaction read-only only after beginning it, which is why the router sits behind
+ * a lazy connection proxy. Reads stay on the primary inside {@link ReadRouting#onPrimary}
+ * and while the client's {@link ReadYourWritesWindow} is open. Inside
+ * {@link ReadRouting#atLeast} a replica is only used once it has committed the required
+ * versions, which it is asked for on the connection it hands out.
+ *
+ * <p>A replica that cannot hand out a connection is skipped for a cooldown and the
+ * next one is tried. When no replica is available the read runs on the primary.
+ */
+public class ReplicaRoutingDataSource extends LazyConnectionDataSourceProxy implements AutoCloseable {
+
+    private final Router router;
+
+    public ReplicaRoutingDataSource(HikariDataSource primary,
+                                    List<HikariDataSource> replicas,
+                                    ReplicaSelection selection,
+                                    Duration cooldown,
+                                    ReadYourWritesWindow readYourWrites) {
+        this(new Router(primary, replicas, selection, cooldown, readYourWrites));
+    }
+
+    private ReplicaRoutingDataSource(Router router) {
+        super(router);
+        this.router = router;
+    }
+
+    @Override
+    public void close() {
+        for (HikariDataSource replica : router.replicas) {
+            replica.close();
+        }
+        router.primary.close();
+    }
+
+    private static final class Router extends AbstractDataSource {
+
+        private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+        private final HikariDataSource primary;
+        private final List<HikariDataSource> replicas;
+        private final ReplicaSelection selection;
+        private final Duration cooldown;
+        private final ReadYourWritesWindow readYourWrites;
+
+        private final AtomicInteger next = new AtomicInteger();
+        // Epoch millis until which each replica is skipped, 0 when it is up
+        private final AtomicLongArray downUntil;
+
+        Router(HikariDataSource primary, List<HikariDataSource> replicas, ReplicaSelection selection,
+               Duration cooldown, ReadYourWritesWindow readYourWrites) {
+            this.primary = primary;
+            this.replicas = List.copyOf(replicas);
+            this.selection = selection;
+            this.cooldown = cooldown;
+            this.readYourWrites = readYourWrites;
+            this.downUntil = new AtomicLongArray(replicas.size());
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                    || ReadRouting.isForcedToPrimary()
+                    || readYourWrites.isOpen()) {
+                return primary.getConnection();
+            }
+            Map<DataTable, Long> required = ReadRouting.requiredVersions();
+            for (int index : candidates()) {
+                HikariDataSource replica = replicas.get(index);
+                Connection connection = null;
+                try {
+                    connection = replica.getConnection();
+                    if (required == null || hasCommitted(connection, required)) {
+                        return connection;
+                    }
+                    // Behind, but not skipped like an unavailable replica: it may have caught up by the next read
+                    connection.close();
+                } catch (SQLException | RuntimeException e) {
+                    if (connection != null) {
+                        connection.close();
+                    }
+                    downUntil.set(index, System.currentTimeMillis() + cooldown.toMillis());
+                    log.warn("Replica pool {} unavailable, skipping it for {}: {}",
+                            replica.getPoolName(), cooldown, e.getMessage());
+                }
+            }
+            return primary.getConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return primary.getConnection(username, password);
+        }
+
+        // Asked in auto-commit mode, before the caller's transaction begins on the connection
+        private static boolean hasCommitted(Connection connection, Map<DataTable, Long> required) throws SQLException {
+            Map<DataTable, Long> committed = ChangeVersions.committed(connection);
+            for (Map.Entry<DataTable, Long> version : required.entrySet()) {
+                if (committed.getOrDefault(version.getKey(), 0L) < version.getValue()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // Lets the pool metrics find the primary Hikari pool behind the proxy
+        @Override
+        public <T> T unwrap(Class<T> iface) throws SQLException {
+            if (iface.isInstance(this)) {
+                return iface.cast(this);
+            }
+            return primary.unwrap(iface);
+        }
+
+        @Override
+        public boolean isWrapperFor(Class<?> iface) throws SQLException {
+            return iface.isInstance(this) || primary.isWrapperFor(iface);
+        }
+
+        // Replicas that are up, in the order they should be tried
+        private List<Integer> candidates() {
+            int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+            long now = System.currentTimeMillis();
+            List<Integer> candidates = new ArrayList<>(replicas.size());
+            for (int i = 0; i < replicas.size(); i++) {
+                int index = (start + i) % replicas.size();
+                long until = downUntil.get(index);
+                if (until <= now) {
+                    candidates.add(index);
+                }
+            }
+            if (selection == ReplicaSelection.LEAST_LOADED) {
+                // Stable sort, so equally loaded replicas keep the round-robin order
+                candidates.sort(Comparator.comparingInt(this::load));
+            }
+            return candidates;
+        }
+
+        private int load(int index) {
+            // Null until the pool has started
+            HikariPoolMXBean pool = replicas.get(index).getHikariPoolMXBean();
+            return pool == null ? 0 : pool.getActiveConnections() + pool.getThreadsAwaitingConnection();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.adamkleo.backend.datasource;
+
+import java.util.Locale;
+
+/**
+ * How {@link ReplicaRoutingDataSource} picks the replica for a read-only transaction.
+ */
+public enum ReplicaSelection {
+
+    // Each replica in turn
+    ROUND_ROBIN,
+
+    // The replica with the fewest connections in use or awaited, ties in turn
+    LEAST_LOADED;
+
+    // Accepts the property spelling, e.g. "least-loaded"
+    public static ReplicaSelection fromProperty(String value) {
+        return valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+    }
+}
@@ -0,0 +1,83 @@
+package com.adamkleo.backend.dto;
+
+import java.time.LocalDate;
+
+public class AssignmentDTO {
+    private Integer projectId;
+    private String projectDescription;
+    private Integer employeeId;
+    private String firstName;
+    private String lastName1;
+    private String lastName2;
+    private LocalDate assignmentDate;
+
+    public AssignmentDTO() {
+    }
+
+    public AssignmentDTO(Integer projectId, String projectDescription, Integer employeeId,
+                         String firstName, String lastName1, String lastName2, LocalDate assignmentDate) {
+        this.projectId = projectId;
+        this.projectDescription = projectDescription;
+        this.employeeId = employeeId;
+        this.firstName = firstName;
+        this.lastName1 = lastName1;
+        this.lastName2 = lastName2;
+        this.assignmentDate = assignmentDate;
+    }
+
+    public Integer getProjectId() {
+        return projectId;
+    }
+
+    public void setProjectId(Integer projectId) {
+        this.projectId = projectId;
+    }
+
+    public String getProjectDescription() {
+        return projectDescription;
+    }
+
+    public void setProjectDescription(String projectDescription) {
+        this.projectDescription = projectDescription;
+    }
+
+    public Integer getEmployeeId() {
+        return employeeId;
+    }
+
+    public void setEmployeeId(Integer employeeId) {
+        this.employeeId = employeeId;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public void setFirstName(String firstName) {
+        this.firstName = firstName;
+    }
+
+    public String getLastName1() {
+        return lastName1;
+    }
+
+    public void setLastName1(String lastName1) {
+        this.lastName1 = lastName1;
+    }
+
+    public String getLastName2() {
+        return lastName2;
+    }
+
+    public void setLastName2(String lastName2) {
+        this.lastName2 = lastName2;
+    }
+
+    public LocalDate getAssignmentDate() {
+        return assignmentDate;
+    }
+
+    public void setAssignmentDate(LocalDate assignmentDate) {
+        this.assignmentDate = assignmentDate;
+    }
+}
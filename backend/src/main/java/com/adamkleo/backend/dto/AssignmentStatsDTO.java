@@ -0,0 +1,43 @@
+package com.adamkleo.backend.dto;
+
+import java.util.List;
+import java.util.Map;
+
+public class AssignmentStatsDTO {
+    private Map<Integer, Long> activeEmployeesByAssignmentCount;
+    private List<ProjectAssignmentCountDTO> topProjects;
+    private long projectsWithoutAssignments;
+
+    public AssignmentStatsDTO() {
+    }
+
+    public AssignmentStatsDTO(Map<Integer, Long> activeEmployeesByAssignmentCount, List<ProjectAssignmentCountDTO> topProjects, long projectsWithoutAssignments) {
+        this.activeEmployeesByAssignmentCount = activeEmployeesByAssignmentCount;
+        this.topProjects = topProjects;
+        this.projectsWithoutAssignments = projectsWithoutAssignments;
+    }
+
+    public Map<Integer, Long> getActiveEmployeesByAssignmentCount() {
+        return activeEmployeesByAssignmentCount;
+    }
+
+    public void setActiveEmployeesByAssignmentCount(Map<Integer, Long> activeEmployeesByAssignmentCount) {
+        this.activeEmployeesByAssignmentCount = activeEmployeesByAssignmentCount;
+    }
+
+    public List<ProjectAssignmentCountDTO> getTopProjects() {
+        return topProjects;
+    }
+
+    public void setTopProjects(List<ProjectAssignmentCountDTO> topProjects) {
+        this.topProjects = topProjects;
+    }
+
+    public long getProjectsWithoutAssignments() {
+        return projectsWithoutAssignments;
+    }
+
+    public void setProjectsWithoutAssignments(long projectsWithoutAssignments) {
+        this.projectsWithoutAssignments = projectsWithoutAssignments;
+    }
+}
@@ -0,0 +1,52 @@
+package com.adamkleo.backend.dto;
+
+import java.util.List;
+
+public class AssignmentSyncResultDTO {
+    private Integer projectId;
+    private List<Integer> added;
+    private List<Integer> removed;
+    private int unchanged;
+
+    public AssignmentSyncResultDTO() {
+    }
+
+    public AssignmentSyncResultDTO(Integer projectId, List<Integer> added, List<Integer> removed, int unchanged) {
+        this.projectId = projectId;
+        this.added = added;
+        this.removed = removed;
+        this.unchanged = unchanged;
+    }
+
+    public Integer getProjectId() {
+        return projectId;
+    }
+
+    public void setProjectId(Integer projectId) {
+        this.projectId = projectId;
+    }
+
+    public List<Integer> getAdded() {
+        return added;
+    }
+
+    public void setAdded(List<Integer> added) {
+        this.added = added;
+    }
+
+    public List<Integer> getRemoved() {
+        return removed;
+    }
+
+    public void setRemoved(List<Integer> removed) {
+        this.removed = removed;
+    }
+
+    public int getUnchanged() {
+        return unchanged;
+    }
+
+    public void setUnchanged(int unchanged) {
+        this.unchanged = unchanged;
+    }
+}
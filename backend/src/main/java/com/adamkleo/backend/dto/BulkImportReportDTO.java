@@ -0,0 +1,56 @@
+package com.adamkleo.backend.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BulkImportReportDTO {
+    private int received;
+    private int inserted;
+    private int failed;
+    private List<BulkRowErrorDTO> errors = new ArrayList<>();
+    // Set when the body could not be parsed any further, rows after that point were not read
+    private String abortReason;
+
+    public BulkImportReportDTO() {
+    }
+
+    public int getReceived() {
+        return received;
+    }
+
+    public void setReceived(int received) {
+        this.received = received;
+    }
+
+    public int getInserted() {
+        return inserted;
+    }
+
+    public void setInserted(int inserted) {
+        this.inserted = inserted;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    public List<BulkRowErrorDTO> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<BulkRowErrorDTO> errors) {
+        this.errors = errors;
+    }
+
+    public String getAbortReason() {
+        return abortReason;
+    }
+
+    public void setAbortReason(String abortReason) {
+        this.abortReason = abortReason;
+    }
+}
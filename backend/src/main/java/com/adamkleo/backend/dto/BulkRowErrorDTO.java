@@ -0,0 +1,32 @@
+package com.adamkleo.backend.dto;
+
+import java.util.Map;
+
+public class BulkRowErrorDTO {
+    private int row;
+    private Map<String, String> errors;
+
+    public BulkRowErrorDTO() {
+    }
+
+    public BulkRowErrorDTO(int row, Map<String, String> errors) {
+        this.row = row;
+        this.errors = errors;
+    }
+
+    public int getRow() {
+        return row;
+    }
+
+    public void setRow(int row) {
+        this.row = row;
+    }
+
+    public Map<String, String> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(Map<String, String> errors) {
+        this.errors = errors;
+    }
+}
@@ -0,0 +1,31 @@
+package com.adamkleo.backend.dto;
+
+public class ChangeDTO {
+    private Object id;
+    // The row after the change, null when it was deleted
+    private Object state;
+
+    public ChangeDTO() {
+    }
+
+    public ChangeDTO(Object id, Object state) {
+        this.id = id;
+        this.state = state;
+    }
+
+    public Object getId() {
+        return id;
+    }
+
+    public void setId(Object id) {
+        this.id = id;
+    }
+
+    public Object getState() {
+        return state;
+    }
+
+    public void setState(Object state) {
+        this.state = state;
+    }
+}
@@ -0,0 +1,55 @@
+package com.adamkleo.backend.dto;
+
+import com.adamkleo.backend.event.ChangeType;
+import com.adamkleo.backend.event.DataTable;
+
+import java.util.List;
+
+public class ChangeEventDTO {
+    private long sequence;
+    private DataTable entity;
+    private ChangeType operation;
+    private List<ChangeDTO> changes;
+
+    public ChangeEventDTO() {
+    }
+
+    public ChangeEventDTO(long sequence, DataTable entity, ChangeType operation, List<ChangeDTO> changes) {
+        this.sequence = sequence;
+        this.entity = entity;
+        this.operation = operation;
+        this.changes = changes;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    public DataTable getEntity() {
+        return entity;
+    }
+
+    public void setEntity(DataTable entity) {
+        this.entity = entity;
+    }
+
+    public ChangeType getOperation() {
+        return operation;
+    }
+
+    public void setOperation(ChangeType operation) {
+        this.operation = operation;
+    }
+
+    public List<ChangeDTO> getChanges() {
+        return changes;
+    }
+
+    public void setChanges(List<ChangeDTO> changes) {
+        this.changes = changes;
+    }
+}
@@ -0,0 +1,53 @@
+package com.adamkleo.backend.dto;
+
+import java.util.List;
+
+// One delta sync response: pass version as since in the next request, until hasMore is false
+public class ChangeSetDTO<T, ID> {
+    private long version;
+    private List<T> changed;
+    private List<ID> deleted;
+    private boolean hasMore;
+
+    public ChangeSetDTO() {
+    }
+
+    public ChangeSetDTO(long version, List<T> changed, List<ID> deleted, boolean hasMore) {
+        this.version = version;
+        this.changed = changed;
+        this.deleted = deleted;
+        this.hasMore = hasMore;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public List<T> getChanged() {
+        return changed;
+    }
+
+    public void setChanged(List<T> changed) {
+        this.changed = changed;
+    }
+
+    public List<ID> getDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(List<ID> deleted) {
+        this.deleted = deleted;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
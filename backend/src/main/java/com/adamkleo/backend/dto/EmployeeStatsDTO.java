@@ -0,0 +1,99 @@
+package com.adamkleo.backend.dto;
+
+import java.util.Map;
+
+public class EmployeeStatsDTO {
+    private long total;
+    private long active;
+    private Map<Integer, Long> hiresByYear;
+    private Map<Integer, Long> departuresByYear;
+    private Map<Integer, Long> netGrowthByYear;
+    private Map<Integer, Long> tenureYears;
+    private Map<Integer, Long> ageYears;
+    private double ageMean;
+    private double ageStdDev;
+    private Map<String, Long> civilStatus;
+
+    public EmployeeStatsDTO() {
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public long getActive() {
+        return active;
+    }
+
+    public void setActive(long active) {
+        this.active = active;
+    }
+
+    public Map<Integer, Long> getHiresByYear() {
+        return hiresByYear;
+    }
+
+    public void setHiresByYear(Map<Integer, Long> hiresByYear) {
+        this.hiresByYear = hiresByYear;
+    }
+
+    public Map<Integer, Long> getDeparturesByYear() {
+        return departuresByYear;
+    }
+
+    public void setDeparturesByYear(Map<Integer, Long> departuresByYear) {
+        this.departuresByYear = departuresByYear;
+    }
+
+    public Map<Integer, Long> getNetGrowthByYear() {
+        return netGrowthByYear;
+    }
+
+    public void setNetGrowthByYear(Map<Integer, Long> netGrowthByYear) {
+        this.netGrowthByYear = netGrowthByYear;
+    }
+
+    public Map<Integer, Long> getTenureYears() {
+        return tenureYears;
+    }
+
+    public void setTenureYears(Map<Integer, Long> tenureYears) {
+        this.tenureYears = tenureYears;
+    }
+
+    public Map<Integer, Long> getAgeYears() {
+        return ageYears;
+    }
+
+    public void setAgeYears(Map<Integer, Long> ageYears) {
+        this.ageYears = ageYears;
+    }
+
+    public double getAgeMean() {
+        return ageMean;
+    }
+
+    public void setAgeMean(double ageMean) {
+        this.ageMean = ageMean;
+    }
+
+    public double getAgeStdDev() {
+        return ageStdDev;
+    }
+
+    public void setAgeStdDev(double ageStdDev) {
+        this.ageStdDev = ageStdDev;
+    }
+
+    public Map<String, Long> getCivilStatus() {
+        return civilStatus;
+    }
+
+    public void setCivilStatus(Map<String, Long> civilStatus) {
+        this.civilStatus = civilStatus;
+    }
+}
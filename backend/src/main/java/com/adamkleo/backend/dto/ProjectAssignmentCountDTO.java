@@ -0,0 +1,40 @@
+package com.adamkleo.backend.dto;
+
+public class ProjectAssignmentCountDTO {
+    private Integer projectId;
+    private String description;
+    private int employees;
+
+    public ProjectAssignmentCountDTO() {
+    }
+
+    public ProjectAssignmentCountDTO(Integer projectId, String description, int employees) {
+        this.projectId = projectId;
+        this.description = description;
+        this.employees = employees;
+    }
+
+    public Integer getProjectId() {
+        return projectId;
+    }
+
+    public void setProjectId(Integer projectId) {
+        this.projectId = projectId;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public int getEmployees() {
+        return employees;
+    }
+
+    public void setEmployees(int employees) {
+        this.employees = employees;
+    }
+}
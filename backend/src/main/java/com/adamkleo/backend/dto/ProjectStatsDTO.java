@@ -0,0 +1,63 @@
+package com.adamkleo.backend.dto;
+
+import java.util.Map;
+
+public class ProjectStatsDTO {
+    private long total;
+    private long active;
+    private long terminated;
+    private long finished;
+    private Map<String, Long> byLocation;
+    private Map<Integer, Long> durationMonths;
+
+    public ProjectStatsDTO() {
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public long getActive() {
+        return active;
+    }
+
+    public void setActive(long active) {
+        this.active = active;
+    }
+
+    public long getTerminated() {
+        return terminated;
+    }
+
+    public void setTerminated(long terminated) {
+        this.terminated = terminated;
+    }
+
+    public long getFinished() {
+        return finished;
+    }
+
+    public void setFinished(long finished) {
+        this.finished = finished;
+    }
+
+    public Map<String, Long> getByLocation() {
+        return byLocation;
+    }
+
+    public void setByLocation(Map<String, Long> byLocation) {
+        this.byLocation = byLocation;
+    }
+
+    public Map<Integer, Long> getDurationMonths() {
+        return durationMonths;
+    }
+
+    public void setDurationMonths(Map<Integer, Long> durationMonths) {
+        this.durationMonths = durationMonths;
+    }
+}
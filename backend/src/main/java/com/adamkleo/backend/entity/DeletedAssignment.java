@@ -0,0 +1,36 @@
+package com.adamkleo.backend.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+// Tombstone of a deleted assignment, so delta sync clients learn about the deletion
+@Entity
+@Table(name = "PR_EMPLEADOS_PROYECTO_BORRADOS")
+public class DeletedAssignment {
+
+    @EmbeddedId
+    @AttributeOverride(name = "projectId", column = @Column(name = "ID_PROYECTO"))
+    @AttributeOverride(name = "employeeId", column = @Column(name = "ID_EMPLEADO"))
+    private AssignmentId id;
+
+    @Column(name = "N_VERSION", nullable = false)
+    private long changeVersion;
+
+    @Column(name = "F_BORRADO", nullable = false)
+    private LocalDateTime deletedAt;
+
+    public DeletedAssignment() {}
+
+    public AssignmentId getId() {
+        return id;
+    }
+
+    public long getChangeVersion() {
+        return changeVersion;
+    }
+
+    public LocalDateTime getDeletedAt() {
+        return deletedAt;
+    }
+}
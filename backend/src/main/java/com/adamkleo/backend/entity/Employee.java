@@ -1,11 +1,17 @@
 package com.adamkleo.backend.entity;
 
+import com.adamkleo.backend.config.CacheRegions;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDate;
 
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.EMPLOYEES)
 @Table(name = "EM_EMPLEADOS", schema = "PRACTICA")
 public class Employee {
 
@@ -91,6 +97,11 @@ public class Employee {
     @NotNull(message = "Debe indicar si tiene formación universitaria.")
     private Character universityEducation;
 
+    // Change version of the last write, stamped by the service (see ChangeVersions)
+    @Column(name = "N_VERSION", nullable = false)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private long changeVersion;
+
 
     public Employee(String nif, LocalDate birthDate, Character civilStatus, String email, LocalDate endDate, String firstName, String lastName1, String lastName2, String phone1, String phone2, LocalDate startDate, Character universityEducation) {
         this.nif = nif;
@@ -218,6 +229,14 @@ public class Employee {
     }
 
 
+    public long getChangeVersion() {
+        return changeVersion;
+    }
+
+    public void setChangeVersion(long changeVersion) {
+        this.changeVersion = changeVersion;
+    }
+
     @Override
     public String toString() {
         return "Employee{" +
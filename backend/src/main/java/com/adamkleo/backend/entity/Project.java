@@ -1,10 +1,16 @@
 package com.adamkleo.backend.entity;
 
+import com.adamkleo.backend.config.CacheRegions;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDate;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.PROJECTS)
 @Table(name = "PR_PROYECTOS")
 public class Project {
 
@@ -38,6 +44,11 @@ public class Project {
     @Size(max = 300, message = "Las observaciones no pueden tener más de 300 caracteres.")
     private String observations;
 
+    // Change version of the last write, stamped by the service (see ChangeVersions)
+    @Column(name = "N_VERSION", nullable = false)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private long changeVersion;
+
     // Constructors
     public Project() {}
 
@@ -105,4 +116,12 @@ public class Project {
     public void setObservations(String observations) {
         this.observations = observations;
     }
+
+    public long getChangeVersion() {
+        return changeVersion;
+    }
+
+    public void setChangeVersion(long changeVersion) {
+        this.changeVersion = changeVersion;
+    }
 }
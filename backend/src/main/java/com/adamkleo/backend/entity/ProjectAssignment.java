@@ -11,12 +11,12 @@ public class ProjectAssignment {
     @EmbeddedId
     private AssignmentId id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @MapsId("projectId")
     @JoinColumn(name = "ID_PROYECTO")
     private Project project;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @MapsId("employeeId")
     @JoinColumn(name = "ID_EMPLEADO")
     private Employee employee;
@@ -24,13 +24,21 @@ public class ProjectAssignment {
     @Column(name = "F_ALTA")
     private LocalDate assignmentDate;
 
+    @Column(name = "N_VERSION", nullable = false)
+    private long changeVersion;
+
     public ProjectAssignment() {}
 
     public ProjectAssignment(Project project, Employee employee, LocalDate assignmentDate) {
+        this(project, employee, assignmentDate, 0);
+    }
+
+    public ProjectAssignment(Project project, Employee employee, LocalDate assignmentDate, long changeVersion) {
         this.id = new AssignmentId(project.getId(), employee.getId());
         this.project = project;
         this.employee = employee;
         this.assignmentDate = assignmentDate;
+        this.changeVersion = changeVersion;
     }
 
     public AssignmentId getId() {
@@ -56,4 +64,8 @@ public class ProjectAssignment {
     public void setAssignmentDate(LocalDate assignmentDate) {
         this.assignmentDate = assignmentDate;
     }
+
+    public long getChangeVersion() {
+        return changeVersion;
+    }
 }
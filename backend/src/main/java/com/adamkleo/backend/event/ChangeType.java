@@ -0,0 +1,7 @@
+package com.adamkleo.backend.event;
+
+public enum ChangeType {
+    CREATED,
+    TERMINATED,
+    DELETED
+}
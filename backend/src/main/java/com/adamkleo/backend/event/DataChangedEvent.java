@@ -0,0 +1,47 @@
+package com.adamkleo.backend.event;
+
+import java.util.List;
+
+/**
+ * Published by the services whenever they write to a table. Listeners should use
+ * {@code @TransactionalEventListener(fallbackExecution = true)} so they only react
+ * once the change is committed.
+ *
+ * <p>Rows are {@code Employee} or {@code Project} entities for those tables and
+ * {@code AssignmentId}s for assignments. {@code version} is the change version the
+ * write stamped on its rows (see {@code ChangeVersions}), 0 when not known.
+ */
+public class DataChangedEvent {
+
+    private final DataTable table;
+    private final ChangeType type;
+    private final List<?> rows;
+    private final long version;
+
+    public DataChangedEvent(DataTable table, ChangeType type, List<?> rows) {
+        this(table, type, rows, 0);
+    }
+
+    public DataChangedEvent(DataTable table, ChangeType type, List<?> rows, long version) {
+        this.table = table;
+        this.type = type;
+        this.rows = rows;
+        this.version = version;
+    }
+
+    public DataTable getTable() {
+        return table;
+    }
+
+    public ChangeType getType() {
+        return type;
+    }
+
+    public List<?> getRows() {
+        return rows;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+}
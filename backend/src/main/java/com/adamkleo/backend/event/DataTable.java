@@ -0,0 +1,7 @@
+package com.adamkleo.backend.event;
+
+public enum DataTable {
+    EMPLOYEES,
+    PROJECTS,
+    ASSIGNMENTS
+}
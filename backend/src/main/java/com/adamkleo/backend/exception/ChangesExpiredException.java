@@ -0,0 +1,8 @@
+package com.adamkleo.backend.exception;
+
+public class ChangesExpiredException extends RuntimeException {
+    public ChangesExpiredException(long since, long purged) {
+        super("Los cambios posteriores a la versión " + since + " ya no están disponibles (se conservan desde la versión "
+                + purged + "). Vuelva a cargar la lista completa.");
+    }
+}
@@ -1,5 +1,6 @@
 package com.adamkleo.backend.exception;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -65,4 +66,20 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(404).body(ex.getMessage());
     }
 
+    @ExceptionHandler(ChangesExpiredException.class)
+    public ResponseEntity<String> handleChangesExpired(ChangesExpiredException ex) {
+        return ResponseEntity.status(410).body(ex.getMessage());
+    }
+
+    @ExceptionHandler(LaneSaturatedException.class)
+    public ResponseEntity<String> handleLaneSaturated(LaneSaturatedException ex) {
+        return ResponseEntity.status(503)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfterSeconds()))
+                .body(ex.getMessage());
+    }
+
+    @ExceptionHandler(SqlBudgetExceededException.class)
+    public ResponseEntity<String> handleSqlBudgetExceeded(SqlBudgetExceededException ex) {
+        return ResponseEntity.status(500).body(ex.getMessage());
+    }
 }
@@ -0,0 +1,23 @@
+package com.adamkleo.backend.exception;
+
+import java.time.Duration;
+
+public class LaneSaturatedException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public LaneSaturatedException(String lane, Duration retryAfter) {
+        this(lane, Math.max(1, retryAfter.plusMillis(999).toSeconds()));
+    }
+
+    private LaneSaturatedException(String lane, long retryAfterSeconds) {
+        super("El servidor está saturado de peticiones de tipo " + lane + ". Vuelva a intentarlo en "
+                + retryAfterSeconds + " segundos.");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    // Whole seconds, rounded up, as the Retry-After header takes them
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
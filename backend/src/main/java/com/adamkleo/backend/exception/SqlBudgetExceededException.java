@@ -0,0 +1,7 @@
+package com.adamkleo.backend.exception;
+
+public class SqlBudgetExceededException extends RuntimeException {
+    public SqlBudgetExceededException(int budget) {
+        super("La petición ha superado el límite de " + budget + " sentencias SQL.");
+    }
+}
@@ -0,0 +1,307 @@
+package com.adamkleo.backend.feed;
+
+import com.adamkleo.backend.dto.ChangeDTO;
+import com.adamkleo.backend.dto.ChangeEventDTO;
+import com.adamkleo.backend.entity.AssignmentId;
+import com.adamkleo.backend.entity.Employee;
+import com.adamkleo.backend.entity.Project;
+import com.adamkleo.backend.event.ChangeType;
+import com.adamkleo.backend.event.DataChangedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pushes committed changes to the clients subscribed at {@code /changes/stream} as
+ * server-sent events, so they can apply them to the lists they hold instead of
+ * reading the lists again. Each change is encoded once, as the bytes of a whole
+ * event, and queued for every subscriber in commit order.
+ *
+ * <p>The queues are bounded. A subscriber that falls {@code buffer-size} messages
+ * behind is disconnected: its client reconnects and reloads, and in the meantime it
+ * holds no memory and does not slow down the others. The queues are drained by a few
+ * writer threads. A client that stops reading blocks the writer sending to it until
+ * the socket write times out. Once a send has taken longer than {@code send-timeout}
+ * the subscriber is disconnected and another writer is started in its place, so the
+ * other subscribers keep receiving events. The pool shrinks back when the blocked
+ * write returns.
+ *
+ * <p>Nothing is replayed on reconnect. Every connection starts with a
+ * {@value #SUBSCRIBED} event carrying the current sequence number, after which a
+ * client that was connected before should reload its lists once.
+ */
+@Component
+public class ChangeFeed {
+
+    public static final String SUBSCRIBED = "subscribed";
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeFeed.class);
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    // Disconnected, but their emitter is not completed yet because a send to them is still blocked
+    private final Set<Subscriber> closing = ConcurrentHashMap.newKeySet();
+    private final ObjectMapper objectMapper;
+    private final ThreadPoolExecutor writers;
+    private final Counter evictions;
+    private final int bufferSize;
+    private final Duration timeout;
+    private final Duration sendTimeout;
+
+    // Guarded by this, so messages are queued in the order their sequence numbers were taken
+    private long sequence;
+
+    public ChangeFeed(ObjectMapper objectMapper,
+                      MeterRegistry meterRegistry,
+                      @Value("${app.change-feed.buffer-size:256}") int bufferSize,
+                      @Value("${app.change-feed.writer-threads:2}") int writerThreads,
+                      @Value("${app.change-feed.timeout:30m}") Duration timeout,
+                      @Value("${app.change-feed.send-timeout:10s}") Duration sendTimeout) {
+        this.objectMapper = objectMapper;
+        this.bufferSize = bufferSize;
+        this.timeout = timeout;
+        this.sendTimeout = sendTimeout;
+        this.writers = new ThreadPoolExecutor(writerThreads, writerThreads, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), new CustomizableThreadFactory("change-feed-"));
+        Gauge.builder("change.feed.subscribers", subscribers, Set::size)
+                .description("Clients connected to the change feed")
+                .register(meterRegistry);
+        this.evictions = Counter.builder("change.feed.evictions")
+                .description("Subscribers disconnected because they fell a full buffer behind or stopped reading")
+                .register(meterRegistry);
+    }
+
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> forget(subscriber));
+        emitter.onError(e -> forget(subscriber));
+        synchronized (this) {
+            try {
+                // Buffered by the emitter and written on the request thread, which commits the response
+                // before any writer can send to it (a writer racing the request thread corrupts the headers)
+                emitter.send(message(SUBSCRIBED, Map.of("sequence", sequence)));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            subscribers.add(subscriber);
+        }
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onDataChanged(DataChangedEvent event) {
+        sequence++;
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        List<ChangeDTO> changes = new ArrayList<>(event.getRows().size());
+        for (Object row : event.getRows()) {
+            changes.add(new ChangeDTO(id(row), event.getType() == ChangeType.DELETED ? null : row));
+        }
+        Set<DataWithMediaType> message = message(event.getTable().name().toLowerCase(),
+                new ChangeEventDTO(sequence, event.getTable(), event.getType(), changes));
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(message);
+        }
+    }
+
+    // Lets proxies and load balancers see traffic on idle connections, and finds the closed ones
+    @Scheduled(fixedRateString = "${app.change-feed.heartbeat:15s}")
+    public synchronized void heartbeat() {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        Set<DataWithMediaType> message = frame(SseEmitter.event().comment("heartbeat"));
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(message);
+        }
+    }
+
+    // Checked every send-timeout, so a blocked send is found within two of them
+    @Scheduled(fixedRateString = "${app.change-feed.send-timeout:10s}")
+    public void replaceBlockedWriters() {
+        long now = System.nanoTime();
+        for (Set<Subscriber> set : List.of(subscribers, closing)) {
+            for (Subscriber subscriber : set) {
+                long since = subscriber.sendingSince;
+                if (since != 0 && now - since > sendTimeout.toNanos() && subscriber.blocked.compareAndSet(false, true)) {
+                    resizeWriters(1);
+                    subscriber.evict("stopped reading for " + sendTimeout.toSeconds() + " s");
+                }
+            }
+        }
+    }
+
+    // Before the web server stops, which would otherwise time out every open stream
+    @EventListener(ContextClosedEvent.class)
+    public void close() {
+        // Interrupts writes blocked on clients that stopped reading
+        writers.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+        subscribers.clear();
+        closing.clear();
+    }
+
+    private void forget(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+        closing.remove(subscriber);
+    }
+
+    // Maximum first when growing and last when shrinking, the pool rejects a core size above it
+    private void resizeWriters(int delta) {
+        synchronized (writers) {
+            if (delta > 0) {
+                writers.setMaximumPoolSize(writers.getMaximumPoolSize() + delta);
+                writers.setCorePoolSize(writers.getCorePoolSize() + delta);
+            } else {
+                writers.setCorePoolSize(writers.getCorePoolSize() + delta);
+                writers.setMaximumPoolSize(writers.getMaximumPoolSize() + delta);
+            }
+        }
+    }
+
+    private Set<DataWithMediaType> message(String name, Object data) {
+        try {
+            return frame(SseEmitter.event()
+                    .id(Long.toString(sequence))
+                    .name(name)
+                    .data(objectMapper.writeValueAsBytes(data), MediaType.APPLICATION_JSON));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // The parts of an event encoded into one array, written to each subscriber as a single chunk
+    private static Set<DataWithMediaType> frame(SseEmitter.SseEventBuilder event) {
+        ByteArrayOutputStream frame = new ByteArrayOutputStream();
+        for (DataWithMediaType part : event.build()) {
+            frame.writeBytes(part.getData() instanceof byte[] bytes
+                    ? bytes
+                    : part.getData().toString().getBytes(StandardCharsets.UTF_8));
+        }
+        return Set.of(new DataWithMediaType(frame.toByteArray(), MediaType.TEXT_EVENT_STREAM));
+    }
+
+    private static Object id(Object row) {
+        if (row instanceof Employee employee) {
+            return employee.getId();
+        }
+        if (row instanceof Project project) {
+            return project.getId();
+        }
+        if (row instanceof AssignmentId) {
+            return row;
+        }
+        throw new IllegalArgumentException("Unexpected row type " + row.getClass().getName());
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final BlockingQueue<Set<DataWithMediaType>> buffer = new ArrayBlockingQueue<>(bufferSize);
+        // Set while a writer owns this subscriber, so its messages are sent by one thread at a time
+        private final AtomicBoolean draining = new AtomicBoolean();
+        // Set when another writer was started in place of the one blocked on this subscriber
+        private final AtomicBoolean blocked = new AtomicBoolean();
+        // System.nanoTime() when the send in progress started, 0 between sends
+        private volatile long sendingSince;
+        // The emitter is completed by the writer, once no send to it is in progress
+        private volatile boolean evicted;
+        // Only read and written while draining
+        private boolean completed;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        private void offer(Set<DataWithMediaType> message) {
+            if (!buffer.offer(message)) {
+                evict("fell " + bufferSize + " messages behind");
+            } else if (draining.compareAndSet(false, true)) {
+                writers.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                Set<DataWithMediaType> message;
+                while (!evicted && (message = buffer.poll()) != null) {
+                    sendingSince = System.nanoTime();
+                    emitter.send(message);
+                    sendingSince = 0;
+                }
+                if (evicted && !completed) {
+                    completed = true;
+                    emitter.complete();
+                    closing.remove(this);
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Client gone or emitter already completed, the emitter callbacks clean up as well
+                completed = true;
+                forget(this);
+                buffer.clear();
+            } finally {
+                sendingSince = 0;
+                if (blocked.getAndSet(false)) {
+                    resizeWriters(-1);
+                }
+                draining.set(false);
+            }
+            // A message offered, or an eviction, after the last poll but before draining was cleared
+            if ((!buffer.isEmpty() || evicted && !completed) && draining.compareAndSet(false, true)) {
+                writers.execute(this::drain);
+            }
+        }
+
+        private void evict(String reason) {
+            if (subscribers.remove(this)) {
+                closing.add(this);
+                evictions.increment();
+                buffer.clear();
+                log.info("Change feed subscriber {}, disconnecting it", reason);
+                // Completed by a writer, not the committing thread, since completing waits for a send in progress
+                evicted = true;
+                if (draining.compareAndSet(false, true)) {
+                    writers.execute(this::drain);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.adamkleo.backend.index;
+
+import com.adamkleo.backend.datasource.ReadRouting;
+import com.adamkleo.backend.entity.AssignmentId;
+import com.adamkleo.backend.event.DataChangedEvent;
+import com.adamkleo.backend.event.DataTable;
+import com.adamkleo.backend.event.ChangeType;
+import com.adamkleo.backend.repository.ProjectAssignmentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory copy of PR_EMPLEADOS_PROYECTO in both directions (project to
+ * employees and employee to projects). The assign, unassign and terminate flows
+ * ask it first and reject a conflict it knows of before taking a connection;
+ * whatever it lets through is still checked by their guarded write statement.
+ * It is loaded at startup, updated after each committed assign/unassign and
+ * reconciled with the table by a scheduled rebuild. Until the first load
+ * succeeds {@link #isReady()} is false and callers go straight to the write.
+ *
+ * <p>Each assignment costs an int in each direction plus array slack,
+ * so a million assignments take about 15 MB.
+ */
+@Component
+public class AssignmentIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(AssignmentIndex.class);
+
+    private final ProjectAssignmentRepository assignmentRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private IntAdjacency employeesByProject = new IntAdjacency(1024);
+    private IntAdjacency projectsByEmployee = new IntAdjacency(1024);
+    private List<DataChangedEvent> pendingDuringRebuild;
+    private volatile boolean ready;
+
+    public AssignmentIndex(ProjectAssignmentRepository assignmentRepository,
+                           PlatformTransactionManager transactionManager) {
+        this.assignmentRepository = assignmentRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public boolean isAssigned(int projectId, int employeeId) {
+        lock.readLock().lock();
+        try {
+            return employeesByProject.contains(projectId, employeeId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean projectHasEmployees(int projectId) {
+        lock.readLock().lock();
+        try {
+            return employeesByProject.hasAny(projectId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean employeeHasProjects(int employeeId) {
+        lock.readLock().lock();
+        try {
+            return projectsByEmployee.hasAny(employeeId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int[] employeesOf(int projectId) {
+        lock.readLock().lock();
+        try {
+            return employeesByProject.get(projectId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int[] projectsOf(int employeeId) {
+        lock.readLock().lock();
+        try {
+            return projectsByEmployee.get(employeeId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long size() {
+        lock.readLock().lock();
+        try {
+            return employeesByProject.entries();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long estimatedBytes() {
+        lock.readLock().lock();
+        try {
+            return employeesByProject.estimatedBytes() + projectsByEmployee.estimatedBytes();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDataChanged(DataChangedEvent event) {
+        if (event.getTable() != DataTable.ASSIGNMENTS) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (pendingDuringRebuild != null) {
+                pendingDuringRebuild.add(event);
+            }
+            apply(event, employeesByProject, projectsByEmployee);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        try {
+            rebuild();
+        } catch (DataAccessException e) {
+            log.warn("Could not load the assignment index on startup: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(cron = "${app.assignment-index.reconcile-cron:0 */15 * * * *}")
+    public void reconcile() {
+        rebuild();
+    }
+
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            if (pendingDuringRebuild != null) {
+                return;
+            }
+            pendingDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        IntAdjacency byProject = new IntAdjacency(1024);
+        IntAdjacency byEmployee = new IntAdjacency(1024);
+        try {
+            // Read from the primary, a replica could be missing rows whose events were already applied
+            ReadRouting.runOnPrimary(() -> readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<Object[]> rows = assignmentRepository.streamAllWithVersions()) {
+                    rows.forEach(row -> {
+                        // The last row only carries the tombstone version
+                        if (row[0] != null) {
+                            int projectId = ((Number) row[0]).intValue();
+                            int employeeId = ((Number) row[1]).intValue();
+                            byProject.add(projectId, employeeId);
+                            byEmployee.add(employeeId, projectId);
+                        }
+                    });
+                }
+            }));
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            pendingDuringRebuild = null;
+            lock.writeLock().unlock();
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (DataChangedEvent event : pendingDuringRebuild) {
+                apply(event, byProject, byEmployee);
+            }
+            employeesByProject = byProject;
+            projectsByEmployee = byEmployee;
+            pendingDuringRebuild = null;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void apply(DataChangedEvent event, IntAdjacency byProject, IntAdjacency byEmployee) {
+        for (Object row : event.getRows()) {
+            AssignmentId id = (AssignmentId) row;
+            if (event.getType() == ChangeType.DELETED) {
+                byProject.remove(id.getProjectId(), id.getEmployeeId());
+                byEmployee.remove(id.getEmployeeId(), id.getProjectId());
+            } else {
+                byProject.add(id.getProjectId(), id.getEmployeeId());
+                byEmployee.add(id.getEmployeeId(), id.getProjectId());
+            }
+        }
+    }
+}
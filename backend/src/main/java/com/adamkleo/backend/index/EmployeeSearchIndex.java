@@ -0,0 +1,371 @@
+package com.adamkleo.backend.index;
+
+import com.adamkleo.backend.cache.JdbcCacheSync;
+import com.adamkleo.backend.datasource.ReadRouting;
+import com.adamkleo.backend.dto.EmployeeBasicDTO;
+import com.adamkleo.backend.entity.Employee;
+import com.adamkleo.backend.event.ChangeType;
+import com.adamkleo.backend.event.DataChangedEvent;
+import com.adamkleo.backend.event.DataTable;
+import com.adamkleo.backend.repository.EmployeeRepository;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Typeahead index over the active employees. Names, NIF and the local part of
+ * the email are split into words, lower-cased and stripped of accents
+ * ("Núñez" becomes "nunez"); each word points to the ids that contain it.
+ * A query matches an employee when every query word is the prefix of one of
+ * its words, so "jua garc" finds "Juan García López".
+ *
+ * <p>The words are kept in a sorted map, so the candidates of a query word
+ * are a contiguous range. The range of the most selective query word is
+ * walked in order until enough results are found. Exact words sort before longer ones and come first.
+ * The index is loaded at startup, updated after each committed insert or
+ * termination, including the bulk import chunks, and rebuilt from the table by a
+ * scheduled job to correct any drift. Until the first load succeeds searches
+ * read the table instead.
+ */
+@Component
+public class EmployeeSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(EmployeeSearchIndex.class);
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^a-z0-9]+");
+
+    private final EmployeeRepository employeeRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Map<Integer, IndexedEmployee> employees = new HashMap<>();
+    private NavigableMap<String, Postings> words = new TreeMap<>();
+    private List<DataChangedEvent> pendingDuringRebuild;
+    private volatile boolean ready;
+
+    public EmployeeSearchIndex(EmployeeRepository employeeRepository,
+                               EntityManager entityManager,
+                               PlatformTransactionManager transactionManager) {
+        this.employeeRepository = employeeRepository;
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return employees.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<EmployeeBasicDTO> search(String query, int limit) {
+        String[] terms = tokenize(query);
+        if (terms.length == 0 || limit <= 0) {
+            return List.of();
+        }
+        if (!ready) {
+            return searchTable(terms, limit);
+        }
+        lock.readLock().lock();
+        try {
+            // Walk the candidates of the most selective word and check the others per employee
+            String driver = terms[0];
+            if (terms.length > 1) {
+                long fewest = Long.MAX_VALUE;
+                for (String term : terms) {
+                    long candidates = countCandidates(term, fewest);
+                    if (candidates < fewest) {
+                        driver = term;
+                        fewest = candidates;
+                    }
+                }
+            }
+
+            Set<Integer> found = new LinkedHashSet<>();
+            for (Postings postings : range(driver).values()) {
+                for (int i = 0; i < postings.size && found.size() < limit; i++) {
+                    int id = postings.ids[i];
+                    if (!found.contains(id) && employees.get(id).matchesAll(terms)) {
+                        found.add(id);
+                    }
+                }
+                if (found.size() == limit) {
+                    break;
+                }
+            }
+
+            List<EmployeeBasicDTO> results = new ArrayList<>(found.size());
+            for (Integer id : found) {
+                results.add(employees.get(id).dto);
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Reads the rows containing the longest word and keeps those that match like the index would
+    private List<EmployeeBasicDTO> searchTable(String[] terms, int limit) {
+        String longest = terms[0];
+        for (String term : terms) {
+            if (term.length() > longest.length()) {
+                longest = term;
+            }
+        }
+        String pattern = "%" + longest + "%";
+        return readOnlyTransaction.execute(status -> {
+            JdbcCacheSync.bypassForTransaction(entityManager);
+            try (Stream<Employee> rows = employeeRepository.streamActiveContaining(pattern)) {
+                return rows.map(EmployeeSearchIndex::indexed)
+                        .filter(employee -> employee.matchesAll(terms))
+                        .limit(limit)
+                        .map(employee -> employee.dto)
+                        .toList();
+            }
+        });
+    }
+
+    // Stops once the count reaches the cap, the caller only needs the smallest one
+    private long countCandidates(String term, long cap) {
+        long count = 0;
+        for (Postings postings : range(term).values()) {
+            count += postings.size;
+            if (count >= cap) {
+                break;
+            }
+        }
+        return count;
+    }
+
+    private NavigableMap<String, Postings> range(String prefix) {
+        return words.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDataChanged(DataChangedEvent event) {
+        if (event.getTable() != DataTable.EMPLOYEES) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (pendingDuringRebuild != null) {
+                pendingDuringRebuild.add(event);
+            }
+            apply(event, employees, words);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        try {
+            rebuild();
+        } catch (DataAccessException e) {
+            log.warn("Could not load the employee search index on startup: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(cron = "${app.search-index.reconcile-cron:0 */15 * * * *}")
+    public void reconcile() {
+        rebuild();
+    }
+
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            if (pendingDuringRebuild != null) {
+                return;
+            }
+            pendingDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Map<Integer, IndexedEmployee> newEmployees = new HashMap<>();
+        NavigableMap<String, Postings> newWords = new TreeMap<>();
+        try {
+            // On the primary: the events replayed below may be for rows a replica does not have yet
+            ReadRouting.runOnPrimary(() -> readOnlyTransaction.executeWithoutResult(status -> {
+                JdbcCacheSync.bypassForTransaction(entityManager);
+                try (Stream<Employee> rows = employeeRepository.streamAll()) {
+                    rows.forEach(employee -> {
+                        add(employee, newEmployees, newWords);
+                        entityManager.detach(employee);
+                    });
+                }
+            }));
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            pendingDuringRebuild = null;
+            lock.writeLock().unlock();
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (DataChangedEvent event : pendingDuringRebuild) {
+                apply(event, newEmployees, newWords);
+            }
+            employees = newEmployees;
+            words = newWords;
+            pendingDuringRebuild = null;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void apply(DataChangedEvent event, Map<Integer, IndexedEmployee> employees,
+                       NavigableMap<String, Postings> words) {
+        for (Object row : event.getRows()) {
+            Employee employee = (Employee) row;
+            if (event.getType() == ChangeType.CREATED) {
+                add(employee, employees, words);
+            } else {
+                remove(employee.getId(), employees, words);
+            }
+        }
+    }
+
+    private static void add(Employee employee, Map<Integer, IndexedEmployee> employees,
+                            NavigableMap<String, Postings> words) {
+        if (employee.getId() == null || employee.getEndDate() != null || employees.containsKey(employee.getId())) {
+            return;
+        }
+        int id = employee.getId();
+        IndexedEmployee indexed = indexed(employee);
+        employees.put(id, indexed);
+        for (String word : indexed.words) {
+            words.computeIfAbsent(word, w -> new Postings()).add(id);
+        }
+    }
+
+    private static IndexedEmployee indexed(Employee employee) {
+        String email = employee.getEmail();
+        if (email != null && email.indexOf('@') >= 0) {
+            email = email.substring(0, email.indexOf('@'));
+        }
+        String[] employeeWords = tokenize(String.join(" ",
+                nullToEmpty(employee.getFirstName()), nullToEmpty(employee.getLastName1()),
+                nullToEmpty(employee.getLastName2()), nullToEmpty(employee.getNif()), nullToEmpty(email)));
+        return new IndexedEmployee(new EmployeeBasicDTO(employee.getId(), employee.getFirstName(),
+                employee.getLastName1(), employee.getLastName2()), employeeWords);
+    }
+
+    private static void remove(Integer id, Map<Integer, IndexedEmployee> employees,
+                               NavigableMap<String, Postings> words) {
+        IndexedEmployee removed = id == null ? null : employees.remove(id);
+        if (removed == null) {
+            return;
+        }
+        for (String word : removed.words) {
+            Postings postings = words.get(word);
+            if (postings != null && postings.remove(id) && postings.size == 0) {
+                words.remove(word);
+            }
+        }
+    }
+
+    static String[] tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return new String[0];
+        }
+        String normalized = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        String[] parts = SEPARATORS.split(normalized.toLowerCase(Locale.ROOT));
+        return Arrays.stream(parts).filter(part -> !part.isEmpty()).distinct().toArray(String[]::new);
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    private static final class IndexedEmployee {
+        private final EmployeeBasicDTO dto;
+        private final String[] words;
+
+        private IndexedEmployee(EmployeeBasicDTO dto, String[] words) {
+            this.dto = dto;
+            this.words = words;
+        }
+
+        private boolean matchesAll(String[] terms) {
+            for (String term : terms) {
+                boolean matched = false;
+                for (String word : words) {
+                    if (word.startsWith(term)) {
+                        matched = true;
+                        break;
+                    }
+                }
+                if (!matched) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    // Sorted ids; new employees have the highest id so adding is usually an append
+    private static final class Postings {
+        private int[] ids = new int[1];
+        private int size;
+
+        private void add(int id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) {
+                return;
+            }
+            position = -position - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+            }
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            ids[position] = id;
+            size++;
+        }
+
+        private boolean remove(int id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position < 0) {
+                return false;
+            }
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            size--;
+            return true;
+        }
+    }
+}
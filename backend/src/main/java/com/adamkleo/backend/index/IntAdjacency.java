@@ -0,0 +1,146 @@
+package com.adamkleo.backend.index;
+
+import java.util.Arrays;
+
+/**
+ * Map from an int key to a set of int values, without boxing.
+ * Keys live in an open-addressing table with linear probing; each key's values
+ * are kept in a sorted int array. Ids are positive, so 0 marks an empty slot.
+ * Removed values leave their key in place with an empty set, which keeps
+ * probing simple and costs nothing for the key counts of this application.
+ * Not thread safe.
+ */
+class IntAdjacency {
+
+    private static final int EMPTY = 0;
+    private static final int[] NO_VALUES = new int[0];
+
+    private int[] keys;
+    private int[][] values;
+    private int[] sizes;
+    private int usedSlots;
+    private long entries;
+
+    IntAdjacency(int expectedKeys) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedKeys * 2) - 1) << 1;
+        keys = new int[capacity];
+        values = new int[capacity][];
+        sizes = new int[capacity];
+    }
+
+    boolean add(int key, int value) {
+        int slot = slotFor(key, true);
+        int[] current = values[slot];
+        int size = sizes[slot];
+        int position = Arrays.binarySearch(current, 0, size, value);
+        if (position >= 0) {
+            return false;
+        }
+        position = -position - 1;
+        if (size == current.length) {
+            current = Arrays.copyOf(current, Math.max(2, size + (size >> 1) + 1));
+            values[slot] = current;
+        }
+        System.arraycopy(current, position, current, position + 1, size - position);
+        current[position] = value;
+        sizes[slot] = size + 1;
+        entries++;
+        return true;
+    }
+
+    boolean remove(int key, int value) {
+        int slot = slotFor(key, false);
+        if (slot < 0) {
+            return false;
+        }
+        int[] current = values[slot];
+        int size = sizes[slot];
+        int position = Arrays.binarySearch(current, 0, size, value);
+        if (position < 0) {
+            return false;
+        }
+        System.arraycopy(current, position + 1, current, position, size - position - 1);
+        sizes[slot] = size - 1;
+        entries--;
+        return true;
+    }
+
+    boolean contains(int key, int value) {
+        int slot = slotFor(key, false);
+        return slot >= 0 && Arrays.binarySearch(values[slot], 0, sizes[slot], value) >= 0;
+    }
+
+    boolean hasAny(int key) {
+        int slot = slotFor(key, false);
+        return slot >= 0 && sizes[slot] > 0;
+    }
+
+    int[] get(int key) {
+        int slot = slotFor(key, false);
+        return slot < 0 ? NO_VALUES : Arrays.copyOf(values[slot], sizes[slot]);
+    }
+
+    long entries() {
+        return entries;
+    }
+
+    /** Approximate heap used by the table and the value arrays, in bytes. */
+    long estimatedBytes() {
+        long bytes = 16L + keys.length * 4L + 16L + values.length * 8L + 16L + sizes.length * 4L;
+        for (int[] array : values) {
+            if (array != null) {
+                bytes += 16L + array.length * 4L;
+            }
+        }
+        return bytes;
+    }
+
+    private int slotFor(int key, boolean create) {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (!create) {
+            return -1;
+        }
+        if ((usedSlots + 1) * 2 > keys.length) {
+            grow();
+            return slotFor(key, true);
+        }
+        keys[slot] = key;
+        values[slot] = NO_VALUES;
+        usedSlots++;
+        return slot;
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        int[][] oldValues = values;
+        int[] oldSizes = sizes;
+        keys = new int[oldKeys.length * 2];
+        values = new int[keys.length][];
+        sizes = new int[keys.length];
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == EMPTY) {
+                continue;
+            }
+            int slot = mix(oldKeys[i]) & mask;
+            while (keys[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+            sizes[slot] = oldSizes[i];
+        }
+    }
+
+    private static int mix(int key) {
+        // Fibonacci hashing spreads sequential AUTO_INCREMENT ids over the table
+        return (key * 0x9E3779B9) ^ (key >>> 16);
+    }
+}
@@ -0,0 +1,43 @@
+package com.adamkleo.backend.metrics;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.FlushEvent;
+import org.hibernate.event.spi.FlushEventListener;
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Adds entity load and flush listeners to the session factory so they can be
+ * counted per request in {@link RequestSqlCounters}.
+ */
+@Component
+public class HibernateRequestListeners implements PostLoadEventListener, FlushEventListener {
+
+    public HibernateRequestListeners(EntityManagerFactory entityManagerFactory) {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .requireService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_LOAD, this);
+        registry.appendListeners(EventType.FLUSH, this);
+    }
+
+    @Override
+    public void onPostLoad(PostLoadEvent event) {
+        RequestSqlCounters counters = RequestSqlCounters.current();
+        if (counters != null) {
+            counters.entityLoaded();
+        }
+    }
+
+    @Override
+    public void onFlush(FlushEvent event) {
+        RequestSqlCounters counters = RequestSqlCounters.current();
+        if (counters != null) {
+            counters.flushed();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.adamkleo.backend.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Records, per endpoint, how many SQL statements, entity loads and flushes each
+ * request needed, as the {@code hibernate.request.*} distribution summaries.
+ * The uri tag is the matched pattern, like {@code http.server.requests}.
+ *
+ * <p>Requests that prepared more statements than their {@link SqlBudget} are logged.
+ * With {@code app.sql-budget.response-header} the count is also returned in the
+ * {@value #STATEMENTS_HEADER} header, which is meant for development and test only.
+ */
+@Component
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+    public static final String STATEMENTS_HEADER = "X-SQL-Statements";
+
+    private static final Logger log = LoggerFactory.getLogger(RequestMetricsFilter.class);
+
+    private final MeterRegistry registry;
+    private final boolean responseHeader;
+
+    public RequestMetricsFilter(MeterRegistry registry,
+                                @Value("${app.sql-budget.response-header:false}") boolean responseHeader) {
+        this.registry = registry;
+        this.responseHeader = responseHeader;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestSqlCounters counters = new RequestSqlCounters();
+        request.setAttribute(RequestSqlCounters.ATTRIBUTE, counters);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            // Bodiless responses are still open here, the others got the header from SqlStatementsHeaderAdvice
+            if (responseHeader && !response.isCommitted()) {
+                response.setHeader(STATEMENTS_HEADER, String.valueOf(counters.getStatements()));
+            }
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            // Requests that matched no handler (404s, static resources) would only add noise
+            if (pattern != null && !pattern.toString().startsWith("/actuator")) {
+                record("hibernate.request.statements", "SQL statements prepared by one request", counters.getStatements(), request, pattern);
+                record("hibernate.request.entity.loads", "Entities loaded by one request", counters.getEntityLoads(), request, pattern);
+                record("hibernate.request.flushes", "Session flushes in one request", counters.getFlushes(), request, pattern);
+                if (counters.isOverBudget()) {
+                    log.warn("{} {} prepared {} SQL statements, its budget is {}",
+                            request.getMethod(), pattern, counters.getStatements(), counters.getBudget());
+                }
+            }
+        }
+    }
+
+    private void record(String name, String description, int value, HttpServletRequest request, Object pattern) {
+        DistributionSummary.builder(name)
+                .description(description)
+                .tag("method", request.getMethod())
+                .tag("uri", pattern.toString())
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(value);
+    }
+}
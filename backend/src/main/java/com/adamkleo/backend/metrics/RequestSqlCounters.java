@@ -0,0 +1,80 @@
+package com.adamkleo.backend.metrics;
+
+import com.adamkleo.backend.exception.SqlBudgetExceededException;
+import jakarta.servlet.ServletRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * What the database layer did for the current HTTP request. An instance is stored as a
+ * request attribute by {@link RequestMetricsFilter}; {@link StatementCountingDataSource}
+ * and the Hibernate listeners find it through {@link RequestContextHolder}, so work done
+ * outside a request (startup, scheduled jobs, streamed exports) is simply not counted.
+ *
+ * <p>{@link SqlBudgetInterceptor} sets the statement budget of the endpoint once the
+ * handler is known. In reject mode the statement that goes over it fails with
+ * {@link SqlBudgetExceededException}, which rolls back the surrounding transaction.
+ */
+public class RequestSqlCounters {
+
+    static final String ATTRIBUTE = RequestSqlCounters.class.getName();
+
+    private int statements;
+    private int entityLoads;
+    private int flushes;
+    private int budget = SqlBudget.UNLIMITED;
+    private boolean reject;
+
+    public static RequestSqlCounters current() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        return (RequestSqlCounters) attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+    }
+
+    // Counters of a finished request, for MockMvc tests and the response header
+    public static RequestSqlCounters of(ServletRequest request) {
+        return (RequestSqlCounters) request.getAttribute(ATTRIBUTE);
+    }
+
+    void limitTo(int budget, boolean reject) {
+        this.budget = budget;
+        this.reject = reject;
+    }
+
+    void statementPrepared() {
+        statements++;
+        if (reject && statements > budget) {
+            throw new SqlBudgetExceededException(budget);
+        }
+    }
+
+    void entityLoaded() {
+        entityLoads++;
+    }
+
+    void flushed() {
+        flushes++;
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public int getEntityLoads() {
+        return entityLoads;
+    }
+
+    public int getFlushes() {
+        return flushes;
+    }
+
+    public int getBudget() {
+        return budget;
+    }
+
+    public boolean isOverBudget() {
+        return statements > budget;
+    }
+}
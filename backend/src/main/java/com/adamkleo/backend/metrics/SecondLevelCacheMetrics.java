@@ -0,0 +1,52 @@
+package com.adamkleo.backend.metrics;
+
+import com.adamkleo.backend.config.CacheRegions;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Function;
+
+/**
+ * Hit ratio since startup of each second-level cache region, as gauges next to the
+ * {@code hibernate.second.level.cache.requests} counters of hibernate-micrometer
+ * (which give the ratio over a time window in PromQL). NaN until the region has
+ * been read, or when {@code hibernate.generate_statistics} is off.
+ */
+@Component
+public class SecondLevelCacheMetrics implements MeterBinder {
+
+    private final Statistics statistics;
+
+    public SecondLevelCacheMetrics(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        hitRatio(registry, "hibernate.second.level.cache.hit.ratio", CacheRegions.EMPLOYEES, statistics::getDomainDataRegionStatistics);
+        hitRatio(registry, "hibernate.second.level.cache.hit.ratio", CacheRegions.PROJECTS, statistics::getDomainDataRegionStatistics);
+        hitRatio(registry, "hibernate.query.cache.hit.ratio", CacheRegions.ACTIVE_EMPLOYEES_QUERY, statistics::getQueryRegionStatistics);
+    }
+
+    private void hitRatio(MeterRegistry registry, String name, String region,
+                          Function<String, CacheRegionStatistics> regionStatistics) {
+        Gauge.builder(name, () -> ratio(regionStatistics.apply(region)))
+                .description("Cache hits over cache reads since startup")
+                .tag("region", region)
+                .register(registry);
+    }
+
+    private static double ratio(CacheRegionStatistics region) {
+        if (region == null) {
+            return Double.NaN;
+        }
+        long reads = region.getHitCount() + region.getMissCount();
+        return reads == 0 ? Double.NaN : (double) region.getHitCount() / reads;
+    }
+}
@@ -0,0 +1,23 @@
+package com.adamkleo.backend.metrics;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Maximum number of SQL statements one request to the annotated endpoint may
+ * prepare. Endpoints without it get {@code app.sql-budget.default-statements}.
+ * What happens when a request goes over is decided by {@code app.sql-budget.reject}.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface SqlBudget {
+
+    // For endpoints whose statement count grows with the request body by design (bulk inserts, sync)
+    int UNLIMITED = Integer.MAX_VALUE;
+
+    int value();
+}
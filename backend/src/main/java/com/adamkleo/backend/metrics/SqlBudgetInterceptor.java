@@ -0,0 +1,43 @@
+package com.adamkleo.backend.metrics;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Applies the {@link SqlBudget} of the matched controller method (or its class) to
+ * the request's {@link RequestSqlCounters}, falling back to the configured default.
+ */
+@Component
+public class SqlBudgetInterceptor implements HandlerInterceptor {
+
+    private final int defaultBudget;
+    private final boolean reject;
+
+    public SqlBudgetInterceptor(@Value("${app.sql-budget.default-statements:20}") int defaultBudget,
+                                @Value("${app.sql-budget.reject:false}") boolean reject) {
+        this.defaultBudget = defaultBudget;
+        this.reject = reject;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        RequestSqlCounters counters = RequestSqlCounters.of(request);
+        if (counters != null && handler instanceof HandlerMethod method) {
+            counters.limitTo(budgetOf(method), reject);
+        }
+        return true;
+    }
+
+    private int budgetOf(HandlerMethod method) {
+        SqlBudget budget = method.getMethodAnnotation(SqlBudget.class);
+        if (budget == null) {
+            budget = AnnotatedElementUtils.findMergedAnnotation(method.getBeanType(), SqlBudget.class);
+        }
+        return budget != null ? budget.value() : defaultBudget;
+    }
+}
@@ -0,0 +1,40 @@
+package com.adamkleo.backend.metrics;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+// Response bodies commit the response before RequestMetricsFilter regains control, so the header is added here
+@RestControllerAdvice
+public class SqlStatementsHeaderAdvice implements ResponseBodyAdvice<Object> {
+
+    private final boolean enabled;
+
+    public SqlStatementsHeaderAdvice(@Value("${app.sql-budget.response-header:false}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return enabled;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType contentType,
+                                  Class<? extends HttpMessageConverter<?>> converterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest servletRequest) {
+            RequestSqlCounters counters = RequestSqlCounters.of(servletRequest.getServletRequest());
+            if (counters != null) {
+                response.getHeaders().set(RequestMetricsFilter.STATEMENTS_HEADER, String.valueOf(counters.getStatements()));
+            }
+        }
+        return body;
+    }
+}
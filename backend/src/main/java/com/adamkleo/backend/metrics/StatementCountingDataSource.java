@@ -0,0 +1,81 @@
+package com.adamkleo.backend.metrics;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Counts the SQL statements of the current request on the connections themselves, so
+ * Hibernate, {@code JdbcTemplate} and anything else given the pool are all seen. Every
+ * prepared or callable statement counts once however many times it runs (a JDBC batch is
+ * one statement), and every execution of a plain {@link Statement} counts once.
+ */
+public class StatementCountingDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    public StatementCountingDataSource(DataSource target) {
+        super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return counting(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return counting(super.getConnection(username, password));
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (getTargetDataSource() instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    private static Connection counting(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(StatementCountingDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    String name = method.getName();
+                    // Counted first, so a statement over the budget is never sent
+                    if (name.equals("prepareStatement") || name.equals("prepareCall")) {
+                        counted();
+                    }
+                    Object result = invoke(connection, method, args);
+                    return name.equals("createStatement") ? countingExecutions((Statement) result) : result;
+                });
+    }
+
+    private static Statement countingExecutions(Statement statement) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (method.getName().startsWith("execute")) {
+                counted();
+            }
+            return invoke(statement, method, args);
+        };
+        return (Statement) Proxy.newProxyInstance(StatementCountingDataSource.class.getClassLoader(),
+                new Class<?>[]{Statement.class}, handler);
+    }
+
+    private static void counted() {
+        RequestSqlCounters counters = RequestSqlCounters.current();
+        if (counters != null) {
+            counters.statementPrepared();
+        }
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.adamkleo.backend.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Indexes for the active-row filters and the per-employee assignment lookups.
+ * Written in Java because databases set up from the old schema.sql may already
+ * have the two F_BAJA indexes, and MySQL has no {@code CREATE INDEX IF NOT EXISTS}.
+ */
+public class V2__Performance_indexes extends BaseJavaMigration {
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        Connection connection = context.getConnection();
+        // findAllByEndDateIsNull, keyset pagination and countByEndDateIsNull.
+        // InnoDB appends the primary key, so this also serves (F_BAJA, ID_EMPLEADO) scans
+        createIndexIfMissing(connection, "EM_EMPLEADOS", "IX_EM_EMPLEADOS_F_BAJA", "F_BAJA");
+        // findAllByTerminationDateIsNull and the joins of findAssignmentsOfActiveProjects
+        createIndexIfMissing(connection, "PR_PROYECTOS", "IX_PR_PROYECTOS_F_BAJA", "F_BAJA");
+        // findByEmployeeId and existsByEmployeeId. The primary key starts with ID_PROYECTO,
+        // so until now only the index MySQL creates implicitly for the foreign key covered them
+        createIndexIfMissing(connection, "PR_EMPLEADOS_PROYECTO", "IX_PR_EMPLEADOS_PROYECTO_ID_EMPLEADO", "ID_EMPLEADO");
+    }
+
+    private static void createIndexIfMissing(Connection connection, String table, String index, String column)
+            throws SQLException {
+        if (indexExists(connection, table, index)) {
+            return;
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE INDEX " + index + " ON PRACTICA." + table + " (" + column + ")");
+        }
+    }
+
+    private static boolean indexExists(Connection connection, String table, String index) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        // MySQL reports the database as the catalog, H2 as the schema
+        try (ResultSet indexes = metaData.getIndexInfo(connection.getCatalog(), connection.getSchema(), table, false, true)) {
+            while (indexes.next()) {
+                if (index.equalsIgnoreCase(indexes.getString("INDEX_NAME"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
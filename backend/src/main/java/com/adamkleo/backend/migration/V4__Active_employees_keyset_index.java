@@ -0,0 +1,28 @@
+package com.adamkleo.backend.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * (F_BAJA, ID_EMPLEADO) index for the keyset pagination of active employees, which
+ * orders by both columns so a page is read in index order and the scan stops after
+ * it. InnoDB appends the primary key to IX_EM_EMPLEADOS_F_BAJA, so MySQL already has
+ * it; H2 does not, and sorted every active employee past the cursor for each page.
+ */
+public class V4__Active_employees_keyset_index extends BaseJavaMigration {
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        Connection connection = context.getConnection();
+        if ("MySQL".equals(connection.getMetaData().getDatabaseProductName())) {
+            return;
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE INDEX IX_EM_EMPLEADOS_F_BAJA_ID ON PRACTICA.EM_EMPLEADOS (F_BAJA, ID_EMPLEADO)");
+        }
+    }
+}
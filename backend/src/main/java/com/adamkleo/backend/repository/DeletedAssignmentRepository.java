@@ -0,0 +1,35 @@
+package com.adamkleo.backend.repository;
+
+import com.adamkleo.backend.entity.AssignmentId;
+import com.adamkleo.backend.entity.DeletedAssignment;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface DeletedAssignmentRepository extends JpaRepository<DeletedAssignment, AssignmentId> {
+
+    @Query("SELECT d.changeVersion FROM DeletedAssignment d WHERE d.changeVersion > :since ORDER BY d.changeVersion")
+    List<Long> findChangeVersionsAfter(long since, Limit limit);
+
+    @Query("SELECT d.id FROM DeletedAssignment d WHERE d.changeVersion > :since AND d.changeVersion <= :upTo ORDER BY d.changeVersion")
+    List<AssignmentId> findIdsDeletedBetween(long since, long upTo);
+
+    // An assignment created again is no longer deleted
+    @Modifying
+    @Query("DELETE FROM DeletedAssignment d WHERE d.id.projectId = :projectId AND d.id.employeeId IN :employeeIds")
+    int deleteByProjectIdAndEmployeeIdIn(Integer projectId, Collection<Integer> employeeIds);
+
+    @Query("SELECT MAX(d.changeVersion) FROM DeletedAssignment d WHERE d.deletedAt < :before")
+    Long findLastVersionDeletedBefore(LocalDateTime before);
+
+    @Modifying
+    @Query("DELETE FROM DeletedAssignment d WHERE d.changeVersion <= :upTo")
+    int deleteUpToVersion(long upTo);
+}
@@ -1,18 +1,70 @@
 package com.adamkleo.backend.repository;
 
+import com.adamkleo.backend.config.CacheRegions;
 import com.adamkleo.backend.entity.Employee;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface EmployeeRepository extends JpaRepository<Employee, Integer> {
 
+    // Kept in the query cache, invalidated by any write to EM_EMPLEADOS made through Hibernate
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheRegions.ACTIVE_EMPLOYEES_QUERY)
+    })
     List<Employee> findAllByEndDateIsNull();
 
     Page<Employee> findAllByEndDateIsNull(Pageable pageable);
 
+    // Keyset pagination: seeks past the last seen id instead of using OFFSET. Ordered like the
+    // (F_BAJA, ID_EMPLEADO) index, which is the id order here since every F_BAJA is null
+    List<Employee> findAllByEndDateIsNullAndIdGreaterThanOrderByEndDateAscIdAsc(Integer lastId, Limit limit);
+
+    long countByEndDateIsNull();
+
+    @Query("SELECT e.id FROM Employee e WHERE e.id IN :ids")
+    List<Integer> findExistingIds(Collection<Integer> ids);
+
+    // Delta sync, both served by the N_VERSION index
+
+    @Query("SELECT e.changeVersion FROM Employee e WHERE e.changeVersion > :since ORDER BY e.changeVersion")
+    List<Long> findChangeVersionsAfter(long since, Limit limit);
+
+    @Query("SELECT e FROM Employee e WHERE e.changeVersion > :since AND e.changeVersion <= :upTo ORDER BY e.changeVersion")
+    List<Employee> findChangedBetween(long since, long upTo);
+
+    // Forward-only cursor for exports and rebuilds, must be consumed inside a transaction. Past the
+    // second-level cache, so a full read does not evict the rows the requests keep hitting; the rows
+    // are loaded as the stream is consumed, so callers also call JdbcCacheSync.bypassForTransaction
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE")
+    })
+    @Query("SELECT e FROM Employee e ORDER BY e.id")
+    Stream<Employee> streamAll();
+
+    // Search before the index is loaded: a superset of the matches of one word, checked by the caller.
+    // Past the second-level cache like streamAll
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE")
+    })
+    @Query("SELECT e FROM Employee e WHERE e.endDate IS NULL AND (LOWER(e.firstName) LIKE :pattern " +
+            "OR LOWER(e.lastName1) LIKE :pattern OR LOWER(e.lastName2) LIKE :pattern " +
+            "OR LOWER(e.nif) LIKE :pattern OR LOWER(e.email) LIKE :pattern) ORDER BY e.id")
+    Stream<Employee> streamActiveContaining(String pattern);
+
 }
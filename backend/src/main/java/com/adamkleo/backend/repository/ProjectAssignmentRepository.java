@@ -1,27 +1,88 @@
 package com.adamkleo.backend.repository;
 
+import com.adamkleo.backend.dto.AssignmentDTO;
 import com.adamkleo.backend.entity.AssignmentId;
 import com.adamkleo.backend.entity.ProjectAssignment;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface ProjectAssignmentRepository extends JpaRepository<ProjectAssignment, AssignmentId> {
 
+    // project and employee are lazy, so every list query fetches them in the same select
+    @Override
+    @EntityGraph(attributePaths = {"project", "employee"})
+    List<ProjectAssignment> findAll();
+
+    // Filters on the key columns; the derived query compared the joined table's id, so the
+    // assignments table could not be searched by its primary key or ID_EMPLEADO index
+    @EntityGraph(attributePaths = {"project", "employee"})
+    @Query("SELECT pa FROM ProjectAssignment pa WHERE pa.id.projectId = :projectId")
     List<ProjectAssignment> findByProjectId(Integer projectId);
 
+    @EntityGraph(attributePaths = {"project", "employee"})
+    @Query("SELECT pa FROM ProjectAssignment pa WHERE pa.id.employeeId = :employeeId")
     List<ProjectAssignment> findByEmployeeId(Integer employeeId);
 
-    @Query("SELECT pa FROM ProjectAssignment pa WHERE pa.project.terminationDate IS NULL")
+    @Query("SELECT pa FROM ProjectAssignment pa JOIN FETCH pa.project p JOIN FETCH pa.employee WHERE p.terminationDate IS NULL")
     List<ProjectAssignment> findAssignmentsOfActiveProjects();
 
     boolean existsByProjectId(Integer projectId);
 
     boolean existsByEmployeeId(Integer employeeId);
 
+    @Query("SELECT pa.id.employeeId FROM ProjectAssignment pa WHERE pa.id.projectId = :projectId")
+    List<Integer> findEmployeeIdsByProjectId(Integer projectId);
+
+    @Modifying
+    @Query("DELETE FROM ProjectAssignment pa WHERE pa.id.projectId = :projectId AND pa.id.employeeId IN :employeeIds")
+    int deleteByProjectIdAndEmployeeIdIn(Integer projectId, Collection<Integer> employeeIds);
+
+    // Delta sync, both served by the N_VERSION index
+
+    @Query("SELECT pa.changeVersion FROM ProjectAssignment pa WHERE pa.changeVersion > :since ORDER BY pa.changeVersion")
+    List<Long> findChangeVersionsAfter(long since, Limit limit);
+
+    @EntityGraph(attributePaths = {"project", "employee"})
+    @Query("SELECT pa FROM ProjectAssignment pa WHERE pa.changeVersion > :since AND pa.changeVersion <= :upTo ORDER BY pa.changeVersion")
+    List<ProjectAssignment> findChangedBetween(long since, long upTo);
+
+    // Flat projections selected directly in SQL, no entities are hydrated
+
+    String FLAT_SELECT = "SELECT new com.adamkleo.backend.dto.AssignmentDTO(" +
+            "p.id, p.description, e.id, e.firstName, e.lastName1, e.lastName2, pa.assignmentDate) " +
+            "FROM ProjectAssignment pa JOIN pa.project p JOIN pa.employee e ";
+
+    @Query(FLAT_SELECT)
+    List<AssignmentDTO> findAllFlat();
+
+    @Query(FLAT_SELECT + "WHERE p.terminationDate IS NULL")
+    List<AssignmentDTO> findFlatOfActiveProjects();
+
+    @Query(FLAT_SELECT + "WHERE p.id = :projectId")
+    List<AssignmentDTO> findFlatByProjectId(Integer projectId);
+
+    // Forward-only cursor for exports, must be consumed inside a transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(FLAT_SELECT + "ORDER BY p.id, e.id")
+    Stream<AssignmentDTO> streamAllFlat();
 
+    // Project, employee and version of every assignment, then a last row with no ids and the newest tombstone version
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(value = "SELECT ID_PROYECTO, ID_EMPLEADO, N_VERSION FROM PR_EMPLEADOS_PROYECTO " +
+            "UNION ALL SELECT NULL, NULL, COALESCE(MAX(N_VERSION), 0) FROM PR_EMPLEADOS_PROYECTO_BORRADOS",
+            nativeQuery = true)
+    Stream<Object[]> streamAllWithVersions();
 
 }
@@ -1,10 +1,44 @@
 package com.adamkleo.backend.repository;
 
 import com.adamkleo.backend.entity.Project;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.stream.Stream;
+
 @Repository
 public interface ProjectRepository extends JpaRepository<Project, Integer> {
-    // Custom queries will go here if needed later
+
+    List<Project> findAllByTerminationDateIsNull(Sort sort);
+
+    Page<Project> findAllByTerminationDateIsNull(Pageable pageable);
+
+    // Delta sync, both served by the N_VERSION index
+
+    @Query("SELECT p.changeVersion FROM Project p WHERE p.changeVersion > :since ORDER BY p.changeVersion")
+    List<Long> findChangeVersionsAfter(long since, Limit limit);
+
+    @Query("SELECT p FROM Project p WHERE p.changeVersion > :since AND p.changeVersion <= :upTo ORDER BY p.changeVersion")
+    List<Project> findChangedBetween(long since, long upTo);
+
+    // Forward-only cursor for exports and rebuilds, must be consumed inside a transaction. Past the
+    // second-level cache, so a full read does not evict the rows the requests keep hitting; the rows
+    // are loaded as the stream is consumed, so callers also call JdbcCacheSync.bypassForTransaction
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE")
+    })
+    @Query("SELECT p FROM Project p ORDER BY p.id")
+    Stream<Project> streamAll();
+
 }
@@ -1,61 +1,251 @@
 package com.adamkleo.backend.service;
 
-import com.adamkleo.backend.entity.Employee;
-import com.adamkleo.backend.entity.Project;
+import com.adamkleo.backend.cache.SingleFlight;
+import com.adamkleo.backend.dto.AssignmentDTO;
+import com.adamkleo.backend.dto.AssignmentSyncResultDTO;
+import com.adamkleo.backend.dto.ChangeSetDTO;
 import com.adamkleo.backend.entity.ProjectAssignment;
 import com.adamkleo.backend.entity.AssignmentId;
+import com.adamkleo.backend.event.ChangeType;
+import com.adamkleo.backend.event.DataChangedEvent;
+import com.adamkleo.backend.event.DataTable;
 import com.adamkleo.backend.exception.AssignmentAlreadyExistsException;
 import com.adamkleo.backend.exception.AssignmentNotFoundException;
 import com.adamkleo.backend.exception.EmployeeNotFoundException;
 import com.adamkleo.backend.exception.ProjectNotFoundException;
+import com.adamkleo.backend.index.AssignmentIndex;
+import com.adamkleo.backend.repository.DeletedAssignmentRepository;
 import com.adamkleo.backend.repository.EmployeeRepository;
 import com.adamkleo.backend.repository.ProjectAssignmentRepository;
 import com.adamkleo.backend.repository.ProjectRepository;
+import com.adamkleo.backend.sync.ChangeVersions;
+import com.adamkleo.backend.sync.ChangeWindow;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 @Service
 public class AssignmentService {
 
+    private static final String INSERT_SQL =
+            "INSERT INTO PR_EMPLEADOS_PROYECTO (ID_PROYECTO, ID_EMPLEADO, F_ALTA, N_VERSION) VALUES (?, ?, ?, ?)";
+
+    // Inserts nothing when the project or the employee does not exist, the primary key rejects duplicates
+    private static final String ASSIGN_SQL =
+            "INSERT INTO PR_EMPLEADOS_PROYECTO (ID_PROYECTO, ID_EMPLEADO, F_ALTA, N_VERSION) " +
+            "SELECT p.ID_PROYECTO, e.ID_EMPLEADO, ?, ? FROM PR_PROYECTOS p, EM_EMPLEADOS e " +
+            "WHERE p.ID_PROYECTO = ? AND e.ID_EMPLEADO = ?";
+
+    // The same assignment can be deleted again after being recreated
+    private static final String TOMBSTONE_SQL =
+            "INSERT INTO PR_EMPLEADOS_PROYECTO_BORRADOS (ID_PROYECTO, ID_EMPLEADO, N_VERSION, F_BORRADO) VALUES (?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE N_VERSION = VALUES(N_VERSION), F_BORRADO = VALUES(F_BORRADO)";
+
     private final ProjectAssignmentRepository assignmentRepository;
     private final EmployeeRepository employeeRepository;
     private final ProjectRepository projectRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AssignmentIndex assignmentIndex;
+    private final TransactionTemplate writeTransaction;
+    private final DeletedAssignmentRepository deletedAssignmentRepository;
+    private final ChangeVersions changeVersions;
+    private final SingleFlight singleFlight;
+    private final Duration tombstoneRetention;
 
     public AssignmentService(ProjectAssignmentRepository assignmentRepository,
                              EmployeeRepository employeeRepository,
-                             ProjectRepository projectRepository) {
+                             ProjectRepository projectRepository,
+                             JdbcTemplate jdbcTemplate,
+                             ApplicationEventPublisher eventPublisher,
+                             AssignmentIndex assignmentIndex,
+                             PlatformTransactionManager transactionManager,
+                             DeletedAssignmentRepository deletedAssignmentRepository,
+                             ChangeVersions changeVersions,
+                             SingleFlight singleFlight,
+                             @Value("${app.delta-sync.tombstone-retention:30d}") Duration tombstoneRetention) {
         this.assignmentRepository = assignmentRepository;
         this.employeeRepository = employeeRepository;
         this.projectRepository = projectRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.assignmentIndex = assignmentIndex;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.deletedAssignmentRepository = deletedAssignmentRepository;
+        this.changeVersions = changeVersions;
+        this.singleFlight = singleFlight;
+        this.tombstoneRetention = tombstoneRetention;
     }
 
+    // A conflict the index knows of is rejected before a transaction starts; the write statements still
+    // guard everything it lets through, so an index that is behind costs a round trip, never a wrong write
     public void assignEmployeeToProject(Integer projectId, Integer employeeId) {
-        Project project = projectRepository.findById(projectId)
-                .orElseThrow(() -> new ProjectNotFoundException(projectId));
+        if (assignmentIndex.isReady() && assignmentIndex.isAssigned(projectId, employeeId)) {
+            throw new AssignmentAlreadyExistsException(employeeId, projectId);
+        }
+        writeTransaction.executeWithoutResult(status -> {
+            // The tombstone goes first, so the version is taken right before the insert that carries it
+            deletedAssignmentRepository.deleteByProjectIdAndEmployeeIdIn(projectId, List.of(employeeId));
+            long version = changeVersions.next(DataTable.ASSIGNMENTS);
+            try {
+                if (jdbcTemplate.update(ASSIGN_SQL, Date.valueOf(LocalDate.now()), version, projectId, employeeId) == 0) {
+                    throw projectRepository.existsById(projectId)
+                            ? new EmployeeNotFoundException(employeeId)
+                            : new ProjectNotFoundException(projectId);
+                }
+            } catch (DuplicateKeyException e) {
+                throw new AssignmentAlreadyExistsException(employeeId, projectId);
+            }
+            eventPublisher.publishEvent(new DataChangedEvent(DataTable.ASSIGNMENTS, ChangeType.CREATED, List.of(new AssignmentId(projectId, employeeId)), version));
+        });
+    }
 
-        Employee employee = employeeRepository.findById(employeeId)
-                .orElseThrow(() -> new EmployeeNotFoundException(employeeId));
+    public void unassignEmployeeFromProject(Integer projectId, Integer employeeId) {
+        if (assignmentIndex.isReady() && !assignmentIndex.isAssigned(projectId, employeeId)) {
+            throw new AssignmentNotFoundException(employeeId, projectId);
+        }
+        writeTransaction.executeWithoutResult(status -> {
+            if (assignmentRepository.deleteByProjectIdAndEmployeeIdIn(projectId, List.of(employeeId)) == 0) {
+                throw new AssignmentNotFoundException(employeeId, projectId);
+            }
+            long version = changeVersions.next(DataTable.ASSIGNMENTS);
+            recordDeletions(projectId, List.of(employeeId), version);
+            eventPublisher.publishEvent(new DataChangedEvent(DataTable.ASSIGNMENTS, ChangeType.DELETED, List.of(new AssignmentId(projectId, employeeId)), version));
+        });
+    }
 
-        AssignmentId id = new AssignmentId(projectId, employeeId);
-        if (assignmentRepository.existsById(id)) {
-            throw new AssignmentAlreadyExistsException(employeeId, projectId);
+    /**
+     * Makes the employees assigned to a project exactly the given set.
+     * Only the difference with the current assignments is written: new ids are
+     * inserted in one JDBC batch and removed ids are deleted in one statement.
+     * Both share one change version, taken after the checks and the deletes.
+     */
+    @Transactional
+    public AssignmentSyncResultDTO syncProjectAssignments(Integer projectId, Collection<Integer> employeeIds) {
+        if (!projectRepository.existsById(projectId)) {
+            throw new ProjectNotFoundException(projectId);
+        }
+
+        Set<Integer> desired = new HashSet<>(employeeIds);
+        desired.remove(null);
+        Set<Integer> current = new HashSet<>(assignmentRepository.findEmployeeIdsByProjectId(projectId));
+
+        List<Integer> toAdd = new ArrayList<>();
+        for (Integer employeeId : desired) {
+            if (!current.contains(employeeId)) {
+                toAdd.add(employeeId);
+            }
+        }
+        List<Integer> toRemove = new ArrayList<>();
+        for (Integer employeeId : current) {
+            if (!desired.contains(employeeId)) {
+                toRemove.add(employeeId);
+            }
+        }
+
+        if (toAdd.isEmpty() && toRemove.isEmpty()) {
+            return new AssignmentSyncResultDTO(projectId, toAdd, toRemove, current.size());
+        }
+
+        if (!toAdd.isEmpty()) {
+            Set<Integer> existing = new HashSet<>(employeeRepository.findExistingIds(toAdd));
+            for (Integer employeeId : toAdd) {
+                if (!existing.contains(employeeId)) {
+                    throw new EmployeeNotFoundException(employeeId);
+                }
+            }
+            deletedAssignmentRepository.deleteByProjectIdAndEmployeeIdIn(projectId, toAdd);
+        }
+        if (!toRemove.isEmpty()) {
+            assignmentRepository.deleteByProjectIdAndEmployeeIdIn(projectId, toRemove);
         }
 
+        // Only the statements that carry the version are left
+        long version = changeVersions.next(DataTable.ASSIGNMENTS);
+        if (!toAdd.isEmpty()) {
+            Date today = Date.valueOf(LocalDate.now());
+            jdbcTemplate.batchUpdate(INSERT_SQL, toAdd, toAdd.size(), (ps, employeeId) -> {
+                ps.setInt(1, projectId);
+                ps.setInt(2, employeeId);
+                ps.setDate(3, today);
+                ps.setLong(4, version);
+            });
+            eventPublisher.publishEvent(new DataChangedEvent(DataTable.ASSIGNMENTS, ChangeType.CREATED, toAssignmentIds(projectId, toAdd), version));
+        }
+        if (!toRemove.isEmpty()) {
+            recordDeletions(projectId, toRemove, version);
+            eventPublisher.publishEvent(new DataChangedEvent(DataTable.ASSIGNMENTS, ChangeType.DELETED, toAssignmentIds(projectId, toRemove), version));
+        }
 
-        ProjectAssignment assignment = new ProjectAssignment(project, employee, LocalDate.now());
-        assignmentRepository.save(assignment);
+        return new AssignmentSyncResultDTO(projectId, toAdd, toRemove, current.size() - toRemove.size());
     }
 
-    public void unassignEmployeeFromProject(Integer projectId, Integer employeeId) {
-        AssignmentId id = new AssignmentId(projectId, employeeId);
+    private void recordDeletions(Integer projectId, List<Integer> employeeIds, long version) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(TOMBSTONE_SQL, employeeIds, employeeIds.size(), (ps, employeeId) -> {
+            ps.setInt(1, projectId);
+            ps.setInt(2, employeeId);
+            ps.setLong(3, version);
+            ps.setTimestamp(4, now);
+        });
+    }
 
-        if (!assignmentRepository.existsById(id)) {
-            throw new AssignmentNotFoundException(employeeId, projectId);
+    // Assignments created and deleted after the given version; without since, only the current version
+    @Transactional(readOnly = true)
+    public ChangeSetDTO<ProjectAssignment, AssignmentId> getChangesSince(Long since, int limit) {
+        long current = changeVersions.current(DataTable.ASSIGNMENTS, since == null ? 0 : since);
+        if (since == null) {
+            return new ChangeSetDTO<>(current, List.of(), List.of(), false);
         }
 
-        assignmentRepository.deleteById(id);
+        ChangeWindow window = ChangeWindow.of(since, current, limit,
+                assignmentRepository.findChangeVersionsAfter(since, Limit.of(limit + 1)),
+                deletedAssignmentRepository.findChangeVersionsAfter(since, Limit.of(limit + 1)));
+        if (window.isEmpty()) {
+            return new ChangeSetDTO<>(window.getUpTo(), List.of(), List.of(), false);
+        }
+        return new ChangeSetDTO<>(window.getUpTo(),
+                assignmentRepository.findChangedBetween(since, window.getUpTo()),
+                deletedAssignmentRepository.findIdsDeletedBetween(since, window.getUpTo()),
+                window.hasMore());
+    }
+
+    // Clients that last synced before the purged deletions get 410 and reload the full list
+    @Scheduled(cron = "${app.delta-sync.purge-cron:0 30 3 * * *}")
+    @Transactional
+    public void purgeDeletedAssignments() {
+        Long upTo = deletedAssignmentRepository.findLastVersionDeletedBefore(LocalDateTime.now().minus(tombstoneRetention));
+        if (upTo == null) {
+            return;
+        }
+        deletedAssignmentRepository.deleteUpToVersion(upTo);
+        changeVersions.purgedUpTo(DataTable.ASSIGNMENTS, upTo);
+    }
+
+    private List<AssignmentId> toAssignmentIds(Integer projectId, List<Integer> employeeIds) {
+        List<AssignmentId> ids = new ArrayList<>(employeeIds.size());
+        for (Integer employeeId : employeeIds) {
+            ids.add(new AssignmentId(projectId, employeeId));
+        }
+        return ids;
     }
 
 
@@ -67,23 +257,25 @@ public class AssignmentService {
         return assignmentRepository.findByEmployeeId(employeeId);
     }
 
-    public boolean hasAssignedEmployees(Integer projectId) {
-        return assignmentRepository.existsByProjectId(projectId);
+    public List<ProjectAssignment> getAssignments() {
+        return assignmentRepository.findAll();
     }
 
-    public boolean hasAssignedProject(Integer employeeId) {
-        return assignmentRepository.existsByEmployeeId(employeeId);
+    // Embeds full employees and projects, so a write to any of the three tables drops the shared query
+    public List<ProjectAssignment> getActiveAssignments() {
+        return singleFlight.run("active-assignments", assignmentRepository::findAssignmentsOfActiveProjects,
+                DataTable.ASSIGNMENTS, DataTable.PROJECTS, DataTable.EMPLOYEES);
     }
 
-    public List<ProjectAssignment> getAssignments() {
-        return assignmentRepository.findAll();
+    public List<AssignmentDTO> getFlatAssignments() {
+        return assignmentRepository.findAllFlat();
     }
 
-    public boolean isEmployeeAssignedToAnyProject(Integer employeeId) {
-        return assignmentRepository.existsByEmployeeId(employeeId);
+    public List<AssignmentDTO> getFlatActiveAssignments() {
+        return assignmentRepository.findFlatOfActiveProjects();
     }
 
-    public List<ProjectAssignment> getActiveAssignments() {
-        return assignmentRepository.findAssignmentsOfActiveProjects();
+    public List<AssignmentDTO> getFlatAssignmentsByProject(Integer projectId) {
+        return assignmentRepository.findFlatByProjectId(projectId);
     }
 }
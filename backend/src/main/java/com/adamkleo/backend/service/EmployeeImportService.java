@@ -0,0 +1,205 @@
+package com.adamkleo.backend.service;
+
+import com.adamkleo.backend.cache.JdbcCacheSync;
+import com.adamkleo.backend.dto.BulkImportReportDTO;
+import com.adamkleo.backend.dto.BulkRowErrorDTO;
+import com.adamkleo.backend.entity.Employee;
+import com.adamkleo.backend.event.ChangeType;
+import com.adamkleo.backend.event.DataChangedEvent;
+import com.adamkleo.backend.event.DataTable;
+import com.adamkleo.backend.sync.ChangeVersions;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bulk employee import that never holds the whole request in memory.
+ * The JSON array is read one element at a time, rows are validated as they
+ * arrive and valid rows are written with JDBC batch inserts, one transaction
+ * per chunk. A failing chunk is rolled back on its own and reported row by row.
+ */
+@Service
+public class EmployeeImportService {
+
+    private static final String INSERT_SQL = "INSERT INTO PRACTICA.EM_EMPLEADOS " +
+            "(TX_NIF, TX_NOMBRE, TX_APELLIDO1, TX_APELLIDO2, F_NACIMIENTO, N_TELEFONO1, N_TELEFONO2, " +
+            "TX_EMAIL, F_ALTA, F_BAJA, CX_EDOCIVIL, B_FORMACIONU, N_VERSION) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ChangeVersions changeVersions;
+    private final JdbcCacheSync cacheSync;
+    private final int chunkSize;
+
+    public EmployeeImportService(ObjectMapper objectMapper,
+                                 Validator validator,
+                                 JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 ApplicationEventPublisher eventPublisher,
+                                 ChangeVersions changeVersions,
+                                 JdbcCacheSync cacheSync,
+                                 @Value("${app.import.chunk-size:500}") int chunkSize) {
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.changeVersions = changeVersions;
+        this.cacheSync = cacheSync;
+        this.chunkSize = chunkSize;
+    }
+
+    public BulkImportReportDTO importEmployees(InputStream body) throws IOException {
+        BulkImportReportDTO report = new BulkImportReportDTO();
+        List<Employee> chunk = new ArrayList<>(chunkSize);
+        List<Integer> chunkRows = new ArrayList<>(chunkSize);
+        int row = 0;
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("El cuerpo de la petición debe ser un array JSON de empleados.");
+            }
+
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                JsonNode node = parser.readValueAsTree();
+                Employee employee = toValidEmployee(node, row, report);
+                if (employee != null) {
+                    chunk.add(employee);
+                    chunkRows.add(row);
+                }
+                if (chunk.size() == chunkSize) {
+                    writeChunk(chunk, chunkRows, report);
+                }
+                row++;
+            }
+        } catch (JsonParseException e) {
+            report.setAbortReason("JSON mal formado: " + e.getOriginalMessage());
+        }
+        report.setReceived(row);
+
+        writeChunk(chunk, chunkRows, report);
+        return report;
+    }
+
+    private Employee toValidEmployee(JsonNode node, int row, BulkImportReportDTO report) {
+        Employee employee;
+        try {
+            employee = objectMapper.treeToValue(node, Employee.class);
+        } catch (JsonProcessingException e) {
+            reject(report, row, Map.of("row", "No se pudo leer el empleado: " + e.getOriginalMessage()));
+            return null;
+        }
+
+        Set<ConstraintViolation<Employee>> violations = validator.validate(employee);
+        if (!violations.isEmpty()) {
+            Map<String, String> errors = new HashMap<>();
+            for (ConstraintViolation<Employee> violation : violations) {
+                errors.put(violation.getPropertyPath().toString(), violation.getMessage());
+            }
+            reject(report, row, errors);
+            return null;
+        }
+        return employee;
+    }
+
+    private void writeChunk(List<Employee> chunk, List<Integer> chunkRows, BulkImportReportDTO report) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                cacheSync.beforeWrite(Employee.class);
+                jdbcTemplate.execute((ConnectionCallback<Void>) connection -> insertBatch(connection, chunk));
+                // Stamped once the chunk is in, so the version row is not locked during the insert
+                long version = changeVersions.stamp(DataTable.EMPLOYEES, EmployeeService.STAMP_SQL,
+                        chunk.stream().map(Employee::getId).toList());
+                for (Employee employee : chunk) {
+                    employee.setChangeVersion(version);
+                }
+                eventPublisher.publishEvent(new DataChangedEvent(DataTable.EMPLOYEES, ChangeType.CREATED, List.copyOf(chunk), version));
+            });
+            report.setInserted(report.getInserted() + chunk.size());
+        } catch (DataAccessException e) {
+            String message = "El bloque no se pudo guardar: " + e.getMostSpecificCause().getMessage();
+            for (Integer row : chunkRows) {
+                reject(report, row, Map.of("row", message));
+            }
+        }
+        chunk.clear();
+        chunkRows.clear();
+    }
+
+    private Void insertBatch(Connection connection, List<Employee> chunk) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            for (Employee employee : chunk) {
+                bind(ps, employee);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+
+            // Generated ids come back in insert order
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                for (int i = 0; i < chunk.size() && keys.next(); i++) {
+                    chunk.get(i).setId(keys.getInt(1));
+                }
+            }
+        }
+        return null;
+    }
+
+    private void bind(PreparedStatement ps, Employee e) throws SQLException {
+        ps.setString(1, e.getNif());
+        ps.setString(2, e.getFirstName());
+        ps.setString(3, e.getLastName1());
+        ps.setString(4, e.getLastName2());
+        ps.setDate(5, toSqlDate(e.getBirthDate()));
+        ps.setString(6, e.getPhone1());
+        ps.setString(7, e.getPhone2());
+        ps.setString(8, e.getEmail());
+        ps.setDate(9, toSqlDate(e.getStartDate()));
+        ps.setDate(10, toSqlDate(e.getEndDate()));
+        ps.setString(11, String.valueOf(e.getCivilStatus()));
+        ps.setString(12, String.valueOf(e.getUniversityEducation()));
+        ps.setLong(13, e.getChangeVersion());
+    }
+
+    private Date toSqlDate(LocalDate date) {
+        return date == null ? null : Date.valueOf(date);
+    }
+
+    private void reject(BulkImportReportDTO report, int row, Map<String, String> errors) {
+        report.getErrors().add(new BulkRowErrorDTO(row, errors));
+        report.setFailed(report.getFailed() + 1);
+    }
+}
@@ -1,56 +1,134 @@
 package com.adamkleo.backend.service;
 
+import com.adamkleo.backend.cache.JdbcCacheSync;
+import com.adamkleo.backend.cache.SingleFlight;
+import com.adamkleo.backend.dto.ChangeSetDTO;
+import com.adamkleo.backend.dto.CursorPageDTO;
 import com.adamkleo.backend.dto.EmployeeBasicDTO;
 import com.adamkleo.backend.entity.Employee;
+import com.adamkleo.backend.event.ChangeType;
+import com.adamkleo.backend.event.DataChangedEvent;
+import com.adamkleo.backend.event.DataTable;
 import com.adamkleo.backend.exception.EmployeeAlreadyTerminatedException;
 import com.adamkleo.backend.exception.EmployeeAssignedException;
 import com.adamkleo.backend.exception.EmployeeNotFoundException;
+import com.adamkleo.backend.index.AssignmentIndex;
+import com.adamkleo.backend.index.EmployeeSearchIndex;
 import com.adamkleo.backend.repository.EmployeeRepository;
+import com.adamkleo.backend.sync.ChangeVersions;
+import com.adamkleo.backend.sync.ChangeWindow;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
 
 @Service
 public class EmployeeService {
 
-    private final EmployeeRepository employeeRepository;
-    private final AssignmentService assignmentService;
+    // The checks and the write in one statement, so no assignment can slip in between them
+    private static final String TERMINATE_SQL = "UPDATE PRACTICA.EM_EMPLEADOS e SET F_BAJA = ?, N_VERSION = ? " +
+            "WHERE e.ID_EMPLEADO = ? AND e.F_BAJA IS NULL " +
+            "AND NOT EXISTS (SELECT 1 FROM PRACTICA.PR_EMPLEADOS_PROYECTO pa WHERE pa.ID_EMPLEADO = e.ID_EMPLEADO)";
+
+    // Change version of rows already inserted, for ChangeVersions.stamp
+    static final String STAMP_SQL = "UPDATE PRACTICA.EM_EMPLEADOS SET N_VERSION = ? WHERE ID_EMPLEADO = ?";
 
-    public EmployeeService(EmployeeRepository employeeRepository, AssignmentService assignmentService) {
+    private final EmployeeRepository employeeRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcCacheSync cacheSync;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EmployeeSearchIndex searchIndex;
+    private final ChangeVersions changeVersions;
+    private final AssignmentIndex assignmentIndex;
+    private final TransactionTemplate writeTransaction;
+    private final SingleFlight singleFlight;
+
+    public EmployeeService(EmployeeRepository employeeRepository,
+                           JdbcTemplate jdbcTemplate,
+                           JdbcCacheSync cacheSync,
+                           ApplicationEventPublisher eventPublisher,
+                           EmployeeSearchIndex searchIndex,
+                           ChangeVersions changeVersions,
+                           AssignmentIndex assignmentIndex,
+                           PlatformTransactionManager transactionManager,
+                           SingleFlight singleFlight) {
         this.employeeRepository = employeeRepository;
-        this.assignmentService = assignmentService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.cacheSync = cacheSync;
+        this.eventPublisher = eventPublisher;
+        this.searchIndex = searchIndex;
+        this.changeVersions = changeVersions;
+        this.assignmentIndex = assignmentIndex;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.singleFlight = singleFlight;
     }
 
     public List<Employee> getActiveEmployees() {
-        return employeeRepository.findAllByEndDateIsNull();
+        return singleFlight.run("active-employees", employeeRepository::findAllByEndDateIsNull, DataTable.EMPLOYEES);
     }
 
+    @Transactional
     public Employee addEmployee(Employee employee) {
-        return employeeRepository.save(employee);
+        employee.setChangeVersion(changeVersions.next(DataTable.EMPLOYEES));
+        Employee saved = employeeRepository.save(employee);
+        eventPublisher.publishEvent(new DataChangedEvent(DataTable.EMPLOYEES, ChangeType.CREATED, List.of(saved), saved.getChangeVersion()));
+        return saved;
     }
 
+    @Transactional
     public List<Employee> addEmployees(List<Employee> employees) {
-        return employeeRepository.saveAll(employees);
+        List<Employee> saved = employeeRepository.saveAll(employees);
+        // Stamped once the rows are in, so the version row is not locked while they are inserted
+        cacheSync.beforeStamp(saved);
+        long version = changeVersions.stamp(DataTable.EMPLOYEES, STAMP_SQL, saved.stream().map(Employee::getId).toList());
+        for (Employee employee : saved) {
+            employee.setChangeVersion(version);
+        }
+        eventPublisher.publishEvent(new DataChangedEvent(DataTable.EMPLOYEES, ChangeType.CREATED, saved, version));
+        return saved;
     }
 
     public void terminateEmployee(Integer id) {
-        Employee employee = employeeRepository.findById(id)
-                .orElseThrow(() -> new EmployeeNotFoundException(id));
-
-        if (employee.getEndDate() != null) {
-            throw new EmployeeAlreadyTerminatedException(id);
-        }
-
-        if (assignmentService.hasAssignedProject(id)) {
+        // Rejected before a transaction starts when the assignment index knows of a project
+        if (assignmentIndex.isReady() && assignmentIndex.employeeHasProjects(id)) {
             throw new EmployeeAssignedException(id);
         }
+        writeTransaction.executeWithoutResult(status -> {
+            // Written past Hibernate: only this employee's cached copy is replaced after the commit,
+            // a bulk HQL update would empty the whole region
+            cacheSync.beforeWrite(Employee.class, id);
+            long version = changeVersions.next(DataTable.EMPLOYEES);
+            if (jdbcTemplate.update(TERMINATE_SQL, Date.valueOf(LocalDate.now()), version, id) == 0) {
+                throw terminateFailure(id);
+            }
+
+            Employee employee = cacheSync.find(Employee.class, id);
+            eventPublisher.publishEvent(new DataChangedEvent(DataTable.EMPLOYEES, ChangeType.TERMINATED, List.of(employee), version));
+        });
+    }
 
-        employee.setEndDate(LocalDate.now());
-        employeeRepository.save(employee);
+    // Only read once the guarded update has failed, to report why
+    private RuntimeException terminateFailure(Integer id) {
+        Employee employee = employeeRepository.findById(id).orElse(null);
+        if (employee == null) {
+            return new EmployeeNotFoundException(id);
+        }
+        if (employee.getEndDate() != null) {
+            return new EmployeeAlreadyTerminatedException(id);
+        }
+        return new EmployeeAssignedException(id);
     }
 
     public EmployeeBasicDTO toBasicDto(Employee e) {
@@ -73,10 +151,67 @@ public class EmployeeService {
         return basicDTOs;
     }
 
+    // Active employees whose name, NIF or email words start with every word of the query
+    public List<EmployeeBasicDTO> searchEmployees(String query, int limit) {
+        return searchIndex.search(query, limit);
+    }
+
 
     public Page<Employee> getActiveEmployees(Pageable pageable) {
         return employeeRepository.findAllByEndDateIsNull(pageable);
     }
 
+    // Page and count in one read-only transaction, on the same replica
+    @Transactional(readOnly = true)
+    public CursorPageDTO<Employee> getActiveEmployees(String cursor, int size, boolean includeTotal) {
+        int lastId = decodeCursor(cursor);
+
+        // Fetch one extra row to know whether there is a next page without a COUNT(*)
+        List<Employee> rows = employeeRepository.findAllByEndDateIsNullAndIdGreaterThanOrderByEndDateAscIdAsc(lastId, Limit.of(size + 1));
+        boolean hasNext = rows.size() > size;
+        List<Employee> content = hasNext ? rows.subList(0, size) : rows;
+
+        String nextCursor = hasNext ? encodeCursor(content.get(content.size() - 1).getId()) : null;
+        Long total = includeTotal ? employeeRepository.countByEndDateIsNull() : null;
+
+        return new CursorPageDTO<>(content, nextCursor, hasNext, total);
+    }
+
+    // Employees written after the given version, terminated ones included; without since, only the current version
+    @Transactional(readOnly = true)
+    public ChangeSetDTO<Employee, Integer> getChangesSince(Long since, int limit) {
+        long current = changeVersions.current(DataTable.EMPLOYEES, since == null ? 0 : since);
+        if (since == null) {
+            return new ChangeSetDTO<>(current, List.of(), List.of(), false);
+        }
+
+        ChangeWindow window = ChangeWindow.of(since, current, limit,
+                employeeRepository.findChangeVersionsAfter(since, Limit.of(limit + 1)));
+        List<Employee> changed = window.isEmpty()
+                ? List.of()
+                : employeeRepository.findChangedBetween(since, window.getUpTo());
+        return new ChangeSetDTO<>(window.getUpTo(), changed, List.of(), window.hasMore());
+    }
+
+    private String encodeCursor(Integer lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(("id:" + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private int decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!decoded.startsWith("id:")) {
+                throw new IllegalArgumentException("Cursor de paginación no válido.");
+            }
+            return Integer.parseInt(decoded.substring(3));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor de paginación no válido.");
+        }
+    }
+
 
 }
@@ -0,0 +1,165 @@
+package com.adamkleo.backend.service;
+
+import com.adamkleo.backend.cache.JdbcCacheSync;
+import com.adamkleo.backend.dto.AssignmentDTO;
+import com.adamkleo.backend.entity.Employee;
+import com.adamkleo.backend.entity.Project;
+import com.adamkleo.backend.repository.EmployeeRepository;
+import com.adamkleo.backend.repository.ProjectAssignmentRepository;
+import com.adamkleo.backend.repository.ProjectRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Writes whole tables to an output stream row by row, so heap use does not
+ * depend on table size. Rows are read through forward-only repository streams
+ * and entities are detached from the persistence context once written.
+ */
+@Service
+public class ExportService {
+
+    private static final int FLUSH_EVERY = 1000;
+
+    private static final String[] EMPLOYEE_COLUMNS = {
+            "id", "nif", "firstName", "lastName1", "lastName2", "birthDate", "phone1", "phone2",
+            "email", "startDate", "endDate", "civilStatus", "universityEducation"
+    };
+
+    private static final String[] PROJECT_COLUMNS = {
+            "id", "description", "startDate", "endDate", "terminationDate", "location", "observations"
+    };
+
+    private static final String[] ASSIGNMENT_COLUMNS = {
+            "projectId", "projectDescription", "employeeId", "firstName", "lastName1", "lastName2", "assignmentDate"
+    };
+
+    private final EmployeeRepository employeeRepository;
+    private final ProjectRepository projectRepository;
+    private final ProjectAssignmentRepository assignmentRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    public ExportService(EmployeeRepository employeeRepository,
+                         ProjectRepository projectRepository,
+                         ProjectAssignmentRepository assignmentRepository,
+                         EntityManager entityManager,
+                         ObjectMapper objectMapper) {
+        this.employeeRepository = employeeRepository;
+        this.projectRepository = projectRepository;
+        this.assignmentRepository = assignmentRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+    }
+
+    @Transactional(readOnly = true)
+    public void exportEmployees(ExportFormat format, OutputStream out) throws IOException {
+        JdbcCacheSync.bypassForTransaction(entityManager);
+        try (Stream<Employee> rows = employeeRepository.streamAll()) {
+            write(rows, format, out, true, EMPLOYEE_COLUMNS, e -> new Object[]{
+                    e.getId(), e.getNif(), e.getFirstName(), e.getLastName1(), e.getLastName2(), e.getBirthDate(),
+                    e.getPhone1(), e.getPhone2(), e.getEmail(), e.getStartDate(), e.getEndDate(),
+                    e.getCivilStatus(), e.getUniversityEducation()
+            });
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void exportProjects(ExportFormat format, OutputStream out) throws IOException {
+        JdbcCacheSync.bypassForTransaction(entityManager);
+        try (Stream<Project> rows = projectRepository.streamAll()) {
+            write(rows, format, out, true, PROJECT_COLUMNS, p -> new Object[]{
+                    p.getId(), p.getDescription(), p.getStartDate(), p.getEndDate(), p.getTerminationDate(),
+                    p.getLocation(), p.getObservations()
+            });
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void exportAssignments(ExportFormat format, OutputStream out) throws IOException {
+        try (Stream<AssignmentDTO> rows = assignmentRepository.streamAllFlat()) {
+            // Projections are not managed by the persistence context, nothing to detach
+            write(rows, format, out, false, ASSIGNMENT_COLUMNS, a -> new Object[]{
+                    a.getProjectId(), a.getProjectDescription(), a.getEmployeeId(), a.getFirstName(),
+                    a.getLastName1(), a.getLastName2(), a.getAssignmentDate()
+            });
+        }
+    }
+
+    private <T> void write(Stream<T> rows, ExportFormat format, OutputStream out, boolean detach,
+                           String[] columns, Function<T, Object[]> toCsvRow) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        Iterator<T> iterator = rows.iterator();
+        int written = 0;
+
+        if (format == ExportFormat.CSV) {
+            writeCsvLine(writer, columns);
+            while (iterator.hasNext()) {
+                T row = iterator.next();
+                writeCsvLine(writer, toCsvRow.apply(row));
+                written = afterRow(row, detach, writer, written);
+            }
+            writer.flush();
+            return;
+        }
+
+        ObjectWriter rowWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        JsonGenerator json = objectMapper.getFactory().createGenerator(writer);
+        json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        json.setRootValueSeparator(null);
+        while (iterator.hasNext()) {
+            T row = iterator.next();
+            rowWriter.writeValue(json, row);
+            json.writeRaw('\n');
+            written = afterRow(row, detach, json, written);
+        }
+        json.flush();
+    }
+
+    private int afterRow(Object row, boolean detach, Flushable output, int written) throws IOException {
+        // Entities are released as soon as they are written so the persistence context stays empty
+        if (detach) {
+            entityManager.detach(row);
+        }
+        if (++written % FLUSH_EVERY == 0) {
+            output.flush();
+        }
+        return written;
+    }
+
+    private void writeCsvLine(Writer writer, Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(csvEscape(values[i]));
+        }
+        writer.write("\r\n");
+    }
+
+    private String csvEscape(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return "\"" + text.replace("\"", "\"\"") + "\"";
+    }
+}
@@ -1,52 +1,125 @@
 package com.adamkleo.backend.service;
 
+import com.adamkleo.backend.cache.JdbcCacheSync;
+import com.adamkleo.backend.dto.ChangeSetDTO;
 import com.adamkleo.backend.entity.Project;
+import com.adamkleo.backend.event.ChangeType;
+import com.adamkleo.backend.event.DataChangedEvent;
+import com.adamkleo.backend.event.DataTable;
 import com.adamkleo.backend.exception.ProjectAlreadyTerminatedException;
 import com.adamkleo.backend.exception.ProjectAssignedException;
 import com.adamkleo.backend.exception.ProjectNotFoundException;
+import com.adamkleo.backend.index.AssignmentIndex;
 import com.adamkleo.backend.repository.ProjectRepository;
+import com.adamkleo.backend.sync.ChangeVersions;
+import com.adamkleo.backend.sync.ChangeWindow;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.Date;
 import java.time.LocalDate;
 import java.util.List;
 
 @Service
 public class ProjectService {
 
+    // The checks and the write in one statement, so no assignment can slip in between them
+    private static final String TERMINATE_SQL = "UPDATE PR_PROYECTOS p SET F_BAJA = ?, N_VERSION = ? " +
+            "WHERE p.ID_PROYECTO = ? AND p.F_BAJA IS NULL " +
+            "AND NOT EXISTS (SELECT 1 FROM PR_EMPLEADOS_PROYECTO pa WHERE pa.ID_PROYECTO = p.ID_PROYECTO)";
+
     private final ProjectRepository projectRepository;
-    private final AssignmentService assignmentService;
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcCacheSync cacheSync;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ChangeVersions changeVersions;
+    private final AssignmentIndex assignmentIndex;
+    private final TransactionTemplate writeTransaction;
 
-    public ProjectService(ProjectRepository projectRepository, AssignmentService assignmentService) {
+    public ProjectService(ProjectRepository projectRepository,
+                          JdbcTemplate jdbcTemplate,
+                          JdbcCacheSync cacheSync,
+                          ApplicationEventPublisher eventPublisher,
+                          ChangeVersions changeVersions,
+                          AssignmentIndex assignmentIndex,
+                          PlatformTransactionManager transactionManager) {
         this.projectRepository = projectRepository;
-        this.assignmentService = assignmentService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.cacheSync = cacheSync;
+        this.eventPublisher = eventPublisher;
+        this.changeVersions = changeVersions;
+        this.assignmentIndex = assignmentIndex;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
     }
 
 
     public List<Project> getActiveProjects() {
-        return projectRepository.findAll()
-                .stream()
-                .filter(p -> p.getTerminationDate() == null)
-                .toList();
+        return projectRepository.findAllByTerminationDateIsNull(Sort.by("id"));
+    }
+
+    public Page<Project> getActiveProjects(Pageable pageable) {
+        return projectRepository.findAllByTerminationDateIsNull(pageable);
     }
 
+    @Transactional
     public Project addProject(Project project) {
-        return projectRepository.save(project);
+        project.setChangeVersion(changeVersions.next(DataTable.PROJECTS));
+        Project saved = projectRepository.save(project);
+        eventPublisher.publishEvent(new DataChangedEvent(DataTable.PROJECTS, ChangeType.CREATED, List.of(saved), saved.getChangeVersion()));
+        return saved;
     }
 
     public void terminateProject(Integer id) {
-        Project project = projectRepository.findById(id)
-                .orElseThrow(() -> new ProjectNotFoundException(id));
+        // Rejected before a transaction starts when the assignment index knows of an employee
+        if (assignmentIndex.isReady() && assignmentIndex.projectHasEmployees(id)) {
+            throw terminateFailure(id);
+        }
+        writeTransaction.executeWithoutResult(status -> {
+            // Written past Hibernate: only this project's cached copy is replaced after the commit
+            cacheSync.beforeWrite(Project.class, id);
+            long version = changeVersions.next(DataTable.PROJECTS);
+            if (jdbcTemplate.update(TERMINATE_SQL, Date.valueOf(LocalDate.now()), version, id) == 0) {
+                throw terminateFailure(id);
+            }
 
+            Project project = cacheSync.find(Project.class, id);
+            eventPublisher.publishEvent(new DataChangedEvent(DataTable.PROJECTS, ChangeType.TERMINATED, List.of(project), version));
+        });
+    }
+
+    // Only read once the index or the guarded update has rejected the termination, to report why
+    private RuntimeException terminateFailure(Integer id) {
+        Project project = projectRepository.findById(id).orElse(null);
+        if (project == null) {
+            return new ProjectNotFoundException(id);
+        }
         if (project.getTerminationDate() != null) {
-            throw new ProjectAlreadyTerminatedException(id);
+            return new ProjectAlreadyTerminatedException(id);
         }
+        return new ProjectAssignedException(id, project.getDescription());
+    }
 
-        if (assignmentService.hasAssignedEmployees(id)) {
-            throw new ProjectAssignedException(id, project.getDescription());
+    // Projects written after the given version, terminated ones included; without since, only the current version
+    @Transactional(readOnly = true)
+    public ChangeSetDTO<Project, Integer> getChangesSince(Long since, int limit) {
+        long current = changeVersions.current(DataTable.PROJECTS, since == null ? 0 : since);
+        if (since == null) {
+            return new ChangeSetDTO<>(current, List.of(), List.of(), false);
         }
 
-        project.setTerminationDate(LocalDate.now());
-        projectRepository.save(project);
+        ChangeWindow window = ChangeWindow.of(since, current, limit,
+                projectRepository.findChangeVersionsAfter(since, Limit.of(limit + 1)));
+        List<Project> changed = window.isEmpty()
+                ? List.of()
+                : projectRepository.findChangedBetween(since, window.getUpTo());
+        return new ChangeSetDTO<>(window.getUpTo(), changed, List.of(), window.hasMore());
     }
-
 }
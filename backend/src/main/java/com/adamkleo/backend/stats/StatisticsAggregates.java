@@ -0,0 +1,242 @@
+package com.adamkleo.backend.stats;
+
+import com.adamkleo.backend.dto.AssignmentStatsDTO;
+import com.adamkleo.backend.dto.EmployeeStatsDTO;
+import com.adamkleo.backend.dto.ProjectAssignmentCountDTO;
+import com.adamkleo.backend.dto.ProjectStatsDTO;
+import com.adamkleo.backend.entity.AssignmentId;
+import com.adamkleo.backend.entity.Employee;
+import com.adamkleo.backend.entity.Project;
+import com.adamkleo.backend.event.ChangeType;
+import com.adamkleo.backend.event.DataChangedEvent;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+/**
+ * Bucketed counters behind the /stats endpoints. Every change is applied in
+ * constant time and every read walks the buckets only, never the rows.
+ * Tenure and age are kept by year of hire and year of birth so they can be
+ * computed against the current year when read. Not thread safe, callers lock.
+ */
+class StatisticsAggregates {
+
+    private static final String UNKNOWN_LOCATION = "Desconocido";
+
+    // Employees, active and terminated, as in the notebooks
+    private long totalEmployees;
+    private final Map<Integer, Long> hiresByYear = new TreeMap<>();
+    private final Map<Integer, Long> departuresByYear = new TreeMap<>();
+    private final Map<Integer, Long> activeByStartYear = new TreeMap<>();
+    private final Map<Integer, Long> terminatedByTenure = new TreeMap<>();
+    private final Map<Integer, Long> birthYears = new TreeMap<>();
+    private final Map<String, Long> civilStatus = new TreeMap<>();
+
+    // Projects
+    private long totalProjects;
+    private long terminatedProjects;
+    private long finishedProjects;
+    private final Map<String, Long> projectsByLocation = new TreeMap<>();
+    private final Map<Integer, Long> finishedByDurationMonths = new TreeMap<>();
+
+    // Assignments: number of projects of each active employee and its histogram
+    private final Map<Integer, Integer> assignmentsByActiveEmployee = new HashMap<>();
+    private final Map<Integer, Long> activeEmployeesByAssignmentCount = new TreeMap<>();
+    private final Map<Integer, ProjectCounter> employeesByProject = new HashMap<>();
+    private long projectsWithoutAssignments;
+
+    void apply(DataChangedEvent event) {
+        for (Object row : event.getRows()) {
+            switch (event.getTable()) {
+                case EMPLOYEES -> {
+                    if (event.getType() == ChangeType.CREATED) {
+                        addEmployee((Employee) row);
+                    } else if (event.getType() == ChangeType.TERMINATED) {
+                        terminateEmployee((Employee) row);
+                    }
+                }
+                case PROJECTS -> {
+                    if (event.getType() == ChangeType.CREATED) {
+                        addProject((Project) row);
+                    } else if (event.getType() == ChangeType.TERMINATED) {
+                        terminatedProjects++;
+                    }
+                }
+                case ASSIGNMENTS -> {
+                    AssignmentId id = (AssignmentId) row;
+                    changeAssignments(id.getProjectId(), id.getEmployeeId(), event.getType() == ChangeType.DELETED ? -1 : 1);
+                }
+            }
+        }
+    }
+
+    void addEmployee(Employee employee) {
+        totalEmployees++;
+        increment(hiresByYear, year(employee.getStartDate()), 1);
+        increment(birthYears, year(employee.getBirthDate()), 1);
+        increment(civilStatus, employee.getCivilStatus() == null ? null : employee.getCivilStatus().toString(), 1);
+
+        if (employee.getEndDate() == null) {
+            increment(activeByStartYear, year(employee.getStartDate()), 1);
+            assignmentsByActiveEmployee.put(employee.getId(), 0);
+            increment(activeEmployeesByAssignmentCount, 0, 1);
+        } else {
+            increment(departuresByYear, year(employee.getEndDate()), 1);
+            increment(terminatedByTenure, tenure(employee.getStartDate(), employee.getEndDate()), 1);
+        }
+    }
+
+    void terminateEmployee(Employee employee) {
+        increment(departuresByYear, year(employee.getEndDate()), 1);
+        increment(activeByStartYear, year(employee.getStartDate()), -1);
+        increment(terminatedByTenure, tenure(employee.getStartDate(), employee.getEndDate()), 1);
+
+        Integer assignments = assignmentsByActiveEmployee.remove(employee.getId());
+        if (assignments != null) {
+            increment(activeEmployeesByAssignmentCount, assignments, -1);
+        }
+    }
+
+    void addProject(Project project) {
+        totalProjects++;
+        increment(projectsByLocation, project.getLocation() == null ? UNKNOWN_LOCATION : project.getLocation(), 1);
+        if (project.getTerminationDate() != null) {
+            terminatedProjects++;
+        }
+        if (project.getEndDate() != null && project.getStartDate() != null) {
+            finishedProjects++;
+            int months = (int) ChronoUnit.MONTHS.between(project.getStartDate(), project.getEndDate());
+            increment(finishedByDurationMonths, months, 1);
+        }
+        employeesByProject.put(project.getId(), new ProjectCounter(project.getDescription()));
+        projectsWithoutAssignments++;
+    }
+
+    void changeAssignments(Integer projectId, Integer employeeId, int delta) {
+        Integer assignments = assignmentsByActiveEmployee.get(employeeId);
+        if (assignments != null) {
+            increment(activeEmployeesByAssignmentCount, assignments, -1);
+            increment(activeEmployeesByAssignmentCount, assignments + delta, 1);
+            assignmentsByActiveEmployee.put(employeeId, assignments + delta);
+        }
+
+        ProjectCounter counter = employeesByProject.get(projectId);
+        if (counter != null) {
+            if (counter.employees == 0) {
+                projectsWithoutAssignments--;
+            }
+            counter.employees += delta;
+            if (counter.employees == 0) {
+                projectsWithoutAssignments++;
+            }
+        }
+    }
+
+    EmployeeStatsDTO employeeStats(int currentYear) {
+        EmployeeStatsDTO stats = new EmployeeStatsDTO();
+        stats.setTotal(totalEmployees);
+        stats.setActive(assignmentsByActiveEmployee.size());
+        stats.setHiresByYear(new TreeMap<>(hiresByYear));
+        stats.setDeparturesByYear(new TreeMap<>(departuresByYear));
+
+        Map<Integer, Long> netGrowth = new TreeMap<>(hiresByYear);
+        departuresByYear.forEach((year, count) -> increment(netGrowth, year, -count));
+        stats.setNetGrowthByYear(netGrowth);
+
+        Map<Integer, Long> tenure = new TreeMap<>(terminatedByTenure);
+        activeByStartYear.forEach((year, count) -> increment(tenure, currentYear - year, count));
+        stats.setTenureYears(tenure);
+
+        Map<Integer, Long> ages = new TreeMap<>();
+        long people = 0;
+        double sum = 0;
+        double sumOfSquares = 0;
+        for (Map.Entry<Integer, Long> entry : birthYears.entrySet()) {
+            int age = currentYear - entry.getKey();
+            long count = entry.getValue();
+            ages.put(age, count);
+            people += count;
+            sum += (double) age * count;
+            sumOfSquares += (double) age * age * count;
+        }
+        stats.setAgeYears(ages);
+        if (people > 0) {
+            double mean = sum / people;
+            stats.setAgeMean(mean);
+            // Sample standard deviation, like pandas
+            stats.setAgeStdDev(people > 1 ? Math.sqrt((sumOfSquares - people * mean * mean) / (people - 1)) : 0);
+        }
+
+        stats.setCivilStatus(new TreeMap<>(civilStatus));
+        return stats;
+    }
+
+    ProjectStatsDTO projectStats() {
+        ProjectStatsDTO stats = new ProjectStatsDTO();
+        stats.setTotal(totalProjects);
+        stats.setActive(totalProjects - terminatedProjects);
+        stats.setTerminated(terminatedProjects);
+        stats.setFinished(finishedProjects);
+        stats.setByLocation(new TreeMap<>(projectsByLocation));
+        stats.setDurationMonths(new TreeMap<>(finishedByDurationMonths));
+        return stats;
+    }
+
+    AssignmentStatsDTO assignmentStats(int top) {
+        // Bounded heap over the per-project counters, the only read that is linear in projects
+        PriorityQueue<Map.Entry<Integer, ProjectCounter>> heap =
+                new PriorityQueue<>(Comparator.comparingInt(entry -> entry.getValue().employees));
+        for (Map.Entry<Integer, ProjectCounter> entry : employeesByProject.entrySet()) {
+            if (entry.getValue().employees == 0) {
+                continue;
+            }
+            heap.offer(entry);
+            if (heap.size() > top) {
+                heap.poll();
+            }
+        }
+        List<ProjectAssignmentCountDTO> topProjects = new ArrayList<>();
+        while (!heap.isEmpty()) {
+            Map.Entry<Integer, ProjectCounter> entry = heap.poll();
+            topProjects.add(0, new ProjectAssignmentCountDTO(entry.getKey(), entry.getValue().description, entry.getValue().employees));
+        }
+
+        return new AssignmentStatsDTO(new TreeMap<>(activeEmployeesByAssignmentCount), topProjects, projectsWithoutAssignments);
+    }
+
+    private static Integer year(LocalDate date) {
+        return date == null ? null : date.getYear();
+    }
+
+    private static Integer tenure(LocalDate start, LocalDate end) {
+        return start == null || end == null ? null : end.getYear() - start.getYear();
+    }
+
+    private static <K> void increment(Map<K, Long> buckets, K key, long delta) {
+        if (key == null) {
+            return;
+        }
+        long value = buckets.getOrDefault(key, 0L) + delta;
+        if (value == 0) {
+            buckets.remove(key);
+        } else {
+            buckets.put(key, value);
+        }
+    }
+
+    private static final class ProjectCounter {
+        private final String description;
+        private int employees;
+
+        private ProjectCounter(String description) {
+            this.description = description;
+        }
+    }
+}
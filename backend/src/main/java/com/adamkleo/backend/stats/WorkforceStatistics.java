@@ -0,0 +1,229 @@
+package com.adamkleo.backend.stats;
+
+import com.adamkleo.backend.cache.JdbcCacheSync;
+import com.adamkleo.backend.datasource.ReadRouting;
+import com.adamkleo.backend.dto.AssignmentStatsDTO;
+import com.adamkleo.backend.dto.EmployeeStatsDTO;
+import com.adamkleo.backend.dto.ProjectStatsDTO;
+import com.adamkleo.backend.entity.Employee;
+import com.adamkleo.backend.entity.Project;
+import com.adamkleo.backend.event.DataChangedEvent;
+import com.adamkleo.backend.event.DataTable;
+import com.adamkleo.backend.repository.EmployeeRepository;
+import com.adamkleo.backend.repository.ProjectAssignmentRepository;
+import com.adamkleo.backend.repository.ProjectRepository;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Workforce statistics maintained incrementally from {@link DataChangedEvent}s.
+ * The aggregates are loaded from the database once at startup and rebuilt by a
+ * scheduled job to correct any drift. Events that arrive while a rebuild is
+ * reading the tables are replayed on the new aggregates before they replace the old ones,
+ * unless the rows read already include them. Writes to a table take versions in commit
+ * order (see {@code ChangeVersions}), so a scan that read version n as its highest has
+ * seen every write up to n and none after; events of version n or below are skipped.
+ * Reads wait for the first load instead of answering with empty aggregates.
+ *
+ * <p>State is guarded by a {@link ReentrantLock} rather than {@code synchronized} so
+ * that virtual threads waiting on it do not pin their carrier; the database is never
+ * read while the lock is held.
+ */
+@Component
+public class WorkforceStatistics {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkforceStatistics.class);
+
+    private static final int TOP_PROJECTS = 5;
+
+    private final EmployeeRepository employeeRepository;
+    private final ProjectRepository projectRepository;
+    private final ProjectAssignmentRepository assignmentRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition rebuildEnded = lock.newCondition();
+
+    private StatisticsAggregates aggregates = new StatisticsAggregates();
+    private List<DataChangedEvent> pendingDuringRebuild;
+    private volatile boolean loaded;
+
+    public WorkforceStatistics(EmployeeRepository employeeRepository,
+                               ProjectRepository projectRepository,
+                               ProjectAssignmentRepository assignmentRepository,
+                               EntityManager entityManager,
+                               PlatformTransactionManager transactionManager) {
+        this.employeeRepository = employeeRepository;
+        this.projectRepository = projectRepository;
+        this.assignmentRepository = assignmentRepository;
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        try {
+            rebuild();
+        } catch (DataAccessException e) {
+            // The database may not exist yet on first start, the first read will retry
+            log.warn("Could not load workforce statistics on startup: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(cron = "${app.stats.rebuild-cron:0 0 3 * * *}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDataChanged(DataChangedEvent event) {
+        lock.lock();
+        try {
+            if (pendingDuringRebuild != null) {
+                pendingDuringRebuild.add(event);
+            }
+            aggregates.apply(event);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public EmployeeStatsDTO getEmployeeStats() {
+        return read(() -> aggregates.employeeStats(LocalDate.now().getYear()));
+    }
+
+    public ProjectStatsDTO getProjectStats() {
+        return read(() -> aggregates.projectStats());
+    }
+
+    public AssignmentStatsDTO getAssignmentStats() {
+        return read(() -> aggregates.assignmentStats(TOP_PROJECTS));
+    }
+
+    public void rebuild() {
+        lock.lock();
+        try {
+            if (pendingDuringRebuild != null) {
+                return;
+            }
+            pendingDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.unlock();
+        }
+
+        StatisticsAggregates fresh;
+        Map<DataTable, Long> loadedVersions = new EnumMap<>(DataTable.class);
+        try {
+            // Read from the primary, a replica could be missing rows whose events were already applied
+            fresh = ReadRouting.onPrimary(() -> readOnlyTransaction.execute(status -> load(loadedVersions)));
+        } catch (RuntimeException e) {
+            lock.lock();
+            try {
+                pendingDuringRebuild = null;
+                rebuildEnded.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            throw e;
+        }
+
+        lock.lock();
+        try {
+            for (DataChangedEvent event : pendingDuringRebuild) {
+                // Committed before its table was read, so already counted by the load
+                if (event.getVersion() == 0 || event.getVersion() > loadedVersions.get(event.getTable())) {
+                    fresh.apply(event);
+                }
+            }
+            aggregates = fresh;
+            pendingDuringRebuild = null;
+            loaded = true;
+            rebuildEnded.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private <T> T read(Supplier<T> stats) {
+        ensureLoaded();
+        lock.lock();
+        try {
+            return stats.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Joins a load already running rather than reading the empty aggregates, and starts one otherwise
+    private void ensureLoaded() {
+        while (!loaded) {
+            boolean running;
+            lock.lock();
+            try {
+                running = pendingDuringRebuild != null;
+                if (running) {
+                    rebuildEnded.awaitUninterruptibly();
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (!running) {
+                rebuild();
+            }
+        }
+    }
+
+    // Each table is read by one statement, so the highest version it returns tells which writes it saw
+    private StatisticsAggregates load(Map<DataTable, Long> versions) {
+        for (DataTable table : DataTable.values()) {
+            versions.put(table, 0L);
+        }
+        StatisticsAggregates fresh = new StatisticsAggregates();
+        JdbcCacheSync.bypassForTransaction(entityManager);
+        try (Stream<Employee> employees = employeeRepository.streamAll()) {
+            employees.forEach(employee -> {
+                fresh.addEmployee(employee);
+                versions.merge(DataTable.EMPLOYEES, employee.getChangeVersion(), Math::max);
+                entityManager.detach(employee);
+            });
+        }
+        try (Stream<Project> projects = projectRepository.streamAll()) {
+            projects.forEach(project -> {
+                fresh.addProject(project);
+                versions.merge(DataTable.PROJECTS, project.getChangeVersion(), Math::max);
+                entityManager.detach(project);
+            });
+        }
+        // Deletions leave no row, their versions come from the tombstones in the same statement
+        try (Stream<Object[]> rows = assignmentRepository.streamAllWithVersions()) {
+            rows.forEach(row -> {
+                if (row[0] != null) {
+                    fresh.changeAssignments(((Number) row[0]).intValue(), ((Number) row[1]).intValue(), 1);
+                }
+                versions.merge(DataTable.ASSIGNMENTS, ((Number) row[2]).longValue(), Math::max);
+            });
+        }
+        return fresh;
+    }
+}
@@ -0,0 +1,111 @@
+package com.adamkleo.backend.sync;
+
+import com.adamkleo.backend.event.DataTable;
+import com.adamkleo.backend.exception.ChangesExpiredException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-table change versions for delta sync, kept in SY_VERSIONES. A write takes the
+ * next version of its table with {@link #next} and stamps it on every row it touches.
+ *
+ * <p>Taking a version updates the table's counter row, which stays locked until the
+ * write commits. Writes to the same table are therefore serialized from that point on,
+ * and versions become visible in order: once a reader sees version n, every version
+ * below n has committed, so a client that synced up to n cannot miss a row committed
+ * later with a lower version. Take the version as late in the transaction as possible:
+ * right before the statements that write it, after every check and every other write,
+ * or, for writes of many rows, with {@link #stamp} once the rows are in.
+ */
+@Component
+public class ChangeVersions {
+
+    private static final String NEXT_SQL =
+            "UPDATE PRACTICA.SY_VERSIONES SET N_VERSION = N_VERSION + 1 WHERE TX_TABLA = ?";
+    private static final String CURRENT_SQL =
+            "SELECT N_VERSION, N_VERSION_PURGADA FROM PRACTICA.SY_VERSIONES WHERE TX_TABLA = ?";
+    private static final String COMMITTED_SQL =
+            "SELECT TX_TABLA, N_VERSION FROM PRACTICA.SY_VERSIONES";
+    private static final String PURGED_SQL =
+            "UPDATE PRACTICA.SY_VERSIONES SET N_VERSION_PURGADA = ? WHERE TX_TABLA = ? AND N_VERSION_PURGADA < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ChangeVersions(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long next(DataTable table) {
+        jdbcTemplate.update(NEXT_SQL, table.name());
+        return jdbcTemplate.queryForObject("SELECT N_VERSION FROM PRACTICA.SY_VERSIONES WHERE TX_TABLA = ?",
+                Long.class, table.name());
+    }
+
+    /**
+     * Takes the next version of the table and writes it on rows this transaction has
+     * already written, as one JDBC batch of {@code stampSql} with the version and the key
+     * as parameters.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long stamp(DataTable table, String stampSql, List<Integer> keys) {
+        long version = next(table);
+        jdbcTemplate.batchUpdate(stampSql, keys, keys.size(), (ps, key) -> {
+            ps.setLong(1, version);
+            ps.setInt(2, key);
+        });
+        return version;
+    }
+
+    /**
+     * The last committed version of the table. Fails with {@link ChangesExpiredException}
+     * when deletions after {@code since} have already been purged, since the client
+     * would then keep rows that no longer exist.
+     */
+    public long current(DataTable table, long since) {
+        return jdbcTemplate.queryForObject(CURRENT_SQL, (rs, rowNum) -> {
+            long purged = rs.getLong("N_VERSION_PURGADA");
+            if (since < purged) {
+                throw new ChangesExpiredException(since, purged);
+            }
+            return rs.getLong("N_VERSION");
+        }, table.name());
+    }
+
+    // The last committed version of every table, in one statement
+    public Map<DataTable, Long> committed() {
+        return jdbcTemplate.execute((ConnectionCallback<Map<DataTable, Long>>) ChangeVersions::committed);
+    }
+
+    /**
+     * The versions the database behind the connection has committed. On a replica they
+     * tell how far it has applied the primary's writes, since SY_VERSIONES is replicated
+     * in the same transactions as the rows.
+     */
+    public static Map<DataTable, Long> committed(Connection connection) throws SQLException {
+        Map<DataTable, Long> versions = new EnumMap<>(DataTable.class);
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(COMMITTED_SQL)) {
+            while (rs.next()) {
+                versions.put(DataTable.valueOf(rs.getString("TX_TABLA")), rs.getLong("N_VERSION"));
+            }
+        }
+        return versions;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void purgedUpTo(DataTable table, long version) {
+        jdbcTemplate.update(PURGED_SQL, version, table.name(), version);
+    }
+}
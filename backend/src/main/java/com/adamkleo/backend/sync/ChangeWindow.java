@@ -0,0 +1,63 @@
+package com.adamkleo.backend.sync;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The versions one delta sync response covers: everything after {@code since} up to
+ * and including {@link #getUpTo()}. The window ends between two versions, so the rows
+ * of one write are never split across responses, even when they are more than the limit.
+ */
+public final class ChangeWindow {
+
+    public static final int MAX_LIMIT = 5000;
+
+    private final long since;
+    private final long upTo;
+    private final boolean hasMore;
+
+    private ChangeWindow(long since, long upTo, boolean hasMore) {
+        this.since = since;
+        this.upTo = upTo;
+        this.hasMore = hasMore;
+    }
+
+    /**
+     * @param current the table's last committed version, read before the versions
+     * @param versions for each source of rows (live rows, tombstones), the first
+     *                 {@code limit + 1} versions after {@code since}, in order
+     */
+    @SafeVarargs
+    public static ChangeWindow of(long since, long current, int limit, List<Long>... versions) {
+        List<Long> all = new ArrayList<>();
+        for (List<Long> source : versions) {
+            all.addAll(source);
+        }
+        all.sort(null);
+
+        if (all.size() <= limit) {
+            long last = all.isEmpty() ? since : all.get(all.size() - 1);
+            return new ChangeWindow(since, Math.max(since, Math.max(current, last)), false);
+        }
+        long firstLeftOut = all.get(limit);
+        // A single write with more rows than the limit is sent whole
+        long upTo = firstLeftOut - 1 > since ? firstLeftOut - 1 : firstLeftOut;
+        return new ChangeWindow(since, upTo, true);
+    }
+
+    public boolean isEmpty() {
+        return upTo == since;
+    }
+
+    public long getSince() {
+        return since;
+    }
+
+    public long getUpTo() {
+        return upTo;
+    }
+
+    public boolean hasMore() {
+        return hasMore;
+    }
+}
@@ -1,3 +1,6 @@
+-- The schema that used to be applied by hand from schema.sql. Databases created that way
+-- are baselined at this version (spring.flyway.baseline-on-migrate) and start at V2.
+
 CREATE TABLE PRACTICA.EM_EMPLEADOS
   (
    ID_EMPLEADO INT(7) NOT NULL AUTO_INCREMENT PRIMARY KEY,
@@ -0,0 +1,35 @@
+-- Change versions for the delta sync endpoints (/employees/changes, /projects/changes, /assignments/changes).
+-- Every write takes the next number of its table from SY_VERSIONES and stamps it on the rows it touches.
+-- Rows that existed before this migration keep version 0 and are only sent by a full reload.
+
+ALTER TABLE PRACTICA.EM_EMPLEADOS ADD COLUMN N_VERSION BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE PRACTICA.PR_PROYECTOS ADD COLUMN N_VERSION BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE PRACTICA.PR_EMPLEADOS_PROYECTO ADD COLUMN N_VERSION BIGINT NOT NULL DEFAULT 0;
+
+CREATE INDEX IX_EM_EMPLEADOS_N_VERSION ON PRACTICA.EM_EMPLEADOS (N_VERSION);
+CREATE INDEX IX_PR_PROYECTOS_N_VERSION ON PRACTICA.PR_PROYECTOS (N_VERSION);
+CREATE INDEX IX_PR_EMPLEADOS_PROYECTO_N_VERSION ON PRACTICA.PR_EMPLEADOS_PROYECTO (N_VERSION);
+
+-- Assignments are deleted, so the deletions are kept here until they are older than the retention
+CREATE TABLE PRACTICA.PR_EMPLEADOS_PROYECTO_BORRADOS
+(
+   ID_PROYECTO 				INT(5) NOT NULL,
+   ID_EMPLEADO 				INT(7) NOT NULL,
+   N_VERSION				BIGINT NOT NULL,
+   F_BORRADO				DATETIME NOT NULL,
+   CONSTRAINT PK_PR_EMPLEADOS_PROYECTO_BORRADOS PRIMARY KEY (ID_PROYECTO, ID_EMPLEADO)
+);
+
+CREATE INDEX IX_PR_EMPLEADOS_PROYECTO_BORRADOS_N_VERSION ON PRACTICA.PR_EMPLEADOS_PROYECTO_BORRADOS (N_VERSION);
+
+-- Last version taken per table, and the newest version whose deletions have been purged
+CREATE TABLE PRACTICA.SY_VERSIONES
+(
+   TX_TABLA					VARCHAR(30) NOT NULL PRIMARY KEY,
+   N_VERSION				BIGINT NOT NULL,
+   N_VERSION_PURGADA		BIGINT NOT NULL
+);
+
+INSERT INTO PRACTICA.SY_VERSIONES (TX_TABLA, N_VERSION, N_VERSION_PURGADA) VALUES ('EMPLOYEES', 0, 0);
+INSERT INTO PRACTICA.SY_VERSIONES (TX_TABLA, N_VERSION, N_VERSION_PURGADA) VALUES ('PROJECTS', 0, 0);
+INSERT INTO PRACTICA.SY_VERSIONES (TX_TABLA, N_VERSION, N_VERSION_PURGADA) VALUES ('ASSIGNMENTS', 0, 0);
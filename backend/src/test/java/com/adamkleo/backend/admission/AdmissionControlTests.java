@@ -0,0 +1,89 @@
+package com.adamkleo.backend.admission;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// One bulk request at a time and one waiting briefly behind it
+@SpringBootTest(properties = {
+        "app.admission.bulk.initial-limit=1",
+        "app.admission.bulk.max-limit=1",
+        "app.admission.bulk.queue-size=1",
+        "app.admission.bulk.queue-timeout=200ms",
+        "app.admission.bulk.retry-after=30s"
+})
+@AutoConfigureMockMvc
+class AdmissionControlTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AdmissionControl admissionControl;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void saturatedBulkLaneAnswers503WhileInteractiveCallsPass() throws Exception {
+        LaneLimiter bulk = admissionControl.lane(Lane.BULK);
+        double rejectedBefore = meterRegistry.counter("admission.rejections", "lane", "bulk", "reason", "queue-timeout").count();
+
+        // An import in progress holds the only bulk slot
+        LaneLimiter.Permit running = bulk.acquire();
+        assertNotNull(running);
+        try {
+            mockMvc.perform(post("/employees/bulk").contentType(MediaType.APPLICATION_JSON).content("[]"))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string(HttpHeaders.RETRY_AFTER, "30"));
+            mockMvc.perform(get("/projects"))
+                    .andExpect(status().isOk());
+        } finally {
+            running.release(200);
+        }
+
+        assertEquals(rejectedBefore + 1,
+                meterRegistry.counter("admission.rejections", "lane", "bulk", "reason", "queue-timeout").count());
+        assertEquals(0, bulk.getInFlight());
+        mockMvc.perform(post("/employees/bulk").contentType(MediaType.APPLICATION_JSON).content("[]"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void limitGrowsWhileBusyAndBacksOffOnFailures() {
+        LaneLimiter limiter = new LaneLimiter(Lane.EXPORT, 2, 1, 4, 0, Duration.ZERO,
+                Duration.ofHours(1), 0.5, Duration.ofSeconds(1), new SimpleMeterRegistry());
+
+        LaneLimiter.Permit first = limiter.acquire();
+        LaneLimiter.Permit second = limiter.acquire();
+        assertNotNull(first);
+        assertNotNull(second);
+        // No queue, so the third is turned away at once
+        assertNull(limiter.acquire());
+
+        first.release(200);
+        assertEquals(3, limiter.getLimit());
+        second.release(200);
+        assertEquals(3, limiter.getLimit());
+
+        limiter.acquire().release(500);
+        assertEquals(1, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+}
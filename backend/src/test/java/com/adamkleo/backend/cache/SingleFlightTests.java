@@ -0,0 +1,116 @@
+package com.adamkleo.backend.cache;
+
+import com.adamkleo.backend.event.ChangeType;
+import com.adamkleo.backend.event.DataChangedEvent;
+import com.adamkleo.backend.event.DataTable;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SingleFlightTests {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SingleFlight singleFlight = new SingleFlight(meterRegistry, true);
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+
+    @Test
+    void concurrentCallersShareOneLoad() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        Supplier<List<String>> loader = () -> {
+            loads.incrementAndGet();
+            await(release);
+            return List.of("row");
+        };
+
+        List<Future<List<String>>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(callers.submit(() -> singleFlight.run("employees", loader, DataTable.EMPLOYEES)));
+        }
+        awaitCalls("joined", 7);
+        release.countDown();
+
+        List<String> first = results.get(0).get(5, TimeUnit.SECONDS);
+        for (Future<List<String>> result : results) {
+            assertSame(first, result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+
+        // Nothing is kept once the load is over
+        assertNotSame(first, singleFlight.run("employees", () -> List.of("row"), DataTable.EMPLOYEES));
+    }
+
+    @Test
+    void committedWriteDropsTheFlightForLaterCallers() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> before = callers.submit(() -> singleFlight.run("employees", () -> {
+            await(release);
+            return "before the write";
+        }, DataTable.EMPLOYEES));
+        awaitCalls("leader", 1);
+
+        // A write to another table leaves it alone
+        singleFlight.onDataChanged(new DataChangedEvent(DataTable.PROJECTS, ChangeType.CREATED, List.of()));
+        Future<String> joined = callers.submit(() -> singleFlight.run("employees", () -> "not run", DataTable.EMPLOYEES));
+        awaitCalls("joined", 1);
+
+        singleFlight.onDataChanged(new DataChangedEvent(DataTable.EMPLOYEES, ChangeType.CREATED, List.of()));
+        assertEquals("after the write", singleFlight.run("employees", () -> "after the write", DataTable.EMPLOYEES));
+
+        release.countDown();
+        assertEquals("before the write", before.get(5, TimeUnit.SECONDS));
+        assertEquals("before the write", joined.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void failureReachesEveryCallerOfTheFlight() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Supplier<String> loader = () -> {
+            await(release);
+            throw new IllegalStateException("database down");
+        };
+        Future<String> leader = callers.submit(() -> singleFlight.run("employees", loader, DataTable.EMPLOYEES));
+        awaitCalls("leader", 1);
+        Future<String> follower = callers.submit(() -> singleFlight.run("employees", loader, DataTable.EMPLOYEES));
+        awaitCalls("joined", 1);
+        release.countDown();
+
+        for (Future<String> result : List.of(leader, follower)) {
+            Exception e = assertThrows(Exception.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    private void awaitCalls(String result, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.counter("single.flight.calls", "name", "employees", "result", result).count() < count) {
+            assertTrue(System.nanoTime() < deadline, "Expected " + count + " " + result + " calls");
+            Thread.sleep(5);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
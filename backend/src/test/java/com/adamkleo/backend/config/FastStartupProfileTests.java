@@ -0,0 +1,38 @@
+package com.adamkleo.backend.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("fast-startup")
+class FastStartupProfileTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ConfigurableApplicationContext context;
+
+    @Test
+    void startsLazilyWithBackgroundJpaBootstrap() throws Exception {
+        assertTrue(context.getBeanFactory().getBeanDefinition("exportService").isLazyInit());
+        assertNotNull(context.getBean("&entityManagerFactory", LocalContainerEntityManagerFactoryBean.class).getBootstrapExecutor());
+        assertNotNull(context.getBean(StartupTimelineReport.class));
+
+        mockMvc.perform(get("/employees")).andExpect(status().isOk());
+        mockMvc.perform(get("/employees/search").param("q", "nombre")).andExpect(status().isOk());
+        mockMvc.perform(get("/stats/employees")).andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,21 @@
+package com.adamkleo.backend.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.orm.jpa.persistenceunit.PersistenceManagedTypesScanner;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PersistenceUnitTests {
+
+    // A new entity must be added to DatabaseConfig.managedTypes(), Hibernate would not see it otherwise
+    @Test
+    void managedTypesListEveryEntityOfThePackage() {
+        Set<String> scanned = Set.copyOf(new PersistenceManagedTypesScanner(new DefaultResourceLoader())
+                .scan("com.adamkleo.backend.entity").getManagedClassNames());
+
+        assertEquals(scanned, Set.copyOf(DatabaseConfig.managedTypes().getManagedClassNames()));
+    }
+}
@@ -0,0 +1,175 @@
+package com.adamkleo.backend.config;
+
+import com.adamkleo.backend.entity.Employee;
+import com.adamkleo.backend.entity.Project;
+import com.adamkleo.backend.index.EmployeeSearchIndex;
+import com.adamkleo.backend.repository.EmployeeRepository;
+import com.adamkleo.backend.repository.ProjectAssignmentRepository;
+import com.adamkleo.backend.repository.ProjectRepository;
+import com.adamkleo.backend.service.EmployeeImportService;
+import com.adamkleo.backend.service.EmployeeService;
+import com.adamkleo.backend.service.ExportFormat;
+import com.adamkleo.backend.service.ExportService;
+import com.adamkleo.backend.service.ProjectService;
+import com.adamkleo.backend.stats.WorkforceStatistics;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SpringBootTest
+class SecondLevelCacheTests {
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private ProjectAssignmentRepository assignmentRepository;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private ProjectService projectService;
+
+    @Autowired
+    private EmployeeImportService employeeImportService;
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private WorkforceStatistics workforceStatistics;
+
+    @Autowired
+    private EmployeeSearchIndex searchIndex;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        assignmentRepository.deleteAll();
+        employeeRepository.deleteAll();
+        projectRepository.deleteAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void findByIdIsServedFromCacheAndSeesTermination() {
+        Project project = projectService.addProject(new Project("Proyecto de prueba", LocalDate.of(2024, 1, 1), null, "Madrid", null));
+
+        // Rows inserted with IDENTITY ids are cached by their first load, not by the insert
+        projectRepository.findById(project.getId()).orElseThrow();
+        statistics.clear();
+        projectRepository.findById(project.getId()).orElseThrow();
+        assertEquals(0, statistics.getPrepareStatementCount());
+
+        projectService.terminateProject(project.getId());
+        statistics.clear();
+        assertNotNull(projectRepository.findById(project.getId()).orElseThrow().getTerminationDate());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void activeEmployeesQueryIsInvalidatedBySaveTerminateAndImport() throws Exception {
+        Employee first = employeeService.addEmployee(employee("uno@example.com"));
+        assertEquals(1, employeeService.getActiveEmployees().size());
+
+        statistics.clear();
+        assertEquals(1, employeeService.getActiveEmployees().size());
+        assertEquals(0, statistics.getPrepareStatementCount());
+
+        employeeService.addEmployee(employee("dos@example.com"));
+        assertEquals(2, employeeService.getActiveEmployees().size());
+
+        employeeService.terminateEmployee(first.getId());
+        List<Employee> active = employeeService.getActiveEmployees();
+        assertEquals(1, active.size());
+        assertEquals("dos@example.com", active.get(0).getEmail());
+
+        // Inserted with plain JDBC, outside Hibernate's own invalidation
+        String body = "[{\"firstName\":\"Importado\",\"lastName1\":\"Apellido\",\"lastName2\":\"Segundo\","
+                + "\"birthDate\":\"1990-05-20\",\"civilStatus\":\"S\",\"email\":\"tres@example.com\","
+                + "\"phone1\":\"600000000\",\"phone2\":\"910000000\",\"startDate\":\"2024-01-01\",\"universityEducation\":\"N\"}]";
+        employeeImportService.importEmployees(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+        assertEquals(2, employeeService.getActiveEmployees().size());
+    }
+
+    @Test
+    void readerDuringTerminationCannotLeaveTheOldRowCached() {
+        Employee employee = employeeService.addEmployee(employee("uno@example.com"));
+        Integer id = employee.getId();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            employeeService.terminateEmployee(id);
+            // Another request misses the cache while the termination is not committed yet, reads
+            // the committed row and caches it, as the active list query does
+            CompletableFuture.runAsync(() -> {
+                entityManagerFactory.getCache().evict(Employee.class, id);
+                assertNull(employeeRepository.findById(id).orElseThrow().getEndDate());
+                assertEquals(1, employeeService.getActiveEmployees().size());
+            }).join();
+        });
+
+        statistics.clear();
+        assertNotNull(employeeRepository.findById(id).orElseThrow().getEndDate());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(0, employeeService.getActiveEmployees().size());
+    }
+
+    @Test
+    void fullTableStreamsDoNotFillTheEntityRegions() throws Exception {
+        List<Employee> employees = employeeService.addEmployees(List.of(
+                employee("uno@example.com"), employee("dos@example.com"), employee("tres@example.com")));
+        Project project = projectService.addProject(new Project("Proyecto de prueba", LocalDate.of(2024, 1, 1), null, "Madrid", null));
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+
+        exportService.exportEmployees(ExportFormat.NDJSON, OutputStream.nullOutputStream());
+        exportService.exportProjects(ExportFormat.NDJSON, OutputStream.nullOutputStream());
+        workforceStatistics.rebuild();
+        searchIndex.rebuild();
+        // Not loaded yet, so it searches the table
+        assertEquals(3, new EmployeeSearchIndex(employeeRepository, entityManager, transactionManager).search("nombre", 10).size());
+
+        assertEquals(0, statistics.getDomainDataRegionStatistics(CacheRegions.EMPLOYEES).getPutCount());
+        assertEquals(0, statistics.getDomainDataRegionStatistics(CacheRegions.PROJECTS).getPutCount());
+        assertEquals(0, employees.stream().filter(e -> entityManagerFactory.getCache().contains(Employee.class, e.getId())).count());
+        assertFalse(entityManagerFactory.getCache().contains(Project.class, project.getId()));
+    }
+
+    private static Employee employee(String email) {
+        return new Employee(null, LocalDate.of(1990, 5, 20), 'S', email, null,
+                "Nombre", "Apellido", "Segundo", "600000000", "910000000", LocalDate.of(2024, 1, 1), 'N');
+    }
+}
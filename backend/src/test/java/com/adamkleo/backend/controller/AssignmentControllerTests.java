@@ -0,0 +1,90 @@
+package com.adamkleo.backend.controller;
+
+import com.adamkleo.backend.entity.Employee;
+import com.adamkleo.backend.entity.Project;
+import com.adamkleo.backend.repository.EmployeeRepository;
+import com.adamkleo.backend.repository.ProjectAssignmentRepository;
+import com.adamkleo.backend.repository.ProjectRepository;
+import com.adamkleo.backend.service.AssignmentService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+
+import static com.adamkleo.backend.metrics.SqlStatementAssertions.assertStatementsIndependentOfRows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class AssignmentControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private ProjectAssignmentRepository assignmentRepository;
+
+    @Autowired
+    private AssignmentService assignmentService;
+
+    private Project project;
+
+    @BeforeEach
+    void setUp() {
+        assignmentRepository.deleteAll();
+        employeeRepository.deleteAll();
+        projectRepository.deleteAll();
+        project = projectRepository.save(new Project("Proyecto de prueba", LocalDate.of(2024, 1, 1), null, "Madrid", null));
+    }
+
+    @Test
+    void listEndpointsUseConstantNumberOfStatements() throws Exception {
+        assign(2);
+        assertStatementsIndependentOfRows(mockMvc, () -> assign(20),
+                get("/assignments"),
+                get("/assignments/active"),
+                get("/assignments/project/" + project.getId()),
+                get("/assignments/flat"),
+                get("/assignments/active/flat"),
+                get("/assignments/project/" + project.getId() + "/flat"));
+    }
+
+    @Test
+    void assignAndUnassignReportWhyTheGuardedStatementMatchedNothing() throws Exception {
+        Employee employee = employeeRepository.save(new Employee(
+                null, LocalDate.of(1990, 5, 20), 'S', "empleado@example.com", null,
+                "Nombre", "Apellido", "Segundo", "600000000", "910000000", LocalDate.of(2024, 1, 1), 'N'));
+        String assign = "/assignments/" + project.getId() + "/assign/" + employee.getId();
+        String unassign = "/assignments/" + project.getId() + "/unassign/" + employee.getId();
+
+        mockMvc.perform(post(assign)).andExpect(status().isOk());
+        mockMvc.perform(post(assign)).andExpect(status().isConflict());
+        mockMvc.perform(post("/assignments/-1/assign/" + employee.getId())).andExpect(status().isNotFound());
+        mockMvc.perform(post("/assignments/" + project.getId() + "/assign/-1")).andExpect(status().isNotFound());
+
+        mockMvc.perform(delete(unassign)).andExpect(status().isOk());
+        mockMvc.perform(delete(unassign)).andExpect(status().isNotFound());
+    }
+
+    private void assign(int count) {
+        for (int i = 0; i < count; i++) {
+            Employee employee = employeeRepository.save(new Employee(
+                    null, LocalDate.of(1990, 5, 20), 'S', "empleado" + i + "@example.com", null,
+                    "Nombre", "Apellido", "Segundo", "600000000", "910000000", LocalDate.of(2024, 1, 1), 'N'));
+            assignmentService.assignEmployeeToProject(project.getId(), employee.getId());
+        }
+    }
+}
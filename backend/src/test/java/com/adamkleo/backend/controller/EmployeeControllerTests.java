@@ -0,0 +1,134 @@
+package com.adamkleo.backend.controller;
+
+import com.adamkleo.backend.entity.Employee;
+import com.adamkleo.backend.entity.Project;
+import com.adamkleo.backend.repository.EmployeeRepository;
+import com.adamkleo.backend.repository.ProjectAssignmentRepository;
+import com.adamkleo.backend.repository.ProjectRepository;
+import com.adamkleo.backend.service.AssignmentService;
+import com.adamkleo.backend.service.EmployeeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+
+import static com.adamkleo.backend.metrics.SqlStatementAssertions.assertStatementsIndependentOfRows;
+import static com.adamkleo.backend.metrics.SqlStatementAssertions.statementsAtMost;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class EmployeeControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private ProjectAssignmentRepository assignmentRepository;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private AssignmentService assignmentService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private int created;
+
+    @BeforeEach
+    void setUp() {
+        assignmentRepository.deleteAll();
+        employeeRepository.deleteAll();
+    }
+
+    @Test
+    void listEndpointsUseConstantNumberOfStatements() throws Exception {
+        addEmployees(2);
+        assertStatementsIndependentOfRows(mockMvc, () -> addEmployees(20),
+                get("/employees"),
+                get("/employees/basic"),
+                get("/employees/paginated").param("size", "50"),
+                get("/employees/cursor").param("size", "50").param("includeTotal", "true"),
+                get("/employees/search").param("q", "nombre").param("limit", "50"));
+    }
+
+    @Test
+    void snapshotETagFollowsWritesMadeThroughOtherInstances() throws Exception {
+        addEmployees(1);
+        MockHttpServletResponse ok = mockMvc.perform(get("/employees"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        String etag = ok.getHeader(HttpHeaders.ETAG);
+        // A cache keeps the headers of a 304, so they must be those of the 200
+        mockMvc.perform(get("/employees").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, ok.getHeader(HttpHeaders.CACHE_CONTROL)))
+                .andExpect(header().stringValues(HttpHeaders.VARY, ok.getHeaders(HttpHeaders.VARY).toArray(String[]::new)));
+
+        // Another instance's write only reaches this one through the shared version table
+        jdbcTemplate.update("UPDATE PRACTICA.SY_VERSIONES SET N_VERSION = N_VERSION + 1 WHERE TX_TABLA = 'EMPLOYEES'");
+        String newEtag = mockMvc.perform(get("/employees").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(etag, newEtag);
+    }
+
+    @Test
+    void terminateReportsStatementCountHeader() throws Exception {
+        Employee employee = addEmployees(1);
+        // Change version (update and read), the guarded update, the row for the event and its reload into the cache
+        mockMvc.perform(put("/employees/" + employee.getId() + "/terminate"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("X-SQL-Statements"))
+                .andExpect(statementsAtMost(5));
+    }
+
+    @Test
+    void terminateReportsWhyTheGuardedUpdateMatchedNothing() throws Exception {
+        Employee assigned = addEmployees(1);
+        Project project = projectRepository.save(new Project("Proyecto de prueba", LocalDate.of(2024, 1, 1), null, "Madrid", null));
+        assignmentService.assignEmployeeToProject(project.getId(), assigned.getId());
+        mockMvc.perform(put("/employees/" + assigned.getId() + "/terminate"))
+                .andExpect(status().isNotFound());
+
+        Employee free = addEmployees(1);
+        mockMvc.perform(put("/employees/" + free.getId() + "/terminate"))
+                .andExpect(status().isOk());
+        mockMvc.perform(put("/employees/" + free.getId() + "/terminate"))
+                .andExpect(status().isConflict());
+        mockMvc.perform(put("/employees/-1/terminate"))
+                .andExpect(status().isNotFound());
+    }
+
+    private Employee addEmployees(int count) {
+        Employee employee = null;
+        for (int i = 0; i < count; i++) {
+            created++;
+            // Through the service so the snapshot cache and the search index see the new rows
+            employee = employeeService.addEmployee(new Employee(
+                    null, LocalDate.of(1990, 5, 20), 'S', "empleado" + created + "@example.com", null,
+                    "Nombre", "Apellido", "Segundo", "600000000", "910000000", LocalDate.of(2024, 1, 1), 'N'));
+        }
+        return employee;
+    }
+}
@@ -0,0 +1,101 @@
+package com.adamkleo.backend.controller;
+
+import com.adamkleo.backend.entity.Employee;
+import com.adamkleo.backend.entity.Project;
+import com.adamkleo.backend.repository.EmployeeRepository;
+import com.adamkleo.backend.repository.ProjectAssignmentRepository;
+import com.adamkleo.backend.repository.ProjectRepository;
+import com.adamkleo.backend.service.AssignmentService;
+import com.adamkleo.backend.service.EmployeeService;
+import com.adamkleo.backend.service.ProjectService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ProjectControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private ProjectAssignmentRepository assignmentRepository;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private ProjectService projectService;
+
+    @Autowired
+    private AssignmentService assignmentService;
+
+    @BeforeEach
+    void setUp() {
+        assignmentRepository.deleteAll();
+        employeeRepository.deleteAll();
+        projectRepository.deleteAll();
+    }
+
+    @Test
+    void paginatedSizeIsCappedAtTheMaxPageSize() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            addProject("Proyecto " + i);
+        }
+        mockMvc.perform(get("/projects/paginated").param("size", "1000000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size").value(100))
+                .andExpect(jsonPath("$.content.length()").value(3));
+        mockMvc.perform(get("/projects/paginated").param("size", "2"))
+                .andExpect(jsonPath("$.size").value(2))
+                .andExpect(jsonPath("$.totalPages").value(2));
+    }
+
+    @Test
+    void terminateReportsWhyTheGuardedUpdateMatchedNothing() throws Exception {
+        Project assigned = addProject("Proyecto asignado");
+        Employee employee = employeeService.addEmployee(new Employee(
+                null, LocalDate.of(1990, 5, 20), 'S', "empleado@example.com", null,
+                "Nombre", "Apellido", "Segundo", "600000000", "910000000", LocalDate.of(2024, 1, 1), 'N'));
+        assignmentService.assignEmployeeToProject(assigned.getId(), employee.getId());
+        mockMvc.perform(put("/projects/" + assigned.getId() + "/terminate"))
+                .andExpect(status().isConflict())
+                .andExpect(content().string(containsString("tiene empleados asignados")));
+
+        Project free = addProject("Proyecto libre");
+        mockMvc.perform(put("/projects/" + free.getId() + "/terminate"))
+                .andExpect(status().isOk());
+        assertNotNull(projectRepository.findById(free.getId()).orElseThrow().getTerminationDate());
+        mockMvc.perform(put("/projects/" + free.getId() + "/terminate"))
+                .andExpect(status().isConflict())
+                .andExpect(content().string(containsString("ya está dado de baja")));
+
+        mockMvc.perform(put("/projects/-1/terminate"))
+                .andExpect(status().isNotFound());
+    }
+
+    private Project addProject(String description) {
+        // Through the service so the project gets a change version
+        return projectService.addProject(new Project(description, LocalDate.of(2024, 1, 1), null, "Madrid", null));
+    }
+}
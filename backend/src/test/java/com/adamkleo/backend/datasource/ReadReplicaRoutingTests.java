@@ -0,0 +1,270 @@
+package com.adamkleo.backend.datasource;
+
+import com.adamkleo.backend.entity.Employee;
+import com.adamkleo.backend.repository.EmployeeRepository;
+import com.adamkleo.backend.repository.ProjectAssignmentRepository;
+import com.adamkleo.backend.service.EmployeeService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.servlet.http.Cookie;
+import org.hibernate.SessionFactory;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.options;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Two in-memory databases stand in for the primary and a replica. Nothing replicates
+ * between them, so which one a read went to shows in the rows it returns.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ReadReplicaRoutingTests {
+
+    private static final String REPLICA_URL =
+            "jdbc:h2:mem:REPLICA;MODE=MySQL;DB_CLOSE_DELAY=-1;INIT=CREATE SCHEMA IF NOT EXISTS PRACTICA\\;SET SCHEMA PRACTICA";
+
+    // Far above the ids the primary hands out in the tests
+    private static final int REPLICA_ONLY_ID = 1_000_000;
+
+    private static final String FRONTEND_ORIGIN = "http://localhost:3000";
+
+    private static final String EMPLOYEES_VERSION_SQL = "SELECT N_VERSION FROM SY_VERSIONES WHERE TX_TABLA = 'EMPLOYEES'";
+
+    private static final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    @DynamicPropertySource
+    static void replicaProperties(DynamicPropertyRegistry registry) {
+        registry.add("app.datasource.replica-urls", () -> REPLICA_URL);
+    }
+
+    @BeforeAll
+    static void migrateReplica() {
+        Flyway.configure()
+                .dataSource(REPLICA_URL, "sa", "")
+                .locations("classpath:db/migration", "classpath:com/adamkleo/backend/migration")
+                .load()
+                .migrate();
+    }
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private ProjectAssignmentRepository assignmentRepository;
+
+    @Autowired
+    private ReadYourWritesWindow readYourWrites;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Value("${spring.datasource.url}")
+    private String primaryUrl;
+
+    @BeforeEach
+    void setUp() {
+        assignmentRepository.deleteAll();
+        employeeRepository.deleteAll();
+        replica.update("DELETE FROM EM_EMPLEADOS");
+        replica.update("UPDATE SY_VERSIONES SET N_VERSION = 0");
+        readYourWrites.setWindow(Duration.ZERO);
+    }
+
+    @Test
+    void readOnlyTransactionsReadTheReplica() {
+        insertOnReplica(REPLICA_ONLY_ID);
+
+        assertEquals(List.of(REPLICA_ONLY_ID), activeEmployeeIds());
+        assertEquals(List.of(), ReadRouting.onPrimary(this::activeEmployeeIds));
+    }
+
+    @Test
+    void writesAndTheirChecksGoToThePrimary() {
+        Employee saved = employeeService.addEmployee(employee("escrito@example.com"));
+
+        assertEquals(1, count(new JdbcTemplate(dataSource), saved.getId()));
+        assertEquals(0, count(replica, saved.getId()));
+        // The replica has not caught up, a read-only read does not see the new row yet
+        assertEquals(List.of(), activeEmployeeIds());
+
+        // The existence check reads the primary, where the employee is
+        employeeService.terminateEmployee(saved.getId());
+    }
+
+    @Test
+    void readYourWritesWindowKeepsTheWritingClientOnThePrimary() throws Exception {
+        readYourWrites.setWindow(Duration.ofMinutes(1));
+
+        // The browser only sends a credentialed cross-origin write after a preflight that allows it
+        mockMvc.perform(options("/employees")
+                        .header(HttpHeaders.ORIGIN, FRONTEND_ORIGIN)
+                        .header(HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD, "POST"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN, FRONTEND_ORIGIN))
+                .andExpect(header().string(HttpHeaders.ACCESS_CONTROL_ALLOW_CREDENTIALS, "true"));
+
+        MvcResult write = mockMvc.perform(post("/employees")
+                        .header(HttpHeaders.ORIGIN, FRONTEND_ORIGIN)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(employee("reciente@example.com"))))
+                .andExpect(status().isOk())
+                // Without it the browser drops the response, cookie included
+                .andExpect(header().string(HttpHeaders.ACCESS_CONTROL_ALLOW_CREDENTIALS, "true"))
+                .andReturn();
+        int id = objectMapper.readTree(write.getResponse().getContentAsString()).path("id").intValue();
+        Cookie window = write.getResponse().getCookie(ReadYourWritesWindow.COOKIE);
+        assertNotNull(window);
+
+        assertEquals(List.of(id), cursorPageIds(get("/employees/cursor").header(HttpHeaders.ORIGIN, FRONTEND_ORIGIN).cookie(window)));
+        // Other clients still read the replica, which has not caught up
+        assertEquals(List.of(), cursorPageIds(get("/employees/cursor").header(HttpHeaders.ORIGIN, FRONTEND_ORIGIN)));
+        assertEquals(List.of(), activeEmployeeIds());
+    }
+
+    @Test
+    void snapshotMissReadsAReplicaOnlyOnceItHasTheVersions() throws Exception {
+        insertOnReplica(REPLICA_ONLY_ID);
+        long version = primary().queryForObject(EMPLOYEES_VERSION_SQL, Long.class);
+        replica.update("UPDATE SY_VERSIONES SET N_VERSION = ? WHERE TX_TABLA = 'EMPLOYEES'", version);
+
+        assertEquals(List.of(REPLICA_ONLY_ID), snapshotIds());
+
+        // The primary moves on, the snapshot is loaded again and the replica is now behind
+        primary().update("UPDATE SY_VERSIONES SET N_VERSION = N_VERSION + 1 WHERE TX_TABLA = 'EMPLOYEES'");
+        assertEquals(List.of(), snapshotIds());
+    }
+
+    @Test
+    void replicaPoolsArePublishedInTheMetrics() {
+        activeEmployeeIds();
+
+        assertNotNull(meterRegistry.find("hikaricp.connections").tag("pool", "practica-replica-1").gauge());
+        assertNotNull(meterRegistry.find("hikaricp.connections").tag("pool", "practica-pool").gauge());
+    }
+
+    @Test
+    void unavailableReplicaIsSkippedAndPrimaryIsTheLastResort() throws Exception {
+        insertOnReplica(REPLICA_ONLY_ID);
+
+        try (ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(pool(primaryUrl),
+                List.of(pool("jdbc:h2:mem:MISSING;IFEXISTS=TRUE"), pool(REPLICA_URL)),
+                ReplicaSelection.ROUND_ROBIN, Duration.ofMinutes(1), new ReadYourWritesWindow(Duration.ZERO))) {
+            for (int i = 0; i < 3; i++) {
+                assertEquals(1, readOnlyCount(routing, REPLICA_ONLY_ID));
+            }
+        }
+
+        try (ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(pool(primaryUrl),
+                List.of(pool("jdbc:h2:mem:MISSING;IFEXISTS=TRUE")),
+                ReplicaSelection.LEAST_LOADED, Duration.ofMinutes(1), new ReadYourWritesWindow(Duration.ZERO))) {
+            assertEquals(0, readOnlyCount(routing, REPLICA_ONLY_ID));
+        }
+    }
+
+    private List<Integer> cursorPageIds(MockHttpServletRequestBuilder request) throws Exception {
+        String body = mockMvc.perform(request).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        List<Integer> ids = new ArrayList<>();
+        objectMapper.readTree(body).path("content").forEach(employee -> ids.add(employee.path("id").intValue()));
+        return ids;
+    }
+
+    // Past the query cache, so the load reaches whichever database it was routed to
+    private List<Integer> snapshotIds() throws Exception {
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+        String body = mockMvc.perform(get("/employees")).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        List<Integer> ids = new ArrayList<>();
+        objectMapper.readTree(body).forEach(employee -> ids.add(employee.path("id").intValue()));
+        return ids;
+    }
+
+    private JdbcTemplate primary() {
+        return new JdbcTemplate(dataSource);
+    }
+
+    private List<Integer> activeEmployeeIds() {
+        return employeeService.getActiveEmployees(null, 10, false).getContent().stream()
+                .map(Employee::getId)
+                .toList();
+    }
+
+    private static int readOnlyCount(DataSource dataSource, int id) {
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transaction.setReadOnly(true);
+        return transaction.execute(status -> count(new JdbcTemplate(dataSource), id));
+    }
+
+    private static int count(JdbcTemplate jdbc, int id) {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM EM_EMPLEADOS WHERE ID_EMPLEADO = ?", Integer.class, id);
+    }
+
+    private static HikariDataSource pool(String url) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setJdbcUrl(url);
+        pool.setUsername("sa");
+        pool.setPassword("");
+        pool.setMinimumIdle(1);
+        pool.setMaximumPoolSize(2);
+        pool.setConnectionTimeout(250);
+        return pool;
+    }
+
+    private static void insertOnReplica(int id) {
+        replica.update("INSERT INTO EM_EMPLEADOS (ID_EMPLEADO, TX_NIF, TX_NOMBRE, TX_APELLIDO1, TX_APELLIDO2, F_NACIMIENTO, "
+                        + "N_TELEFONO1, N_TELEFONO2, TX_EMAIL, F_ALTA, CX_EDOCIVIL, B_FORMACIONU) "
+                        + "VALUES (?, NULL, 'Replica', 'Apellido', 'Segundo', DATE '1990-05-20', "
+                        + "'600000000', '910000000', 'replica@example.com', DATE '2024-01-01', 'S', 'N')",
+                id);
+    }
+
+    private static Employee employee(String email) {
+        return new Employee(null, LocalDate.of(1990, 5, 20), 'S', email, null,
+                "Nombre", "Apellido", "Segundo", "600000000", "910000000", LocalDate.of(2024, 1, 1), 'N');
+    }
+}
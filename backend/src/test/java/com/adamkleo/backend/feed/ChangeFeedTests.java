@@ -0,0 +1,250 @@
+package com.adamkleo.backend.feed;
+
+import com.adamkleo.backend.entity.Employee;
+import com.adamkleo.backend.entity.Project;
+import com.adamkleo.backend.event.ChangeType;
+import com.adamkleo.backend.event.DataChangedEvent;
+import com.adamkleo.backend.event.DataTable;
+import com.adamkleo.backend.repository.EmployeeRepository;
+import com.adamkleo.backend.repository.ProjectAssignmentRepository;
+import com.adamkleo.backend.repository.ProjectRepository;
+import com.adamkleo.backend.service.AssignmentService;
+import com.adamkleo.backend.service.EmployeeService;
+import com.adamkleo.backend.service.ProjectService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"app.change-feed.buffer-size=4", "app.change-feed.send-timeout=1s"})
+class ChangeFeedTests {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ChangeFeed changeFeed;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private ProjectService projectService;
+
+    @Autowired
+    private AssignmentService assignmentService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private ProjectAssignmentRepository assignmentRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        assignmentRepository.deleteAll();
+        employeeRepository.deleteAll();
+        projectRepository.deleteAll();
+    }
+
+    @Test
+    void committedChangesArePushedWithTheirNewState() throws Exception {
+        BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+        HttpResponse<Stream<String>> response = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/changes/stream")).build(),
+                HttpResponse.BodyHandlers.ofLines());
+        Thread reader = new Thread(() -> {
+            try {
+                response.body().forEach(lines::add);
+            } catch (UncheckedIOException e) {
+                // Closed at the end of the test
+            }
+        });
+        reader.setDaemon(true);
+        reader.start();
+        try {
+            assertTrue(response.headers().firstValue("Content-Type").orElseThrow().startsWith("text/event-stream"));
+            long subscribedAt = nextEvent(lines, ChangeFeed.SUBSCRIBED).get("sequence").asLong();
+
+            Employee employee = employeeService.addEmployee(employee("feed@example.com"));
+            Project project = projectService.addProject(new Project("Proyecto en directo", LocalDate.of(2024, 1, 1), null, "Málaga", null));
+            assignmentService.assignEmployeeToProject(project.getId(), employee.getId());
+            assignmentService.unassignEmployeeFromProject(project.getId(), employee.getId());
+            employeeService.terminateEmployee(employee.getId());
+
+            JsonNode created = nextEvent(lines, "employees");
+            assertEquals(subscribedAt + 1, created.get("sequence").asLong());
+            assertEquals("CREATED", created.get("operation").asText());
+            assertEquals(employee.getId(), created.at("/changes/0/id").asInt());
+            assertEquals("feed@example.com", created.at("/changes/0/state/email").asText());
+
+            assertEquals("Málaga", nextEvent(lines, "projects").at("/changes/0/state/location").asText());
+
+            JsonNode assigned = nextEvent(lines, "assignments");
+            assertEquals("CREATED", assigned.get("operation").asText());
+            assertEquals(project.getId(), assigned.at("/changes/0/id/projectId").asInt());
+            assertEquals(employee.getId(), assigned.at("/changes/0/id/employeeId").asInt());
+
+            JsonNode unassigned = nextEvent(lines, "assignments");
+            assertEquals("DELETED", unassigned.get("operation").asText());
+            assertTrue(unassigned.at("/changes/0/state").isNull());
+
+            JsonNode terminated = nextEvent(lines, "employees");
+            assertEquals("TERMINATED", terminated.get("operation").asText());
+            assertEquals(subscribedAt + 5, terminated.get("sequence").asLong());
+            assertNotNull(terminated.at("/changes/0/state/endDate").textValue());
+        } finally {
+            response.body().close();
+        }
+    }
+
+    @Test
+    void subscriberThatStopsReadingIsEvicted() throws Exception {
+        double evictedBefore = evictions();
+        int subscribersBefore = changeFeed.getSubscriberCount();
+
+        try (Socket socket = new Socket("localhost", port)) {
+            socket.setReceiveBufferSize(4096);
+            OutputStream out = socket.getOutputStream();
+            out.write(("GET /changes/stream HTTP/1.1\r\nHost: localhost\r\nAccept: text/event-stream\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            awaitSubscribers(subscribersBefore + 1);
+
+            // Large events fill the socket buffers, then the writer blocks and the 4 message buffer overflows
+            List<Employee> chunk = new ArrayList<>();
+            for (int i = 0; i < 500; i++) {
+                chunk.add(employee("lento" + i + "@example.com"));
+            }
+            DataChangedEvent event = new DataChangedEvent(DataTable.EMPLOYEES, ChangeType.CREATED, chunk);
+            for (int i = 0; i < 1000 && evictions() == evictedBefore; i++) {
+                changeFeed.onDataChanged(event);
+            }
+
+            assertEquals(evictedBefore + 1, evictions());
+        }
+    }
+
+    @Test
+    void subscribersThatStopReadingDoNotHoldUpTheOthers() throws Exception {
+        double evictedBefore = evictions();
+        int subscribersBefore = changeFeed.getSubscriberCount();
+
+        // One stalled client for each of the two writers
+        try (Socket first = stalledSubscriber(); Socket second = stalledSubscriber()) {
+            awaitSubscribers(subscribersBefore + 2);
+            List<Employee> chunk = new ArrayList<>();
+            for (int i = 0; i < 500; i++) {
+                chunk.add(employee("atascado" + i + "@example.com"));
+            }
+            DataChangedEvent event = new DataChangedEvent(DataTable.EMPLOYEES, ChangeType.CREATED, chunk);
+            for (int i = 0; i < 1000 && evictions() < evictedBefore + 2; i++) {
+                changeFeed.onDataChanged(event);
+            }
+            assertEquals(evictedBefore + 2, evictions());
+
+            BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+            HttpResponse<Stream<String>> response = HttpClient.newHttpClient().send(
+                    HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/changes/stream")).build(),
+                    HttpResponse.BodyHandlers.ofLines());
+            Thread reader = new Thread(() -> {
+                try {
+                    response.body().forEach(lines::add);
+                } catch (UncheckedIOException e) {
+                    // Closed at the end of the test
+                }
+            });
+            reader.setDaemon(true);
+            reader.start();
+            try {
+                nextEvent(lines, ChangeFeed.SUBSCRIBED);
+                Employee employee = employeeService.addEmployee(employee("sigue@example.com"));
+                assertEquals(employee.getId(), nextEvent(lines, "employees").at("/changes/0/id").asInt());
+            } finally {
+                response.body().close();
+            }
+        }
+    }
+
+    private Socket stalledSubscriber() throws IOException {
+        Socket socket = new Socket();
+        socket.setReceiveBufferSize(4096);
+        socket.connect(new InetSocketAddress("localhost", port));
+        OutputStream out = socket.getOutputStream();
+        out.write(("GET /changes/stream HTTP/1.1\r\nHost: localhost\r\nAccept: text/event-stream\r\n\r\n")
+                .getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+        return socket;
+    }
+
+    private double evictions() {
+        return meterRegistry.counter("change.feed.evictions").count();
+    }
+
+    private JsonNode nextEvent(BlockingQueue<String> lines, String name) throws Exception {
+        boolean named = false;
+        while (true) {
+            String line = lines.poll(10, TimeUnit.SECONDS);
+            if (line == null) {
+                fail("No " + name + " event received");
+            }
+            if (line.equals("event:" + name)) {
+                named = true;
+            } else if (named && line.startsWith("data:")) {
+                return objectMapper.readTree(line.substring("data:".length()));
+            }
+        }
+    }
+
+    private void awaitSubscribers(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (changeFeed.getSubscriberCount() != count) {
+            if (System.nanoTime() > deadline) {
+                fail("Expected " + count + " subscribers, there are " + changeFeed.getSubscriberCount());
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private static Employee employee(String email) {
+        return new Employee(null, LocalDate.of(1990, 5, 20), 'S', email, null,
+                "Nombre", "Apellido", "Segundo", "600000000", "910000000", LocalDate.of(2024, 1, 1), 'N');
+    }
+}
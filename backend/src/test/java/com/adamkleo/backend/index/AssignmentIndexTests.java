@@ -0,0 +1,95 @@
+package com.adamkleo.backend.index;
+
+import com.adamkleo.backend.entity.Employee;
+import com.adamkleo.backend.entity.Project;
+import com.adamkleo.backend.repository.EmployeeRepository;
+import com.adamkleo.backend.repository.ProjectAssignmentRepository;
+import com.adamkleo.backend.repository.ProjectRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+
+import static com.adamkleo.backend.metrics.SqlStatementAssertions.statementsOf;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class AssignmentIndexTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AssignmentIndex assignmentIndex;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private ProjectAssignmentRepository assignmentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Project project;
+    private Employee employee;
+
+    @BeforeEach
+    void setUp() {
+        assignmentRepository.deleteAll();
+        employeeRepository.deleteAll();
+        projectRepository.deleteAll();
+        // The deletes above publish no events
+        assignmentIndex.rebuild();
+        project = projectRepository.save(new Project("Proyecto de prueba", LocalDate.of(2024, 1, 1), null, "Madrid", null));
+        employee = employeeRepository.save(new Employee(
+                null, LocalDate.of(1990, 5, 20), 'S', "empleado@example.com", null,
+                "Nombre", "Apellido", "Segundo", "600000000", "910000000", LocalDate.of(2024, 1, 1), 'N'));
+    }
+
+    @Test
+    void conflictsTheIndexKnowsOfAreRejectedWithoutStatements() throws Exception {
+        String assign = "/assignments/" + project.getId() + "/assign/" + employee.getId();
+        mockMvc.perform(post(assign)).andExpect(status().isOk());
+        assertTrue(assignmentIndex.isAssigned(project.getId(), employee.getId()));
+
+        assertEquals(0, statementsOf(mockMvc.perform(post(assign)).andExpect(status().isConflict()).andReturn()));
+        assertEquals(0, statementsOf(mockMvc.perform(put("/employees/" + employee.getId() + "/terminate"))
+                .andExpect(status().isNotFound()).andReturn()));
+
+        String unassign = "/assignments/" + project.getId() + "/unassign/" + employee.getId();
+        mockMvc.perform(delete(unassign)).andExpect(status().isOk());
+        assertFalse(assignmentIndex.employeeHasProjects(employee.getId()));
+        assertEquals(0, statementsOf(mockMvc.perform(delete(unassign)).andExpect(status().isNotFound()).andReturn()));
+    }
+
+    @Test
+    void guardedWriteStillRejectsWhatTheIndexMissed() throws Exception {
+        // Written past the services, as another instance would, so the index does not know of it
+        jdbcTemplate.update("INSERT INTO PR_EMPLEADOS_PROYECTO (ID_PROYECTO, ID_EMPLEADO, F_ALTA, N_VERSION) VALUES (?, ?, ?, 0)",
+                project.getId(), employee.getId(), LocalDate.of(2024, 1, 1));
+        assertFalse(assignmentIndex.employeeHasProjects(employee.getId()));
+
+        mockMvc.perform(put("/employees/" + employee.getId() + "/terminate")).andExpect(status().isNotFound());
+        mockMvc.perform(put("/projects/" + project.getId() + "/terminate")).andExpect(status().isConflict());
+        mockMvc.perform(post("/assignments/" + project.getId() + "/assign/" + employee.getId())).andExpect(status().isConflict());
+
+        assignmentIndex.rebuild();
+        assertTrue(assignmentIndex.isAssigned(project.getId(), employee.getId()));
+    }
+}
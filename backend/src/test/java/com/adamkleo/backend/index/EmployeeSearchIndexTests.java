@@ -0,0 +1,67 @@
+package com.adamkleo.backend.index;
+
+import com.adamkleo.backend.dto.EmployeeBasicDTO;
+import com.adamkleo.backend.entity.Employee;
+import com.adamkleo.backend.repository.EmployeeRepository;
+import com.adamkleo.backend.repository.ProjectAssignmentRepository;
+import com.adamkleo.backend.service.EmployeeService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+@SpringBootTest
+class EmployeeSearchIndexTests {
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private ProjectAssignmentRepository assignmentRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        assignmentRepository.deleteAll();
+        employeeRepository.deleteAll();
+    }
+
+    @Test
+    void searchReadsTheTableUntilTheIndexIsLoaded() {
+        Employee juan = employeeService.addEmployee(employee("Juan", "García", "juan@example.com"));
+        employeeService.addEmployee(employee("Juana", "Martín", "juana@example.com"));
+        Employee terminated = employeeService.addEmployee(employee("Juan", "Garcés", "otro@example.com"));
+        employeeService.terminateEmployee(terminated.getId());
+
+        EmployeeSearchIndex index = new EmployeeSearchIndex(employeeRepository, entityManager, transactionManager);
+        assertFalse(index.isReady());
+        List<EmployeeBasicDTO> fromTable = index.search("jua garc", 10);
+
+        index.rebuild();
+        List<EmployeeBasicDTO> fromIndex = index.search("jua garc", 10);
+
+        assertEquals(List.of(juan.getId()), fromTable.stream().map(EmployeeBasicDTO::getId).toList());
+        assertEquals(List.of(juan.getId()), fromIndex.stream().map(EmployeeBasicDTO::getId).toList());
+    }
+
+    private Employee employee(String firstName, String lastName, String email) {
+        return new Employee(null, LocalDate.of(1990, 5, 20), 'S', email, null,
+                firstName, lastName, "Segundo", "600000000", "910000000", LocalDate.of(2024, 1, 1), 'N');
+    }
+}
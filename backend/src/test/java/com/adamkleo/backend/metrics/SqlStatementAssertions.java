@@ -0,0 +1,56 @@
+package com.adamkleo.backend.metrics;
+
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * MockMvc assertions on the SQL statements counted by {@link RequestMetricsFilter}
+ * for one request.
+ */
+public final class SqlStatementAssertions {
+
+    private SqlStatementAssertions() {
+    }
+
+    public static int statementsOf(MvcResult result) {
+        RequestSqlCounters counters = RequestSqlCounters.of(result.getRequest());
+        assertNotNull(counters, "The request did not go through RequestMetricsFilter");
+        return counters.getStatements();
+    }
+
+    public static ResultMatcher statementsAtMost(int max) {
+        return result -> {
+            int statements = statementsOf(result);
+            assertTrue(statements <= max, "Expected at most " + max + " SQL statements but got " + statements);
+        };
+    }
+
+    /**
+     * Runs the requests, adds rows with {@code addRows} and runs them again, failing if
+     * any of them needed more statements the second time.
+     */
+    public static void assertStatementsIndependentOfRows(MockMvc mockMvc, Runnable addRows,
+                                                         RequestBuilder... requests) throws Exception {
+        int[] before = new int[requests.length];
+        for (int i = 0; i < requests.length; i++) {
+            before[i] = statementsFor(mockMvc, requests[i]);
+        }
+        addRows.run();
+        for (int i = 0; i < requests.length; i++) {
+            MvcResult result = mockMvc.perform(requests[i]).andExpect(status().is2xxSuccessful()).andReturn();
+            assertEquals(before[i], statementsOf(result),
+                    "Statement count grew with rows for " + result.getRequest().getRequestURI());
+        }
+    }
+
+    private static int statementsFor(MockMvc mockMvc, RequestBuilder request) throws Exception {
+        return statementsOf(mockMvc.perform(request).andExpect(status().is2xxSuccessful()).andReturn());
+    }
+}
@@ -0,0 +1,204 @@
+package com.adamkleo.backend.repository;
+
+import com.adamkleo.backend.entity.Employee;
+import com.adamkleo.backend.entity.Project;
+import com.adamkleo.backend.entity.ProjectAssignment;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs every repository query against the migrated H2 schema, then EXPLAINs the SQL
+ * Hibernate sent and fails if a table is read in full where an index should be used,
+ * or if the keyset page is sorted instead of read in index order.
+ * Queries that read a whole table by design may scan the table they start from, but
+ * not the tables they join.
+ */
+@SpringBootTest
+class QueryPlanTests {
+
+    private static final String TABLE_SCAN = ".tableScan";
+    private static final String INDEX_SORTED = "/* index sorted */";
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private ProjectAssignmentRepository assignmentRepository;
+
+    @Autowired
+    private DeletedAssignmentRepository deletedAssignmentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Employee employee;
+    private Project project;
+
+    @BeforeEach
+    void setUp() {
+        assignmentRepository.deleteAll();
+        employeeRepository.deleteAll();
+        projectRepository.deleteAll();
+
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            employees.add(new Employee(null, LocalDate.of(1990, 5, 20), 'S', "empleado" + i + "@example.com",
+                    i % 4 == 0 ? LocalDate.of(2024, 6, 1) : null,
+                    "Nombre", "Apellido", "Segundo", "600000000", "910000000", LocalDate.of(2024, 1, 1), 'N'));
+        }
+        employees = employeeRepository.saveAll(employees);
+        List<Project> projects = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            projects.add(new Project("Proyecto " + i, LocalDate.of(2024, 1, 1), null, "Madrid", null));
+        }
+        projects = projectRepository.saveAll(projects);
+        List<ProjectAssignment> assignments = new ArrayList<>();
+        for (int i = 0; i < employees.size(); i++) {
+            assignments.add(new ProjectAssignment(projects.get(i % projects.size()), employees.get(i), LocalDate.of(2024, 2, 1)));
+        }
+        assignmentRepository.saveAll(assignments);
+
+        employee = employees.get(1);
+        project = projects.get(1);
+    }
+
+    @Test
+    void employeeQueriesUseIndexes() {
+        assertIndexed("findById", () -> employeeRepository.findById(employee.getId()));
+        assertIndexed("findAllByEndDateIsNull", () -> employeeRepository.findAllByEndDateIsNull());
+        assertIndexed("findAllByEndDateIsNull(Pageable)", () -> employeeRepository.findAllByEndDateIsNull(PageRequest.of(1, 10)));
+        // Read in index order, a page costs the same at any depth
+        assertIndexSorted("findAllByEndDateIsNullAndIdGreaterThanOrderByEndDateAscIdAsc",
+                () -> employeeRepository.findAllByEndDateIsNullAndIdGreaterThanOrderByEndDateAscIdAsc(employee.getId(), Limit.of(10)));
+        assertIndexed("countByEndDateIsNull", () -> employeeRepository.countByEndDateIsNull());
+        assertIndexed("findExistingIds", () -> employeeRepository.findExistingIds(Set.of(employee.getId(), -1)));
+        assertIndexed("findChangeVersionsAfter", () -> employeeRepository.findChangeVersionsAfter(0, Limit.of(10)));
+        assertIndexed("findChangedBetween", () -> employeeRepository.findChangedBetween(0, 10));
+        assertWholeTableRead("streamAll", () -> inTransaction(employeeRepository::streamAll));
+    }
+
+    @Test
+    void projectQueriesUseIndexes() {
+        assertIndexed("findById", () -> projectRepository.findById(project.getId()));
+        assertIndexed("findAllByTerminationDateIsNull(Sort)",
+                () -> projectRepository.findAllByTerminationDateIsNull(Sort.by("id")));
+        assertIndexed("findAllByTerminationDateIsNull(Pageable)",
+                () -> projectRepository.findAllByTerminationDateIsNull(PageRequest.of(0, 5)));
+        assertIndexed("findChangeVersionsAfter", () -> projectRepository.findChangeVersionsAfter(0, Limit.of(10)));
+        assertIndexed("findChangedBetween", () -> projectRepository.findChangedBetween(0, 10));
+        assertWholeTableRead("streamAll", () -> inTransaction(projectRepository::streamAll));
+    }
+
+    @Test
+    void assignmentQueriesUseIndexes() {
+        assertIndexed("findByProjectId", () -> assignmentRepository.findByProjectId(project.getId()));
+        assertIndexed("findByEmployeeId", () -> assignmentRepository.findByEmployeeId(employee.getId()));
+        assertIndexed("findAssignmentsOfActiveProjects", () -> assignmentRepository.findAssignmentsOfActiveProjects());
+        assertIndexed("existsByProjectId", () -> assignmentRepository.existsByProjectId(project.getId()));
+        assertIndexed("existsByEmployeeId", () -> assignmentRepository.existsByEmployeeId(employee.getId()));
+        assertIndexed("findEmployeeIdsByProjectId", () -> assignmentRepository.findEmployeeIdsByProjectId(project.getId()));
+        assertIndexed("findFlatOfActiveProjects", () -> assignmentRepository.findFlatOfActiveProjects());
+        assertIndexed("findFlatByProjectId", () -> assignmentRepository.findFlatByProjectId(project.getId()));
+        assertIndexed("deleteByProjectIdAndEmployeeIdIn", () -> new TransactionTemplate(transactionManager)
+                .executeWithoutResult(status -> assignmentRepository.deleteByProjectIdAndEmployeeIdIn(project.getId(), Set.of(-1))));
+        assertIndexed("findChangeVersionsAfter", () -> assignmentRepository.findChangeVersionsAfter(0, Limit.of(10)));
+        assertIndexed("findChangedBetween", () -> assignmentRepository.findChangedBetween(0, 10));
+        assertWholeTableRead("findAll", () -> assignmentRepository.findAll());
+        assertWholeTableRead("findAllFlat", () -> assignmentRepository.findAllFlat());
+        assertWholeTableRead("streamAllFlat", () -> inTransaction(assignmentRepository::streamAllFlat));
+        assertWholeTableRead("streamAllWithVersions", () -> inTransaction(assignmentRepository::streamAllWithVersions));
+    }
+
+    @Test
+    void deletedAssignmentQueriesUseIndexes() {
+        assertIndexed("findChangeVersionsAfter", () -> deletedAssignmentRepository.findChangeVersionsAfter(0, Limit.of(10)));
+        assertIndexed("findIdsDeletedBetween", () -> deletedAssignmentRepository.findIdsDeletedBetween(0, 10));
+        assertIndexed("deleteByProjectIdAndEmployeeIdIn", () -> new TransactionTemplate(transactionManager)
+                .executeWithoutResult(status -> deletedAssignmentRepository.deleteByProjectIdAndEmployeeIdIn(project.getId(), Set.of(-1))));
+        assertIndexed("deleteUpToVersion", () -> new TransactionTemplate(transactionManager)
+                .executeWithoutResult(status -> deletedAssignmentRepository.deleteUpToVersion(0)));
+        // Daily purge of a table that only holds the retention's deletions
+        assertWholeTableRead("findLastVersionDeletedBefore",
+                () -> deletedAssignmentRepository.findLastVersionDeletedBefore(LocalDateTime.now()));
+    }
+
+    private void assertIndexed(String query, Runnable call) {
+        for (String plan : plansOf(query, call)) {
+            assertFalse(plan.contains(TABLE_SCAN), query + " reads a whole table:\n" + plan);
+        }
+    }
+
+    private void assertIndexSorted(String query, Runnable call) {
+        for (String plan : plansOf(query, call)) {
+            assertFalse(plan.contains(TABLE_SCAN), query + " reads a whole table:\n" + plan);
+            assertTrue(plan.contains(INDEX_SORTED), query + " sorts the rows it reads:\n" + plan);
+        }
+    }
+
+    private void assertWholeTableRead(String query, Runnable call) {
+        for (String plan : plansOf(query, call)) {
+            assertTrue(plan.indexOf(TABLE_SCAN) == plan.lastIndexOf(TABLE_SCAN), query + " scans a joined table:\n" + plan);
+        }
+    }
+
+    // EXPLAIN of every statement the call sent, taken from H2's query statistics
+    private List<String> plansOf(String query, Runnable call) {
+        // Otherwise cached entities and query results would never reach the database
+        entityManagerFactory.getCache().evictAll();
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+
+        jdbcTemplate.execute("SET QUERY_STATISTICS FALSE");
+        jdbcTemplate.execute("SET QUERY_STATISTICS TRUE");
+        call.run();
+        List<String> statements = jdbcTemplate.queryForList(
+                "SELECT SQL_STATEMENT FROM INFORMATION_SCHEMA.QUERY_STATISTICS", String.class);
+        jdbcTemplate.execute("SET QUERY_STATISTICS FALSE");
+
+        List<String> plans = new ArrayList<>();
+        for (String sql : statements) {
+            if (sql.contains("EM_EMPLEADOS") || sql.contains("PR_PROYECTOS") || sql.contains("PR_EMPLEADOS_PROYECTO")) {
+                plans.add(jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class));
+            }
+        }
+        assertFalse(plans.isEmpty(), query + " sent no statement");
+        return plans;
+    }
+
+    private <T> void inTransaction(Supplier<Stream<T>> stream) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            try (Stream<T> rows = stream.get()) {
+                rows.forEach(row -> { });
+            }
+        });
+    }
+}
@@ -0,0 +1,104 @@
+package com.adamkleo.backend.stats;
+
+import com.adamkleo.backend.entity.Employee;
+import com.adamkleo.backend.event.ChangeType;
+import com.adamkleo.backend.event.DataChangedEvent;
+import com.adamkleo.backend.event.DataTable;
+import com.adamkleo.backend.repository.EmployeeRepository;
+import com.adamkleo.backend.repository.ProjectAssignmentRepository;
+import com.adamkleo.backend.repository.ProjectRepository;
+import com.adamkleo.backend.service.EmployeeService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+class WorkforceStatisticsTests {
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private ProjectAssignmentRepository assignmentRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private int created;
+
+    @BeforeEach
+    void setUp() {
+        assignmentRepository.deleteAll();
+        employeeRepository.deleteAll();
+    }
+
+    @Test
+    void rebuildCountsEachWriteOnceWhicheverSideOfTheReadItCommitted() {
+        employeeService.addEmployee(employee());
+
+        // One write commits just before the employees are read and one just after, and
+        // both events only reach the statistics while the load is running
+        WorkforceStatistics[] statistics = new WorkforceStatistics[1];
+        InvocationHandler interleaving = (proxy, method, args) -> {
+            if (!method.getName().equals("streamAll")) {
+                return invoke(method, args);
+            }
+            DataChangedEvent before = addOnAnotherThread();
+            Object rows = invoke(method, args);
+            DataChangedEvent after = addOnAnotherThread();
+            statistics[0].onDataChanged(before);
+            statistics[0].onDataChanged(after);
+            return rows;
+        };
+        EmployeeRepository employees = (EmployeeRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{EmployeeRepository.class}, interleaving);
+        statistics[0] = new WorkforceStatistics(employees, projectRepository, assignmentRepository,
+                entityManager, transactionManager);
+
+        statistics[0].rebuild();
+
+        assertEquals(3, employeeRepository.count());
+        assertEquals(3, statistics[0].getEmployeeStats().getTotal());
+    }
+
+    private Object invoke(Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(employeeRepository, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private DataChangedEvent addOnAnotherThread() {
+        Employee saved = CompletableFuture.supplyAsync(() -> employeeService.addEmployee(employee())).join();
+        return new DataChangedEvent(DataTable.EMPLOYEES, ChangeType.CREATED, List.of(saved), saved.getChangeVersion());
+    }
+
+    private Employee employee() {
+        created++;
+        return new Employee(null, LocalDate.of(1990, 5, 20), 'S', "estadistica" + created + "@example.com", null,
+                "Nombre", "Apellido", "Segundo", "600000000", "910000000", LocalDate.of(2024, 1, 1), 'N');
+    }
+}
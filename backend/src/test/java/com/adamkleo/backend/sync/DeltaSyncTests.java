@@ -0,0 +1,206 @@
+package com.adamkleo.backend.sync;
+
+import com.adamkleo.backend.entity.Employee;
+import com.adamkleo.backend.entity.Project;
+import com.adamkleo.backend.repository.DeletedAssignmentRepository;
+import com.adamkleo.backend.repository.EmployeeRepository;
+import com.adamkleo.backend.repository.ProjectAssignmentRepository;
+import com.adamkleo.backend.repository.ProjectRepository;
+import com.adamkleo.backend.service.AssignmentService;
+import com.adamkleo.backend.service.EmployeeService;
+import com.adamkleo.backend.service.ProjectService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Retention 0, so a purge forgets every deletion made so far
+@SpringBootTest(properties = "app.delta-sync.tombstone-retention=0s")
+@AutoConfigureMockMvc
+class DeltaSyncTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private ProjectService projectService;
+
+    @Autowired
+    private AssignmentService assignmentService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private ProjectAssignmentRepository assignmentRepository;
+
+    @Autowired
+    private DeletedAssignmentRepository deletedAssignmentRepository;
+
+    private int created;
+
+    @BeforeEach
+    void setUp() {
+        assignmentRepository.deleteAll();
+        deletedAssignmentRepository.deleteAll();
+        employeeRepository.deleteAll();
+        projectRepository.deleteAll();
+    }
+
+    @Test
+    void clientBehindReceivesOnlyTheRowsWrittenSince() throws Exception {
+        List<Employee> bulk = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            bulk.add(employee());
+        }
+        employeeService.addEmployees(bulk);
+        long synced = changes("/employees/changes", null, 1000).get("version").asLong();
+
+        List<Employee> recent = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            recent.add(employeeService.addEmployee(employee()));
+        }
+
+        JsonNode changes = changes("/employees/changes", synced, 1000);
+        assertEquals(10, changes.get("changed").size());
+        assertEquals(recent.get(0).getId(), changes.get("changed").get(0).get("id").asInt());
+        assertFalse(changes.get("hasMore").asBoolean());
+        assertEquals(synced + 10, changes.get("version").asLong());
+
+        // Nothing new: an empty change set at the same version
+        JsonNode upToDate = changes("/employees/changes", synced + 10, 1000);
+        assertEquals(0, upToDate.get("changed").size());
+        assertEquals(synced + 10, upToDate.get("version").asLong());
+    }
+
+    @Test
+    void changesArePagedWithoutSplittingAWrite() throws Exception {
+        long start = changes("/employees/changes", null, 1000).get("version").asLong();
+        List<Employee> single = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            single.add(employeeService.addEmployee(employee()));
+        }
+        List<Employee> bulk = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            bulk.add(employee());
+        }
+        employeeService.addEmployees(bulk);
+        employeeService.terminateEmployee(single.get(0).getId());
+
+        // The 30 rows of the bulk insert do not fit after the 8 single inserts
+        JsonNode first = changes("/employees/changes", start, 10);
+        assertEquals(7, first.get("changed").size());
+        assertTrue(first.get("hasMore").asBoolean());
+
+        // and are sent whole on their own, past the limit
+        JsonNode second = changes("/employees/changes", first.get("version").asLong(), 10);
+        assertEquals(30, second.get("changed").size());
+        assertTrue(second.get("hasMore").asBoolean());
+
+        // The terminated employee comes last, once, with its end date
+        JsonNode third = changes("/employees/changes", second.get("version").asLong(), 10);
+        assertEquals(1, third.get("changed").size());
+        assertEquals(single.get(0).getId(), third.get("changed").get(0).get("id").asInt());
+        assertFalse(third.get("changed").get(0).get("endDate").isNull());
+        assertFalse(third.get("hasMore").asBoolean());
+    }
+
+    @Test
+    void assignmentDeletionsAreSentAsTombstones() throws Exception {
+        Project project = projectService.addProject(new Project("Proyecto", LocalDate.of(2024, 1, 1), null, "Madrid", null));
+        Employee kept = employeeService.addEmployee(employee());
+        Employee removed = employeeService.addEmployee(employee());
+        Employee reassigned = employeeService.addEmployee(employee());
+        long start = changes("/assignments/changes", null, 1000).get("version").asLong();
+
+        assignmentService.assignEmployeeToProject(project.getId(), kept.getId());
+        assignmentService.assignEmployeeToProject(project.getId(), removed.getId());
+        assignmentService.assignEmployeeToProject(project.getId(), reassigned.getId());
+        assignmentService.unassignEmployeeFromProject(project.getId(), removed.getId());
+        assignmentService.unassignEmployeeFromProject(project.getId(), reassigned.getId());
+        assignmentService.assignEmployeeToProject(project.getId(), reassigned.getId());
+
+        JsonNode changes = changes("/assignments/changes", start, 1000);
+        assertEquals(Set.of(kept.getId(), reassigned.getId()), employeeIds(changes.get("changed"), "employee", "id"));
+        assertEquals(Set.of(removed.getId()), employeeIds(changes.get("deleted"), "employeeId"));
+
+        // Removed by a sync of the project's assignments
+        assignmentService.syncProjectAssignments(project.getId(), List.of(kept.getId()));
+        JsonNode afterSync = changes("/assignments/changes", changes.get("version").asLong(), 1000);
+        assertEquals(0, afterSync.get("changed").size());
+        assertEquals(Set.of(reassigned.getId()), employeeIds(afterSync.get("deleted"), "employeeId"));
+    }
+
+    @Test
+    void clientBehindPurgedDeletionsMustReload() throws Exception {
+        Project project = projectService.addProject(new Project("Proyecto", LocalDate.of(2024, 1, 1), null, "Madrid", null));
+        Employee employee = employeeService.addEmployee(employee());
+        long start = changes("/assignments/changes", null, 1000).get("version").asLong();
+        assignmentService.assignEmployeeToProject(project.getId(), employee.getId());
+        assignmentService.unassignEmployeeFromProject(project.getId(), employee.getId());
+        long synced = changes("/assignments/changes", start, 1000).get("version").asLong();
+
+        Thread.sleep(10);
+        assignmentService.purgeDeletedAssignments();
+
+        mockMvc.perform(get("/assignments/changes").param("since", Long.toString(start)))
+                .andExpect(status().isGone());
+        // A client that already saw the deletion can carry on
+        mockMvc.perform(get("/assignments/changes").param("since", Long.toString(synced)))
+                .andExpect(status().isOk());
+    }
+
+    private JsonNode changes(String path, Long since, int limit) throws Exception {
+        var request = get(path).param("limit", Integer.toString(limit));
+        if (since != null) {
+            request.param("since", since.toString());
+        }
+        String body = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    private static Set<Integer> employeeIds(JsonNode rows, String... path) {
+        Set<Integer> ids = new HashSet<>();
+        for (JsonNode row : rows) {
+            JsonNode node = row;
+            for (String field : path) {
+                node = node.get(field);
+            }
+            ids.add(node.asInt());
+        }
+        return ids;
+    }
+
+    private Employee employee() {
+        created++;
+        return new Employee(null, LocalDate.of(1990, 5, 20), 'S', "sync" + created + "@example.com", null,
+                "Nombre", "Apellido", "Segundo", "600000000", "910000000", LocalDate.of(2024, 1, 1), 'N');
+    }
+}
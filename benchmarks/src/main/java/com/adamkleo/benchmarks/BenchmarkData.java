@@ -0,0 +1,74 @@
+package com.adamkleo.benchmarks;
+
+import com.adamkleo.backend.entity.Employee;
+import com.adamkleo.backend.entity.Project;
+import com.adamkleo.backend.entity.ProjectAssignment;
+import com.adamkleo.benchmarks.dataset.SpanishNames;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Valid entities built from a fixed seed, so every run and every release
+ * benchmarks the same data.
+ */
+public final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    // Ids are only set when requested, entities passed to the services must not have one
+    public static List<Employee> employees(int count, boolean withIds) {
+        SplittableRandom random = new SplittableRandom(42);
+        List<Employee> employees = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            Employee employee = new Employee(
+                    SpanishNames.nif(10_000_000 + i),
+                    LocalDate.of(1960 + random.nextInt(40), 1 + random.nextInt(12), 1 + random.nextInt(28)),
+                    random.nextBoolean() ? 'S' : 'C',
+                    "empleado" + i + "@empresa.es",
+                    null,
+                    SpanishNames.firstName(random), SpanishNames.lastName(random), SpanishNames.lastName(random),
+                    "6" + (10_000_000 + random.nextInt(89_999_999)),
+                    "9" + (10_000_000 + random.nextInt(89_999_999)),
+                    LocalDate.of(2010 + random.nextInt(14), 1 + random.nextInt(12), 1 + random.nextInt(28)),
+                    random.nextBoolean() ? 'S' : 'N');
+            if (withIds) {
+                employee.setId(i);
+            }
+            employees.add(employee);
+        }
+        return employees;
+    }
+
+    public static List<Project> projects(int count, boolean withIds) {
+        SplittableRandom random = new SplittableRandom(7);
+        List<Project> projects = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            Project project = new Project("Proyecto " + i,
+                    LocalDate.of(2015 + random.nextInt(9), 1 + random.nextInt(12), 1),
+                    null,
+                    SpanishNames.city(random),
+                    i % 3 == 0 ? "Observaciones del proyecto " + i : null);
+            if (withIds) {
+                project.setId(i);
+            }
+            projects.add(project);
+        }
+        return projects;
+    }
+
+    // Each employee is assigned to `perEmployee` consecutive projects
+    static List<ProjectAssignment> assignments(List<Project> projects, List<Employee> employees, int perEmployee) {
+        List<ProjectAssignment> assignments = new ArrayList<>(employees.size() * perEmployee);
+        for (int e = 0; e < employees.size(); e++) {
+            for (int p = 0; p < perEmployee; p++) {
+                Project project = projects.get((e + p) % projects.size());
+                assignments.add(new ProjectAssignment(project, employees.get(e), LocalDate.of(2024, 1, 1)));
+            }
+        }
+        return assignments;
+    }
+}
@@ -0,0 +1,50 @@
+package com.adamkleo.benchmarks;
+
+import com.adamkleo.backend.dto.EmployeeBasicDTO;
+import com.adamkleo.backend.entity.Employee;
+import com.adamkleo.backend.event.ChangeType;
+import com.adamkleo.backend.event.DataChangedEvent;
+import com.adamkleo.backend.event.DataTable;
+import com.adamkleo.backend.index.EmployeeSearchIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Typeahead queries against {@link EmployeeSearchIndex} holding 500,000 employees.
+ * The index is filled through change events in import-sized chunks, the same way
+ * the bulk import feeds it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+@State(Scope.Benchmark)
+public class EmployeeSearchBenchmark {
+
+    private static final int EMPLOYEES = 500_000;
+    private static final int CHUNK = 500;
+
+    @Param({"n", "nunez", "juan gar", "maria lopez mu", "1000123"})
+    public String query;
+
+    private EmployeeSearchIndex index;
+
+    @Setup
+    public void setUp() {
+        // Nothing is loaded from a repository, events feed the index directly
+        index = new EmployeeSearchIndex(null, null, null);
+        List<Employee> employees = BenchmarkData.employees(EMPLOYEES, true);
+        for (int from = 0; from < employees.size(); from += CHUNK) {
+            List<Employee> chunk = employees.subList(from, Math.min(from + CHUNK, employees.size()));
+            index.onDataChanged(new DataChangedEvent(DataTable.EMPLOYEES, ChangeType.CREATED, chunk));
+        }
+    }
+
+    @Benchmark
+    public List<EmployeeBasicDTO> search() {
+        return index.search(query, 10);
+    }
+}
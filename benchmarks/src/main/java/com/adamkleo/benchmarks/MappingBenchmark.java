@@ -0,0 +1,44 @@
+package com.adamkleo.benchmarks;
+
+import com.adamkleo.backend.dto.EmployeeBasicDTO;
+import com.adamkleo.backend.entity.Employee;
+import com.adamkleo.backend.service.EmployeeService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link EmployeeService#toBasicDto} over a list, the loop behind GET /employees/basic.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MappingBenchmark {
+
+    @Param({"100", "10000"})
+    public int size;
+
+    private EmployeeService employeeService;
+    private List<Employee> employees;
+
+    @Setup
+    public void setUp() {
+        // toBasicDto uses none of the collaborators
+        employeeService = new EmployeeService(null, null, null, null, null, null, null, null, null);
+        employees = BenchmarkData.employees(size, true);
+    }
+
+    @Benchmark
+    public List<EmployeeBasicDTO> toBasicDto() {
+        List<EmployeeBasicDTO> dtos = new ArrayList<>(employees.size());
+        for (Employee employee : employees) {
+            dtos.add(employeeService.toBasicDto(employee));
+        }
+        return dtos;
+    }
+}
@@ -0,0 +1,58 @@
+package com.adamkleo.benchmarks;
+
+import com.adamkleo.backend.entity.Employee;
+import com.adamkleo.backend.entity.Project;
+import com.adamkleo.backend.entity.ProjectAssignment;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of the lists returned by the list endpoints, with the
+ * same mapper settings Spring Boot uses for the HTTP message converters.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    @Param({"100", "10000"})
+    public int size;
+
+    private ObjectMapper mapper;
+    private List<Employee> employees;
+    private List<Project> projects;
+    private List<ProjectAssignment> assignments;
+
+    @Setup
+    public void setUp() {
+        mapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        employees = BenchmarkData.employees(size, true);
+        projects = BenchmarkData.projects(Math.max(1, size / 10), true);
+        assignments = BenchmarkData.assignments(projects, employees, 1);
+    }
+
+    @Benchmark
+    public byte[] employees() throws Exception {
+        return mapper.writeValueAsBytes(employees);
+    }
+
+    @Benchmark
+    public byte[] projects() throws Exception {
+        return mapper.writeValueAsBytes(projects);
+    }
+
+    @Benchmark
+    public byte[] assignments() throws Exception {
+        return mapper.writeValueAsBytes(assignments);
+    }
+}
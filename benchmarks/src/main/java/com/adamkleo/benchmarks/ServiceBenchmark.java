@@ -0,0 +1,214 @@
+package com.adamkleo.benchmarks;
+
+import com.adamkleo.backend.ProjectManagementAppApplication;
+import com.adamkleo.backend.cache.ResponseSnapshotCache;
+import com.adamkleo.backend.dto.AssignmentDTO;
+import com.adamkleo.backend.dto.CursorPageDTO;
+import com.adamkleo.backend.dto.EmployeeBasicDTO;
+import com.adamkleo.backend.dto.EmployeeStatsDTO;
+import com.adamkleo.backend.entity.Employee;
+import com.adamkleo.backend.entity.Project;
+import com.adamkleo.backend.entity.ProjectAssignment;
+import com.adamkleo.backend.event.DataTable;
+import com.adamkleo.backend.index.AssignmentIndex;
+import com.adamkleo.backend.repository.ProjectAssignmentRepository;
+import com.adamkleo.backend.service.AssignmentService;
+import com.adamkleo.backend.service.EmployeeService;
+import com.adamkleo.backend.service.ProjectService;
+import com.adamkleo.backend.stats.WorkforceStatistics;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service methods against the real Spring context and an in-process H2 database
+ * in MySQL mode. Absolute numbers are not comparable with MySQL over the network,
+ * but the relative cost of the service and mapping layers is.
+ *
+ * <p>The {@code employeesResponse*} benchmarks compare the throughput of
+ * {@code GET /employees} bodies without the snapshot cache (query and serialization
+ * on every call), served from a snapshot, and answered with 304 for a current ETag.
+ * The cached calls include reading the table versions from SY_VERSIONES once a second.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ServiceBenchmark {
+
+    private static final int EMPLOYEES = 2_000;
+    private static final int PROJECTS = 100;
+    private static final int PROJECTS_PER_EMPLOYEE = 2;
+
+    private ConfigurableApplicationContext context;
+    private EmployeeService employeeService;
+    private ProjectService projectService;
+    private AssignmentService assignmentService;
+    private AssignmentIndex assignmentIndex;
+    private ProjectAssignmentRepository assignmentRepository;
+    private WorkforceStatistics statistics;
+    private Integer assignedEmployeeId;
+    private Integer projectId;
+    private Integer unassignedEmployeeId;
+    private ResponseSnapshotCache snapshotCache;
+    private ObjectMapper objectMapper;
+    private HttpServletRequest plainRequest;
+    private HttpServletRequest revalidation;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(ProjectManagementAppApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:PRACTICA;MODE=MySQL;DB_CLOSE_DELAY=-1;INIT=CREATE SCHEMA IF NOT EXISTS PRACTICA\\;SET SCHEMA PRACTICA",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.show-sql=false",
+                        "--app.database.create-on-startup=false",
+                        "--logging.level.root=WARN");
+        employeeService = context.getBean(EmployeeService.class);
+        projectService = context.getBean(ProjectService.class);
+        assignmentService = context.getBean(AssignmentService.class);
+        assignmentIndex = context.getBean(AssignmentIndex.class);
+        assignmentRepository = context.getBean(ProjectAssignmentRepository.class);
+        statistics = context.getBean(WorkforceStatistics.class);
+        snapshotCache = context.getBean(ResponseSnapshotCache.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+
+        List<Employee> employees = employeeService.addEmployees(BenchmarkData.employees(EMPLOYEES, false));
+        List<Project> projects = new ArrayList<>();
+        for (Project project : BenchmarkData.projects(PROJECTS, false)) {
+            projects.add(projectService.addProject(project));
+        }
+        List<List<Integer>> employeesByProject = new ArrayList<>();
+        for (int p = 0; p < PROJECTS; p++) {
+            employeesByProject.add(new ArrayList<>());
+        }
+        // The last employee stays unassigned for the assign/unassign benchmark
+        for (int e = 0; e < EMPLOYEES - 1; e++) {
+            for (int p = 0; p < PROJECTS_PER_EMPLOYEE; p++) {
+                employeesByProject.get((e + p) % PROJECTS).add(employees.get(e).getId());
+            }
+        }
+        for (int p = 0; p < PROJECTS; p++) {
+            assignmentService.syncProjectAssignments(projects.get(p).getId(), employeesByProject.get(p));
+        }
+
+        assignedEmployeeId = employees.get(0).getId();
+        unassignedEmployeeId = employees.get(EMPLOYEES - 1).getId();
+        projectId = projects.get(0).getId();
+
+        plainRequest = request(Map.of());
+        String etag = employeesResponseFromSnapshot().getHeaders().getETag();
+        revalidation = request(Map.of(HttpHeaders.IF_NONE_MATCH, etag));
+    }
+
+    // Only the headers are read by the snapshot cache
+    private static HttpServletRequest request(Map<String, String> headers) {
+        return (HttpServletRequest) Proxy.newProxyInstance(ServiceBenchmark.class.getClassLoader(),
+                new Class<?>[]{HttpServletRequest.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("getHeader")) {
+                        return headers.get((String) args[0]);
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Employee> getActiveEmployees() {
+        return employeeService.getActiveEmployees();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public byte[] employeesResponseUncached() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(employeeService.getActiveEmployees());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public ResponseEntity<byte[]> employeesResponseFromSnapshot() {
+        return snapshotCache.respond("employees", plainRequest, employeeService::getActiveEmployees, DataTable.EMPLOYEES);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public ResponseEntity<byte[]> employeesResponseNotModified() {
+        return snapshotCache.respond("employees", revalidation, employeeService::getActiveEmployees, DataTable.EMPLOYEES);
+    }
+
+    @Benchmark
+    public List<EmployeeBasicDTO> getAllBasicEmployees() {
+        return employeeService.getAllBasicEmployees();
+    }
+
+    @Benchmark
+    public CursorPageDTO<Employee> getActiveEmployeesCursorPage() {
+        return employeeService.getActiveEmployees(null, 50, false);
+    }
+
+    @Benchmark
+    public List<Project> getActiveProjects() {
+        return projectService.getActiveProjects();
+    }
+
+    @Benchmark
+    public List<ProjectAssignment> getActiveAssignments() {
+        return assignmentService.getActiveAssignments();
+    }
+
+    @Benchmark
+    public List<AssignmentDTO> getFlatActiveAssignments() {
+        return assignmentService.getFlatActiveAssignments();
+    }
+
+    @Benchmark
+    public List<EmployeeBasicDTO> searchEmployees() {
+        return employeeService.searchEmployees("gar", 10);
+    }
+
+    @Benchmark
+    public EmployeeStatsDTO getEmployeeStats() {
+        return statistics.getEmployeeStats();
+    }
+
+    // Guard check of terminateEmployee: the in-memory index against the EXISTS query it replaced
+    @Benchmark
+    public boolean assignmentGuardIndex() {
+        return assignmentIndex.employeeHasProjects(assignedEmployeeId);
+    }
+
+    @Benchmark
+    public boolean assignmentGuardQuery() {
+        return assignmentRepository.existsByEmployeeId(assignedEmployeeId);
+    }
+
+    @Benchmark
+    public void assignAndUnassign() {
+        assignmentService.assignEmployeeToProject(projectId, unassignedEmployeeId);
+        assignmentService.unassignEmployeeFromProject(projectId, unassignedEmployeeId);
+    }
+}
@@ -0,0 +1,60 @@
+package com.adamkleo.benchmarks;
+
+import com.adamkleo.backend.entity.Employee;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bean Validation of one {@link Employee}, as done for each row of POST /employees,
+ * /employees/bulk and /employees/bulk/import. The invalid case breaks every
+ * {@code @Pattern}, so it also pays for building the violation messages.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidationBenchmark {
+
+    private ValidatorFactory factory;
+    private Validator validator;
+    private Employee valid;
+    private Employee invalid;
+
+    @Setup
+    public void setUp() {
+        factory = Validation.buildDefaultValidatorFactory();
+        validator = factory.getValidator();
+        valid = BenchmarkData.employees(1, false).get(0);
+        invalid = BenchmarkData.employees(1, false).get(0);
+        invalid.setNif("1234");
+        invalid.setFirstName("J4");
+        invalid.setLastName1("G4rcía");
+        invalid.setLastName2("L0pez");
+        invalid.setPhone1("abc");
+        invalid.setPhone2("123");
+        invalid.setEmail("no-es-un-email");
+    }
+
+    @TearDown
+    public void tearDown() {
+        factory.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Employee>> validEmployee() {
+        return validator.validate(valid);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Employee>> invalidEmployee() {
+        return validator.validate(invalid);
+    }
+}
@@ -0,0 +1,130 @@
+package com.adamkleo.benchmarks.bulk;
+
+import com.adamkleo.backend.ProjectManagementAppApplication;
+import com.adamkleo.backend.entity.Employee;
+import com.adamkleo.benchmarks.BenchmarkData;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rows per second of the two bulk endpoints for the same batches of new employees:
+ * {@code POST /employees/bulk}, which binds the whole array and saves it row by row in
+ * one transaction, and {@code POST /employees/bulk/import}, which streams the body and
+ * writes JDBC batches in chunk transactions. The time is taken by the client, from
+ * sending the body to reading the response.
+ *
+ * <p>The backend runs in this JVM over an in-memory H2 database. Every request sends
+ * rows no earlier request sent, and the two paths take turns, so both see the table
+ * grow alike. Against MySQL the gap is wider: the batches are rewritten into
+ * multi-row INSERTs and every saved row is a network round trip.
+ *
+ * <p>Options (defaults in brackets): rows [20000], runs [3], warmup [1],
+ * report [target/import-report.json].
+ */
+public class ImportBenchmark {
+
+    private static final String[] PATHS = {"/employees/bulk", "/employees/bulk/import"};
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        int rows = Integer.parseInt(options.getOrDefault("rows", "20000"));
+        int runs = Integer.parseInt(options.getOrDefault("runs", "3"));
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "1"));
+
+        ConfigurableApplicationContext context = startEmbedded();
+        try {
+            URI base = URI.create("http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort());
+            ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+
+            int batches = (warmup + runs) * PATHS.length;
+            List<Employee> people = BenchmarkData.employees(rows * batches, false);
+            ImportReport report = new ImportReport(rows, runs);
+            int batch = 0;
+            for (int run = 0; run < warmup + runs; run++) {
+                for (String path : PATHS) {
+                    byte[] body = objectMapper.writeValueAsBytes(people.subList(batch * rows, (batch + 1) * rows));
+                    batch++;
+                    long started = System.nanoTime();
+                    HttpResponse<String> response = client.send(HttpRequest.newBuilder(base.resolve(path))
+                                    .timeout(Duration.ofMinutes(30))
+                                    .header("Content-Type", "application/json")
+                                    .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                                    .build(),
+                            HttpResponse.BodyHandlers.ofString());
+                    double seconds = (System.nanoTime() - started) / 1e9;
+                    int inserted = inserted(objectMapper, path, response);
+                    if (inserted != rows) {
+                        throw new IllegalStateException(path + " inserted " + inserted + " of " + rows
+                                + " rows (status " + response.statusCode() + ")");
+                    }
+                    if (run >= warmup) {
+                        report.add(path, seconds);
+                    }
+                    System.out.printf("%s%s: %d rows in %.2f s%n", run < warmup ? "(warm-up) " : "", path, rows, seconds);
+                }
+            }
+            System.out.print(report.toTable());
+
+            File file = new File(options.getOrDefault("report", "target/import-report.json"));
+            if (file.getParentFile() != null) {
+                file.getParentFile().mkdirs();
+            }
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, report);
+            System.out.println("Report written to " + file);
+        } finally {
+            context.close();
+        }
+    }
+
+    // /bulk answers with the saved rows, /bulk/import with a report
+    private static int inserted(ObjectMapper objectMapper, String path, HttpResponse<String> response) throws Exception {
+        if (response.statusCode() != 200) {
+            return 0;
+        }
+        JsonNode body = objectMapper.readTree(response.body());
+        return path.endsWith("/import") ? body.path("inserted").intValue() : body.size();
+    }
+
+    private static ConfigurableApplicationContext startEmbedded() {
+        return new SpringApplicationBuilder(ProjectManagementAppApplication.class)
+                .run("--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:PRACTICA;MODE=MySQL;DB_CLOSE_DELAY=-1;"
+                                + "INIT=CREATE SCHEMA IF NOT EXISTS PRACTICA\\;SET SCHEMA PRACTICA",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.show-sql=false",
+                        "--app.database.create-on-startup=false",
+                        "--logging.level.root=WARN");
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        return options;
+    }
+}
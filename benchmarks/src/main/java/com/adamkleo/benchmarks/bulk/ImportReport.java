@@ -0,0 +1,80 @@
+package com.adamkleo.benchmarks.bulk;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Results of an {@link ImportBenchmark} run, one line per endpoint. Serialized as JSON
+ * so runs can be compared.
+ */
+public class ImportReport {
+
+    private final int rowsPerRequest;
+    private final int runs;
+    private final Map<String, Line> lines = new LinkedHashMap<>();
+
+    ImportReport(int rowsPerRequest, int runs) {
+        this.rowsPerRequest = rowsPerRequest;
+        this.runs = runs;
+    }
+
+    void add(String path, double seconds) {
+        lines.computeIfAbsent(path, Line::new).seconds.add(seconds);
+    }
+
+    public String toTable() {
+        StringBuilder table = new StringBuilder(String.format("%d rows per request, %d runs%n%-24s %12s %12s %12s%n",
+                rowsPerRequest, runs, "Endpoint", "Median s", "Rows/s", "Best rows/s"));
+        for (Line line : lines.values()) {
+            table.append(String.format("%-24s %12.2f %12.0f %12.0f%n", line.path, line.getMedianSeconds(),
+                    rowsPerRequest / line.getMedianSeconds(), rowsPerRequest / line.getBestSeconds()));
+        }
+        return table.toString();
+    }
+
+    public int getRowsPerRequest() {
+        return rowsPerRequest;
+    }
+
+    public int getRuns() {
+        return runs;
+    }
+
+    public List<Line> getLines() {
+        return new ArrayList<>(lines.values());
+    }
+
+    public class Line {
+
+        private final String path;
+        private final List<Double> seconds = new ArrayList<>();
+
+        Line(String path) {
+            this.path = path;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public List<Double> getSeconds() {
+            return seconds;
+        }
+
+        public double getMedianSeconds() {
+            List<Double> sorted = new ArrayList<>(seconds);
+            sorted.sort(null);
+            return sorted.get(sorted.size() / 2);
+        }
+
+        public double getBestSeconds() {
+            return seconds.stream().mapToDouble(Double::doubleValue).min().orElse(0);
+        }
+
+        public double getRowsPerSecond() {
+            return rowsPerRequest / getMedianSeconds();
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.adamkleo.benchmarks.dataset;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.SplittableRandom;
+
+/**
+ * Fills EM_EMPLEADOS, PR_PROYECTOS and PR_EMPLEADOS_PROYECTO with a synthetic
+ * dataset that only depends on the seed and the sizes, so the same arguments
+ * always give the same rows. Rows are streamed into JDBC batches and never kept
+ * in memory, which is what makes 1M employees and 10M assignments practical.
+ *
+ * <p>About 8% of the employees and 15% of the projects are terminated and, as the
+ * application requires, have no assignments. The number of projects per active
+ * employee follows a geometric distribution with the requested mean, and active
+ * projects are picked with a Zipf distribution so a few projects have many employees
+ * and most have a handful. Dates are relative to {@link #TODAY}.
+ *
+ * <p>Ids are written explicitly (1..n), so the tables must be empty.
+ */
+public class DatasetGenerator {
+
+    public static final LocalDate TODAY = LocalDate.of(2025, 6, 30);
+
+    private static final String INSERT_EMPLOYEE = "INSERT INTO PRACTICA.EM_EMPLEADOS " +
+            "(ID_EMPLEADO, TX_NIF, TX_NOMBRE, TX_APELLIDO1, TX_APELLIDO2, F_NACIMIENTO, N_TELEFONO1, N_TELEFONO2, " +
+            "TX_EMAIL, F_ALTA, F_BAJA, CX_EDOCIVIL, B_FORMACIONU) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_PROJECT = "INSERT INTO PR_PROYECTOS " +
+            "(ID_PROYECTO, TX_DESCRIPCIÓN, F_INICIO, F_FIN, F_BAJA, TX_LUGAR, TX_OBSERVACIONES) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_ASSIGNMENT =
+            "INSERT INTO PR_EMPLEADOS_PROYECTO (ID_PROYECTO, ID_EMPLEADO, F_ALTA) VALUES (?, ?, ?)";
+
+    private static final String[] PROJECT_KINDS = {
+            "Migración", "Portal", "Implantación ERP", "Auditoría", "Rediseño web", "Soporte", "Integración CRM",
+            "Plataforma de datos", "App móvil", "Modernización", "Ciberseguridad", "Consultoría"
+    };
+    private static final char[] CIVIL_STATUSES = {'S', 'C', 'D', 'V'};
+    private static final int MAX_PROJECTS_PER_EMPLOYEE = 50;
+
+    private final long seed;
+    private final int employees;
+    private final int projects;
+    private final long assignments;
+    private final int batchSize;
+
+    public DatasetGenerator(long seed, int employees, int projects, long assignments, int batchSize) {
+        if (employees < 1 || projects < 1 || assignments < 0 || batchSize < 1) {
+            throw new IllegalArgumentException("Sizes must be positive");
+        }
+        this.seed = seed;
+        this.employees = employees;
+        this.projects = projects;
+        this.assignments = assignments;
+        this.batchSize = batchSize;
+    }
+
+    public DatasetSummary load(DataSource dataSource) throws SQLException {
+        long started = System.nanoTime();
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                LocalDate[] projectStarts = insertProjects(connection);
+                LocalDate[] employeeStarts = insertEmployees(connection);
+                long inserted = insertAssignments(connection, projectStarts, employeeStarts);
+                restartIdentities(connection);
+                connection.commit();
+                return new DatasetSummary(employees, projects, inserted, (System.nanoTime() - started) / 1_000_000);
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    // Start dates by id, null for the terminated projects
+    private LocalDate[] insertProjects(Connection connection) throws SQLException {
+        SplittableRandom random = new SplittableRandom(seed);
+        LocalDate[] starts = new LocalDate[projects + 1];
+        try (PreparedStatement ps = connection.prepareStatement(INSERT_PROJECT)) {
+            for (int id = 1; id <= projects; id++) {
+                LocalDate start = TODAY.minusDays(30 + random.nextInt(15 * 365));
+                boolean terminated = random.nextInt(100) < 15;
+                LocalDate end = terminated ? between(start, TODAY, random) : null;
+                String city = SpanishNames.city(random);
+                starts[id] = terminated ? null : start;
+
+                ps.setInt(1, id);
+                ps.setString(2, PROJECT_KINDS[random.nextInt(PROJECT_KINDS.length)] + " " + city + " " + id);
+                ps.setDate(3, Date.valueOf(start));
+                ps.setDate(4, end == null ? null : Date.valueOf(end));
+                ps.setDate(5, end == null ? null : Date.valueOf(end));
+                ps.setString(6, city);
+                ps.setString(7, random.nextInt(4) == 0 ? "Proyecto generado para pruebas de carga" : null);
+                addToBatch(connection, ps, id);
+            }
+            flush(connection, ps);
+        }
+        return starts;
+    }
+
+    // Start dates by id, null for the terminated employees
+    private LocalDate[] insertEmployees(Connection connection) throws SQLException {
+        SplittableRandom random = new SplittableRandom(seed + 1);
+        LocalDate[] starts = new LocalDate[employees + 1];
+        try (PreparedStatement ps = connection.prepareStatement(INSERT_EMPLOYEE)) {
+            for (int id = 1; id <= employees; id++) {
+                String firstName = SpanishNames.firstName(random);
+                String lastName1 = SpanishNames.lastName(random);
+                String lastName2 = SpanishNames.lastName(random);
+                LocalDate birth = LocalDate.of(1960 + random.nextInt(43), 1 + random.nextInt(12), 1 + random.nextInt(28));
+                LocalDate earliestStart = birth.plusYears(18).isAfter(TODAY.minusYears(20)) ? birth.plusYears(18) : TODAY.minusYears(20);
+                LocalDate start = between(earliestStart, TODAY, random);
+                boolean terminated = random.nextInt(100) < 8;
+                starts[id] = terminated ? null : start;
+
+                ps.setInt(1, id);
+                ps.setString(2, SpanishNames.nif(random.nextInt(100_000_000)));
+                ps.setString(3, firstName);
+                ps.setString(4, lastName1);
+                ps.setString(5, lastName2);
+                ps.setDate(6, Date.valueOf(birth));
+                ps.setString(7, "6" + (10_000_000 + random.nextInt(90_000_000)));
+                ps.setString(8, "9" + (10_000_000 + random.nextInt(90_000_000)));
+                ps.setString(9, email(firstName, lastName1, id));
+                ps.setDate(10, Date.valueOf(start));
+                ps.setDate(11, terminated ? Date.valueOf(between(start, TODAY, random)) : null);
+                ps.setString(12, String.valueOf(CIVIL_STATUSES[random.nextInt(CIVIL_STATUSES.length)]));
+                ps.setString(13, random.nextInt(100) < 45 ? "S" : "N");
+                addToBatch(connection, ps, id);
+            }
+            flush(connection, ps);
+        }
+        return starts;
+    }
+
+    private long insertAssignments(Connection connection, LocalDate[] projectStarts, LocalDate[] employeeStarts)
+            throws SQLException {
+        SplittableRandom random = new SplittableRandom(seed + 2);
+        double[] popularity = SpanishNames.zipfCumulative(projects, 0.8);
+        // Shuffle which project id gets which popularity rank
+        int[] projectOfRank = new int[projects];
+        for (int i = 0; i < projects; i++) {
+            projectOfRank[i] = i + 1;
+        }
+        for (int i = projects - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = projectOfRank[i];
+            projectOfRank[i] = projectOfRank[j];
+            projectOfRank[j] = swap;
+        }
+
+        long active = Arrays.stream(employeeStarts).filter(Objects::nonNull).count();
+        double mean = active == 0 ? 0 : (double) assignments / active;
+        double success = 1 / (mean + 1);
+        int maxPerEmployee = Math.min(projects, MAX_PROJECTS_PER_EMPLOYEE);
+        int[] chosen = new int[maxPerEmployee];
+        long inserted = 0;
+
+        try (PreparedStatement ps = connection.prepareStatement(INSERT_ASSIGNMENT)) {
+            for (int employeeId = 1; employeeId <= employees; employeeId++) {
+                if (employeeStarts[employeeId] == null) {
+                    continue;
+                }
+                int count = mean == 0 ? 0
+                        : (int) Math.min(maxPerEmployee, Math.floor(Math.log(1 - random.nextDouble()) / Math.log(1 - success)));
+                int picked = 0;
+                // Rejection keeps the projects of one employee distinct and active; bounded in case the Zipf head repeats
+                for (int attempt = 0; picked < count && attempt < count * 20; attempt++) {
+                    int projectId = projectOfRank[SpanishNames.pick(popularity, random)];
+                    if (projectStarts[projectId] == null || contains(chosen, picked, projectId)) {
+                        continue;
+                    }
+                    chosen[picked++] = projectId;
+
+                    LocalDate from = projectStarts[projectId].isAfter(employeeStarts[employeeId])
+                            ? projectStarts[projectId] : employeeStarts[employeeId];
+                    ps.setInt(1, projectId);
+                    ps.setInt(2, employeeId);
+                    ps.setDate(3, Date.valueOf(from.isAfter(TODAY) ? TODAY : between(from, TODAY, random)));
+                    addToBatch(connection, ps, ++inserted);
+                }
+            }
+            flush(connection, ps);
+        }
+        return inserted;
+    }
+
+    // Explicit ids do not move H2's identity counters; MySQL adjusts AUTO_INCREMENT by itself
+    private void restartIdentities(Connection connection) throws SQLException {
+        if (!"H2".equals(connection.getMetaData().getDatabaseProductName())) {
+            return;
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ALTER TABLE PRACTICA.EM_EMPLEADOS ALTER COLUMN ID_EMPLEADO RESTART WITH " + (employees + 1));
+            statement.execute("ALTER TABLE PR_PROYECTOS ALTER COLUMN ID_PROYECTO RESTART WITH " + (projects + 1));
+        }
+    }
+
+    private void addToBatch(Connection connection, PreparedStatement ps, long row) throws SQLException {
+        ps.addBatch();
+        if (row % batchSize == 0) {
+            flush(connection, ps);
+        }
+    }
+
+    private static void flush(Connection connection, PreparedStatement ps) throws SQLException {
+        ps.executeBatch();
+        connection.commit();
+    }
+
+    private static boolean contains(int[] values, int size, int value) {
+        for (int i = 0; i < size; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static LocalDate between(LocalDate from, LocalDate to, SplittableRandom random) {
+        long days = to.toEpochDay() - from.toEpochDay();
+        return days <= 0 ? from : from.plusDays(random.nextLong(days + 1));
+    }
+
+    // juan.garcia123@empresa.es, always within the 40 characters of TX_EMAIL
+    private static String email(String firstName, String lastName, int id) {
+        String first = firstName.split(" ")[0];
+        String local = Normalizer.normalize(first + "." + lastName, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT);
+        return local + id + "@empresa.es";
+    }
+}
@@ -0,0 +1,38 @@
+package com.adamkleo.benchmarks.dataset;
+
+public class DatasetSummary {
+
+    private final int employees;
+    private final int projects;
+    private final long assignments;
+    private final long millis;
+
+    public DatasetSummary(int employees, int projects, long assignments, long millis) {
+        this.employees = employees;
+        this.projects = projects;
+        this.assignments = assignments;
+        this.millis = millis;
+    }
+
+    public int getEmployees() {
+        return employees;
+    }
+
+    public int getProjects() {
+        return projects;
+    }
+
+    public long getAssignments() {
+        return assignments;
+    }
+
+    public long getMillis() {
+        return millis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%,d employees, %,d projects, %,d assignments in %,d ms",
+                employees, projects, assignments, millis);
+    }
+}
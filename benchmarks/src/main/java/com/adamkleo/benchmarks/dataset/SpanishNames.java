@@ -0,0 +1,89 @@
+package com.adamkleo.benchmarks.dataset;
+
+import java.util.SplittableRandom;
+
+/**
+ * Common Spanish first names, surnames and cities. Surnames are drawn with a
+ * skewed distribution so García or Rodríguez are far more frequent than Vidal,
+ * as in the real population; names keep their accents to exercise the
+ * accent-insensitive search.
+ */
+public final class SpanishNames {
+
+    public static final String[] FIRST_NAMES = {
+            "Antonio", "José", "Manuel", "Francisco", "David", "Juan", "Javier", "Daniel", "Carlos", "Jesús",
+            "Alejandro", "Miguel", "Rafael", "Pablo", "Pedro", "Ángel", "Sergio", "Fernando", "Jorge", "Luis",
+            "Álvaro", "Íñigo", "Adrián", "Raúl", "Rubén", "Iván", "Óscar", "Andrés", "Joaquín", "Ramón",
+            "María", "Carmen", "Ana", "Isabel", "Laura", "Cristina", "Marta", "Lucía", "Pilar", "Elena",
+            "Paula", "Sara", "Raquel", "Rosa", "Sofía", "Beatriz", "Patricia", "Núria", "Inés", "Mónica",
+            "Silvia", "Julia", "Irene", "Teresa", "Alba", "Noelia", "Natalia", "Rocío", "Belén", "Águeda"
+    };
+
+    public static final String[] LAST_NAMES = {
+            "García", "Rodríguez", "González", "Fernández", "López", "Martínez", "Sánchez", "Pérez", "Gómez", "Martín",
+            "Jiménez", "Ruiz", "Hernández", "Díaz", "Moreno", "Muñoz", "Álvarez", "Romero", "Alonso", "Gutiérrez",
+            "Navarro", "Torres", "Domínguez", "Vázquez", "Ramos", "Gil", "Ramírez", "Serrano", "Blanco", "Molina",
+            "Morales", "Suárez", "Ortega", "Delgado", "Castro", "Ortiz", "Rubio", "Marín", "Sanz", "Núñez",
+            "Iglesias", "Medina", "Garrido", "Cortés", "Castillo", "Santos", "Lozano", "Guerrero", "Cano", "Prieto",
+            "Méndez", "Cruz", "Calvo", "Gallego", "Vidal", "León", "Márquez", "Herrera", "Peña", "Cabrera"
+    };
+
+    public static final String[] CITIES = {
+            "Madrid", "Barcelona", "Valencia", "Sevilla", "Zaragoza", "Málaga", "Murcia", "Palma", "Bilbao",
+            "Alicante", "Córdoba", "Valladolid", "Vigo", "Gijón", "A Coruña", "Granada", "Vitoria", "Oviedo"
+    };
+
+    private static final String NIF_LETTERS = "TRWAGMYFPDXBNJZSQVHLCKE";
+
+    private static final double[] LAST_NAME_WEIGHTS = zipfCumulative(LAST_NAMES.length, 0.9);
+
+    private SpanishNames() {
+    }
+
+    public static String firstName(SplittableRandom random) {
+        String name = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+        // Compound names such as "María Pilar" are common
+        return random.nextInt(7) == 0 ? name + " " + FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] : name;
+    }
+
+    public static String lastName(SplittableRandom random) {
+        return LAST_NAMES[pick(LAST_NAME_WEIGHTS, random)];
+    }
+
+    public static String city(SplittableRandom random) {
+        return CITIES[random.nextInt(CITIES.length)];
+    }
+
+    public static String nif(int number) {
+        return String.format("%08d%c", number, NIF_LETTERS.charAt(number % 23));
+    }
+
+    // Cumulative weights of a Zipf distribution with exponent s over n ranks
+    static double[] zipfCumulative(int n, double s) {
+        double[] cumulative = new double[n];
+        double total = 0;
+        for (int rank = 1; rank <= n; rank++) {
+            total += 1 / Math.pow(rank, s);
+            cumulative[rank - 1] = total;
+        }
+        for (int i = 0; i < n; i++) {
+            cumulative[i] /= total;
+        }
+        return cumulative;
+    }
+
+    static int pick(double[] cumulative, SplittableRandom random) {
+        double target = random.nextDouble();
+        int low = 0;
+        int high = cumulative.length - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (cumulative[middle] < target) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,238 @@
+package com.adamkleo.benchmarks.feed;
+
+import com.adamkleo.backend.ProjectManagementAppApplication;
+import com.adamkleo.backend.feed.ChangeFeed;
+import com.adamkleo.benchmarks.dataset.SpanishNames;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.apache.tomcat.util.threads.ThreadPoolExecutor;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Thousands of idle clients on {@code /changes/stream}: how long it takes to connect
+ * them, what they cost the backend in heap and request threads, and how long a committed change
+ * takes to reach all of them. The backend runs in this JVM over an empty in-memory H2
+ * database, so the heap figure includes the client side of the connections.
+ *
+ * <p>Once everyone is connected, {@code events} employees are created one after the
+ * other through {@code POST /employees}, {@code interval-ms} apart. The delivery latency
+ * of an event is measured per subscriber, from sending the POST to reading the event.
+ *
+ * <p>Options (defaults in brackets): subscribers [2000], events [20], interval-ms [250],
+ * connect-concurrency [200], report [target/change-feed-report.json].
+ */
+public class ChangeFeedBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        int subscriberCount = Integer.parseInt(options.getOrDefault("subscribers", "2000"));
+        int events = Integer.parseInt(options.getOrDefault("events", "20"));
+        long interval = Long.parseLong(options.getOrDefault("interval-ms", "250"));
+        int connectConcurrency = Integer.parseInt(options.getOrDefault("connect-concurrency", "200"));
+
+        ConfigurableApplicationContext context = startEmbedded(subscriberCount);
+        try {
+            URI base = URI.create("http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort());
+            ChangeFeed changeFeed = context.getBean(ChangeFeed.class);
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+            ChangeFeedReport report = new ChangeFeedReport(subscriberCount, events);
+
+            long heapBefore = usedHeapAfterGc();
+
+            // Connect everyone, at most connect-concurrency at a time so the accept queue does not overflow
+            List<Subscriber> subscribers = new ArrayList<>(subscriberCount);
+            CountDownLatch subscribed = new CountDownLatch(subscriberCount);
+            Semaphore connecting = new Semaphore(connectConcurrency);
+            HttpRequest stream = HttpRequest.newBuilder(base.resolve("/changes/stream")).GET().build();
+            long connectStart = System.nanoTime();
+            for (int i = 0; i < subscriberCount; i++) {
+                if (!connecting.tryAcquire(1, TimeUnit.MINUTES)) {
+                    throw new IllegalStateException("Stuck connecting after " + i + " subscribers, see the errors above");
+                }
+                Subscriber subscriber = new Subscriber(events, () -> {
+                    connecting.release();
+                    subscribed.countDown();
+                });
+                subscribers.add(subscriber);
+                client.sendAsync(stream, HttpResponse.BodyHandlers.fromLineSubscriber(subscriber))
+                        .whenComplete((response, error) -> subscriber.closed(error));
+            }
+            if (!subscribed.await(5, TimeUnit.MINUTES)) {
+                throw new IllegalStateException((subscriberCount - subscribed.getCount()) + " of "
+                        + subscriberCount + " subscribers connected in 5 minutes");
+            }
+            report.setConnectMillis((System.nanoTime() - connectStart) / 1_000_000.0);
+            report.setServerSubscribers(changeFeed.getSubscriberCount());
+            report.setHeapPerSubscriberBytes((usedHeapAfterGc() - heapBefore) / (double) subscriberCount);
+            report.setBusyRequestThreads(busyRequestThreads(context));
+            System.out.printf("%d subscribers connected in %.0f ms%n", subscriberCount, report.getConnectMillis());
+
+            // One change at a time, so every subscriber's n-th employees event is the n-th POST
+            long[] sentAt = new long[events];
+            for (int n = 0; n < events; n++) {
+                sentAt[n] = System.nanoTime();
+                HttpResponse<String> response = client.send(HttpRequest.newBuilder(base.resolve("/employees"))
+                                .header("Content-Type", "application/json")
+                                .POST(HttpRequest.BodyPublishers.ofString(employeeJson(n)))
+                                .build(),
+                        HttpResponse.BodyHandlers.ofString());
+                if (response.statusCode() != 200) {
+                    throw new IllegalStateException("POST /employees returned " + response.statusCode() + ": " + response.body());
+                }
+                Thread.sleep(interval);
+            }
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (System.nanoTime() < deadline && subscribers.stream().anyMatch(s -> s.received < events)) {
+                Thread.sleep(50);
+            }
+            List<Double> latencies = new ArrayList<>(subscriberCount * events);
+            for (Subscriber subscriber : subscribers) {
+                for (int n = 0; n < subscriber.received; n++) {
+                    latencies.add((subscriber.receivedAt[n] - sentAt[n]) / 1_000_000.0);
+                }
+            }
+            report.setLatencies(latencies);
+            report.setDisconnected((int) subscribers.stream().filter(s -> s.closed).count());
+            System.out.print(report.toTable());
+
+            File file = new File(options.getOrDefault("report", "target/change-feed-report.json"));
+            if (file.getParentFile() != null) {
+                file.getParentFile().mkdirs();
+            }
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, report);
+            System.out.println("Report written to " + file);
+        } finally {
+            context.close();
+        }
+    }
+
+    // Counts the employees events of one connection, the rest of the stream is ignored
+    private static final class Subscriber implements Flow.Subscriber<String> {
+
+        private final long[] receivedAt;
+        private final Runnable onSubscribed;
+        private boolean named;
+        private volatile int received;
+        private volatile boolean closed;
+
+        private Subscriber(int events, Runnable onSubscribed) {
+            this.receivedAt = new long[events];
+            this.onSubscribed = onSubscribed;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(String line) {
+            if (line.equals("event:" + ChangeFeed.SUBSCRIBED)) {
+                onSubscribed.run();
+            } else if (line.equals("event:employees")) {
+                named = true;
+            } else if (named && line.startsWith("data:")) {
+                named = false;
+                if (received < receivedAt.length) {
+                    receivedAt[received] = System.nanoTime();
+                    received = received + 1;
+                }
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            closed = true;
+        }
+
+        @Override
+        public void onComplete() {
+            closed = true;
+        }
+
+        private void closed(Throwable error) {
+            if (error != null) {
+                closed = true;
+            }
+        }
+    }
+
+    private static String employeeJson(int n) {
+        LocalDate today = LocalDate.now();
+        return "{\"nif\":\"" + SpanishNames.nif(n) + "\","
+                + "\"firstName\":\"Suscrito\",\"lastName1\":\"Prueba\",\"lastName2\":\"Carga\","
+                + "\"birthDate\":\"" + today.minusYears(30) + "\","
+                + "\"phone1\":\"600000000\",\"phone2\":\"910000000\","
+                + "\"email\":\"feed" + n + "@empresa.es\","
+                + "\"startDate\":\"" + today + "\","
+                + "\"civilStatus\":\"S\",\"universityEducation\":\"N\"}";
+    }
+
+    // Connections waiting for events should not hold a request thread
+    private static int busyRequestThreads(ConfigurableApplicationContext context) {
+        TomcatWebServer server = (TomcatWebServer) ((WebServerApplicationContext) context).getWebServer();
+        Executor executor = server.getTomcat().getConnector().getProtocolHandler().getExecutor();
+        return executor instanceof ThreadPoolExecutor pool ? pool.getActiveCount() : -1;
+    }
+
+    private static long usedHeapAfterGc() throws InterruptedException {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(200);
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private static ConfigurableApplicationContext startEmbedded(int subscribers) {
+        return new SpringApplicationBuilder(ProjectManagementAppApplication.class)
+                .run("--server.port=0",
+                        "--server.tomcat.max-connections=" + Math.max(8192, subscribers + 100),
+                        "--spring.datasource.url=jdbc:h2:mem:PRACTICA;MODE=MySQL;DB_CLOSE_DELAY=-1;"
+                                + "INIT=CREATE SCHEMA IF NOT EXISTS PRACTICA\\;SET SCHEMA PRACTICA",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.show-sql=false",
+                        "--app.database.create-on-startup=false",
+                        "--logging.level.root=WARN");
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        return options;
+    }
+}
@@ -0,0 +1,111 @@
+package com.adamkleo.benchmarks.feed;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Results of a {@link ChangeFeedBenchmark} run. Serialized as JSON so runs can be compared.
+ */
+public class ChangeFeedReport {
+
+    private final int subscribers;
+    private final int events;
+    private int serverSubscribers;
+    private int disconnected;
+    private double connectMillis;
+    private double heapPerSubscriberBytes;
+    private int busyRequestThreads;
+    private long delivered;
+    private double p50Millis;
+    private double p99Millis;
+    private double maxMillis;
+
+    ChangeFeedReport(int subscribers, int events) {
+        this.subscribers = subscribers;
+        this.events = events;
+    }
+
+    void setLatencies(List<Double> millis) {
+        List<Double> sorted = new ArrayList<>(millis);
+        sorted.sort(null);
+        delivered = sorted.size();
+        if (!sorted.isEmpty()) {
+            p50Millis = sorted.get((int) (sorted.size() * 0.50));
+            p99Millis = sorted.get(Math.min(sorted.size() - 1, (int) (sorted.size() * 0.99)));
+            maxMillis = sorted.get(sorted.size() - 1);
+        }
+    }
+
+    public String toTable() {
+        return String.format("Subscribers            %d (%d on the server, %d disconnected)%n", subscribers, serverSubscribers, disconnected)
+                + String.format("Connect all            %.0f ms%n", connectMillis)
+                + String.format("Heap per subscriber    %.1f KB (server and client)%n", heapPerSubscriberBytes / 1024)
+                + String.format("Busy request threads   %d%n", busyRequestThreads)
+                + String.format("Delivered              %d of %d%n", delivered, (long) subscribers * events)
+                + String.format("Delivery latency       p50 %.1f ms, p99 %.1f ms, max %.1f ms%n", p50Millis, p99Millis, maxMillis);
+    }
+
+    public int getSubscribers() {
+        return subscribers;
+    }
+
+    public int getEvents() {
+        return events;
+    }
+
+    public int getServerSubscribers() {
+        return serverSubscribers;
+    }
+
+    void setServerSubscribers(int serverSubscribers) {
+        this.serverSubscribers = serverSubscribers;
+    }
+
+    public int getDisconnected() {
+        return disconnected;
+    }
+
+    void setDisconnected(int disconnected) {
+        this.disconnected = disconnected;
+    }
+
+    public double getConnectMillis() {
+        return connectMillis;
+    }
+
+    void setConnectMillis(double connectMillis) {
+        this.connectMillis = connectMillis;
+    }
+
+    public double getHeapPerSubscriberBytes() {
+        return heapPerSubscriberBytes;
+    }
+
+    void setHeapPerSubscriberBytes(double heapPerSubscriberBytes) {
+        this.heapPerSubscriberBytes = heapPerSubscriberBytes;
+    }
+
+    public int getBusyRequestThreads() {
+        return busyRequestThreads;
+    }
+
+    void setBusyRequestThreads(int busyRequestThreads) {
+        this.busyRequestThreads = busyRequestThreads;
+    }
+
+    public long getDelivered() {
+        return delivered;
+    }
+
+    public double getP50Millis() {
+        return p50Millis;
+    }
+
+    public double getP99Millis() {
+        return p99Millis;
+    }
+
+    public double getMaxMillis() {
+        return maxMillis;
+    }
+}
@@ -0,0 +1,192 @@
+package com.adamkleo.benchmarks.herd;
+
+import com.adamkleo.backend.ProjectManagementAppApplication;
+import com.adamkleo.backend.entity.Employee;
+import com.adamkleo.backend.entity.Project;
+import com.adamkleo.backend.service.AssignmentService;
+import com.adamkleo.backend.service.EmployeeService;
+import com.adamkleo.backend.service.ProjectService;
+import com.adamkleo.benchmarks.BenchmarkData;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The dashboard opened by many users at the same moment: {@code clients} requests, half
+ * to {@code GET /employees} and half to {@code GET /assignments/active}, all released
+ * together right after a write, so none of them finds a cached response. Each round
+ * counts the queries Hibernate ran while the herd was being answered, and the
+ * requests that failed (without single-flight, mostly waiting for a pooled connection).
+ *
+ * <p>The backend runs in this JVM over an in-memory H2 database, once with single-flight
+ * on and once with it off. Admission control is turned off so no request is rejected.
+ *
+ * <p>Options (defaults in brackets): clients [200], rounds [20], warmup [5],
+ * employees [2000], projects [100], report [target/thundering-herd-report.json].
+ */
+public class ThunderingHerdBenchmark {
+
+    private static final int PROJECTS_PER_EMPLOYEE = 2;
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        int clients = Integer.parseInt(options.getOrDefault("clients", "200"));
+        int rounds = Integer.parseInt(options.getOrDefault("rounds", "20"));
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "5"));
+        int employees = Integer.parseInt(options.getOrDefault("employees", "2000"));
+        int projects = Integer.parseInt(options.getOrDefault("projects", "100"));
+
+        ThunderingHerdReport report = new ThunderingHerdReport(clients, rounds);
+        for (boolean singleFlight : new boolean[]{true, false}) {
+            report.add(run(singleFlight, clients, rounds, warmup, employees, projects));
+        }
+        System.out.print(report.toTable());
+
+        File file = new File(options.getOrDefault("report", "target/thundering-herd-report.json"));
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, report);
+        System.out.println("Report written to " + file);
+    }
+
+    private static ThunderingHerdReport.Line run(boolean singleFlight, int clients, int rounds, int warmup,
+                                                 int employeeCount, int projectCount) throws Exception {
+        ConfigurableApplicationContext context = startEmbedded(singleFlight, clients);
+        ExecutorService callers = Executors.newFixedThreadPool(clients);
+        try {
+            URI base = URI.create("http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort());
+            EmployeeService employeeService = context.getBean(EmployeeService.class);
+            Statistics statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+
+            // One new employee per round, written before the herd so the cached responses are stale
+            List<Employee> people = BenchmarkData.employees(employeeCount + warmup + rounds, false);
+            seed(context, people.subList(0, employeeCount), projectCount);
+
+            List<Double> latencies = Collections.synchronizedList(new ArrayList<>());
+            long queries = 0;
+            long errors = 0;
+            long herdNanos = 0;
+            for (int round = 0; round < warmup + rounds; round++) {
+                employeeService.addEmployee(people.get(employeeCount + round));
+                boolean recording = round >= warmup;
+
+                long queriesBefore = statistics.getQueryExecutionCount();
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<Integer>> requests = new ArrayList<>(clients);
+                for (int i = 0; i < clients; i++) {
+                    URI uri = base.resolve(i % 2 == 0 ? "/employees" : "/assignments/active");
+                    requests.add(callers.submit(() -> {
+                        start.await();
+                        long sent = System.nanoTime();
+                        HttpResponse<Void> response = client.send(HttpRequest.newBuilder(uri).GET().build(),
+                                HttpResponse.BodyHandlers.discarding());
+                        if (recording) {
+                            latencies.add((System.nanoTime() - sent) / 1_000_000.0);
+                        }
+                        return response.statusCode();
+                    }));
+                }
+                // Let every caller reach the latch before the herd is released
+                Thread.sleep(100);
+                long released = System.nanoTime();
+                start.countDown();
+                int failed = 0;
+                for (Future<Integer> request : requests) {
+                    if (request.get(1, TimeUnit.MINUTES) != 200) {
+                        failed++;
+                    }
+                }
+                if (recording) {
+                    errors += failed;
+                    herdNanos += System.nanoTime() - released;
+                    queries += statistics.getQueryExecutionCount() - queriesBefore;
+                }
+            }
+            ThunderingHerdReport.Line line = new ThunderingHerdReport.Line(singleFlight, (long) clients * rounds,
+                    queries, errors, herdNanos / 1_000_000.0, latencies);
+            System.out.printf("Single-flight %s: %d queries for %d requests, %d failed%n", singleFlight ? "on" : "off",
+                    line.getQueries(), line.getRequests(), line.getErrors());
+            return line;
+        } finally {
+            callers.shutdownNow();
+            context.close();
+        }
+    }
+
+    private static void seed(ConfigurableApplicationContext context, List<Employee> people, int projectCount) {
+        ProjectService projectService = context.getBean(ProjectService.class);
+        AssignmentService assignmentService = context.getBean(AssignmentService.class);
+        List<Employee> employees = context.getBean(EmployeeService.class).addEmployees(people);
+        List<Project> projects = new ArrayList<>();
+        for (Project project : BenchmarkData.projects(projectCount, false)) {
+            projects.add(projectService.addProject(project));
+        }
+        List<List<Integer>> employeesByProject = new ArrayList<>();
+        for (int p = 0; p < projectCount; p++) {
+            employeesByProject.add(new ArrayList<>());
+        }
+        for (int e = 0; e < employees.size(); e++) {
+            for (int p = 0; p < PROJECTS_PER_EMPLOYEE; p++) {
+                employeesByProject.get((e + p) % projectCount).add(employees.get(e).getId());
+            }
+        }
+        for (int p = 0; p < projectCount; p++) {
+            assignmentService.syncProjectAssignments(projects.get(p).getId(), employeesByProject.get(p));
+        }
+    }
+
+    private static ConfigurableApplicationContext startEmbedded(boolean singleFlight, int clients) {
+        return new SpringApplicationBuilder(ProjectManagementAppApplication.class)
+                .run("--server.port=0",
+                        "--server.tomcat.threads.max=" + Math.max(200, clients + 50),
+                        "--spring.datasource.url=jdbc:h2:mem:PRACTICA;MODE=MySQL;DB_CLOSE_DELAY=-1;"
+                                + "INIT=CREATE SCHEMA IF NOT EXISTS PRACTICA\\;SET SCHEMA PRACTICA",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.show-sql=false",
+                        "--app.database.create-on-startup=false",
+                        "--app.admission.enabled=false",
+                        "--app.single-flight.enabled=" + singleFlight,
+                        "--logging.level.root=WARN");
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        return options;
+    }
+}
@@ -0,0 +1,104 @@
+package com.adamkleo.benchmarks.herd;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Results of a {@link ThunderingHerdBenchmark} run, one line per mode. Serialized as
+ * JSON so runs can be compared.
+ */
+public class ThunderingHerdReport {
+
+    private final int clients;
+    private final int rounds;
+    private final List<Line> lines = new ArrayList<>();
+
+    ThunderingHerdReport(int clients, int rounds) {
+        this.clients = clients;
+        this.rounds = rounds;
+    }
+
+    void add(Line line) {
+        lines.add(line);
+    }
+
+    public String toTable() {
+        StringBuilder table = new StringBuilder(String.format(
+                "%d clients at once, %d rounds%n%-14s %10s %8s %12s %10s %12s %10s %10s%n", clients, rounds,
+                "Single-flight", "Requests", "Failed", "DB queries", "Per round", "Queries/s", "p50 ms", "p99 ms"));
+        for (Line line : lines) {
+            table.append(String.format("%-14s %10d %8d %12d %10.1f %12.0f %10.1f %10.1f%n",
+                    line.singleFlight ? "on" : "off", line.requests, line.errors, line.queries,
+                    line.queries / (double) rounds, line.getQueriesPerSecond(), line.p50Millis, line.p99Millis));
+        }
+        return table.toString();
+    }
+
+    public int getClients() {
+        return clients;
+    }
+
+    public int getRounds() {
+        return rounds;
+    }
+
+    public List<Line> getLines() {
+        return lines;
+    }
+
+    public static class Line {
+
+        private final boolean singleFlight;
+        private final long requests;
+        private final long queries;
+        private final long errors;
+        private final double herdMillis;
+        private final double p50Millis;
+        private final double p99Millis;
+
+        Line(boolean singleFlight, long requests, long queries, long errors, double herdMillis, List<Double> latencies) {
+            this.singleFlight = singleFlight;
+            this.requests = requests;
+            this.queries = queries;
+            this.errors = errors;
+            this.herdMillis = herdMillis;
+            List<Double> sorted = new ArrayList<>(latencies);
+            sorted.sort(null);
+            this.p50Millis = sorted.isEmpty() ? 0 : sorted.get((int) (sorted.size() * 0.50));
+            this.p99Millis = sorted.isEmpty() ? 0 : sorted.get(Math.min(sorted.size() - 1, (int) (sorted.size() * 0.99)));
+        }
+
+        public boolean isSingleFlight() {
+            return singleFlight;
+        }
+
+        public long getRequests() {
+            return requests;
+        }
+
+        public long getQueries() {
+            return queries;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        public double getHerdMillis() {
+            return herdMillis;
+        }
+
+        // Over the time the herds were running, the writes between them excluded
+        public double getQueriesPerSecond() {
+            return herdMillis > 0 ? queries * 1000 / herdMillis : 0;
+        }
+
+        public double getP50Millis() {
+            return p50Millis;
+        }
+
+        public double getP99Millis() {
+            return p99Millis;
+        }
+    }
+}
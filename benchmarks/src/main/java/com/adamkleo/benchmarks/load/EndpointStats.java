@@ -0,0 +1,37 @@
+package com.adamkleo.benchmarks.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies (in microseconds, up to one minute) and outcome counters of one endpoint.
+ */
+class EndpointStats {
+
+    private final Histogram latencies = new ConcurrentHistogram(60_000_000L, 3);
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    void record(long micros, int status) {
+        latencies.recordValue(Math.min(micros, latencies.getHighestTrackableValue()));
+        if (status >= 500 || status < 0) {
+            failed.increment();
+        } else if (status >= 400) {
+            rejected.increment();
+        }
+    }
+
+    Histogram getLatencies() {
+        return latencies;
+    }
+
+    long getRejected() {
+        return rejected.sum();
+    }
+
+    long getFailed() {
+        return failed.sum();
+    }
+}
@@ -0,0 +1,309 @@
+package com.adamkleo.benchmarks.load;
+
+import com.adamkleo.benchmarks.dataset.SpanishNames;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Closed-loop load: each virtual user runs one frontend flow at a time, waits
+ * for every request of it, optionally thinks, and starts the next one. The flows
+ * and their weights mirror what the Vue pages call:
+ *
+ * <ul>
+ *   <li>25% employee list page: {@code GET /employees/paginated}</li>
+ *   <li>10% employee list with "load more": {@code GET /employees/cursor}, then one to
+ *       three more pages following {@code nextCursor}</li>
+ *   <li>20% project list: {@code GET /projects}</li>
+ *   <li>25% project assignment page: {@code GET /projects}, then {@code /employees/basic}
+ *       and {@code /assignments/project/{id}} in parallel</li>
+ *   <li>10% assign and 6% unassign, each followed by the reloads the page does</li>
+ *   <li>3% new employee, then back to the first list page</li>
+ *   <li>1% terminate (of an employee the same user created), then {@code GET /employees}</li>
+ * </ul>
+ *
+ * Nothing is recorded during the warm-up.
+ */
+public class LoadDriver {
+
+    private static final int[] FLOW_WEIGHTS = {25, 10, 20, 25, 10, 6, 3, 1};
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final URI baseUri;
+    private final int users;
+    private final Duration warmup;
+    private final Duration duration;
+    private final Duration thinkTime;
+    private final long seed;
+    private final int employees;
+    private final int projects;
+    private final HttpClient client;
+    private final Map<String, EndpointStats> stats = new ConcurrentHashMap<>();
+
+    private volatile boolean recording;
+    private volatile boolean running;
+
+    public LoadDriver(URI baseUri, int users, Duration warmup, Duration duration, Duration thinkTime,
+                      long seed, int employees, int projects) {
+        this.baseUri = baseUri;
+        this.users = users;
+        this.warmup = warmup;
+        this.duration = duration;
+        this.thinkTime = thinkTime;
+        this.seed = seed;
+        this.employees = employees;
+        this.projects = projects;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    public LoadReport run() throws InterruptedException {
+        running = true;
+        CountDownLatch finished = new CountDownLatch(users);
+        for (int i = 0; i < users; i++) {
+            VirtualUser user = new VirtualUser(new SplittableRandom(seed + i));
+            Thread thread = new Thread(() -> {
+                try {
+                    user.loop();
+                } finally {
+                    finished.countDown();
+                }
+            }, "load-user-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        Thread.sleep(warmup.toMillis());
+        stats.clear();
+        recording = true;
+        long started = System.nanoTime();
+        Thread.sleep(duration.toMillis());
+        recording = false;
+        double seconds = (System.nanoTime() - started) / 1e9;
+        running = false;
+        finished.await();
+        return new LoadReport(users, seconds, new TreeMap<>(stats));
+    }
+
+    private class VirtualUser {
+
+        private final SplittableRandom random;
+        private final List<int[]> ownAssignments = new ArrayList<>();
+        private final List<Integer> ownEmployees = new ArrayList<>();
+
+        VirtualUser(SplittableRandom random) {
+            this.random = random;
+        }
+
+        void loop() {
+            while (running) {
+                try {
+                    runFlow(pickFlow());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                if (!thinkTime.isZero()) {
+                    try {
+                        Thread.sleep(thinkTime.toMillis());
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }
+        }
+
+        private int pickFlow() {
+            int roll = random.nextInt(100);
+            for (int flow = 0; flow < FLOW_WEIGHTS.length; flow++) {
+                roll -= FLOW_WEIGHTS[flow];
+                if (roll < 0) {
+                    return flow;
+                }
+            }
+            return 0;
+        }
+
+        private void runFlow(int flow) throws InterruptedException {
+            int projectId = 1 + random.nextInt(projects);
+            switch (flow) {
+                case 0 -> employeePage(random.nextInt(20));
+                case 1 -> employeeCursorPages(2 + random.nextInt(3));
+                case 2 -> call("GET /projects", get("/projects"));
+                case 3 -> {
+                    call("GET /projects", get("/projects"));
+                    assignmentPage(projectId);
+                }
+                case 4 -> {
+                    int employeeId = 1 + random.nextInt(employees);
+                    int status = call("POST /assignments/{p}/assign/{e}",
+                            send("POST", "/assignments/" + projectId + "/assign/" + employeeId, null));
+                    if (status == 200) {
+                        ownAssignments.add(new int[]{projectId, employeeId});
+                    }
+                    assignmentPage(projectId);
+                }
+                case 5 -> {
+                    if (ownAssignments.isEmpty()) {
+                        assignmentPage(projectId);
+                        return;
+                    }
+                    int[] assignment = ownAssignments.remove(ownAssignments.size() - 1);
+                    call("DELETE /assignments/{p}/unassign/{e}",
+                            send("DELETE", "/assignments/" + assignment[0] + "/unassign/" + assignment[1], null));
+                    assignmentPage(assignment[0]);
+                }
+                case 6 -> {
+                    HttpResponse<String> created = callForBody("POST /employees", send("POST", "/employees", newEmployeeJson()));
+                    Integer id = created == null ? null : idOf(created.body());
+                    if (id != null) {
+                        ownEmployees.add(id);
+                    }
+                    employeePage(0);
+                }
+                default -> {
+                    if (ownEmployees.isEmpty()) {
+                        employeePage(0);
+                        return;
+                    }
+                    int employeeId = ownEmployees.remove(ownEmployees.size() - 1);
+                    call("PUT /employees/{id}/terminate", send("PUT", "/employees/" + employeeId + "/terminate", null));
+                    call("GET /employees", get("/employees"));
+                }
+            }
+        }
+
+        private void employeePage(int page) throws InterruptedException {
+            call("GET /employees/paginated", get("/employees/paginated?page=" + page + "&size=10"));
+        }
+
+        private void employeeCursorPages(int pages) throws InterruptedException {
+            String cursor = null;
+            for (int page = 0; page < pages; page++) {
+                String path = "/employees/cursor?size=10"
+                        + (cursor == null ? "" : "&cursor=" + URLEncoder.encode(cursor, StandardCharsets.UTF_8));
+                HttpResponse<String> response = callForBody("GET /employees/cursor", get(path));
+                cursor = response == null ? null : nextCursorOf(response.body());
+                if (cursor == null) {
+                    return;
+                }
+            }
+        }
+
+        // ProjectAssignment.vue loads both lists with Promise.all
+        private void assignmentPage(int projectId) throws InterruptedException {
+            CompletableFuture<Void> basic = callAsync("GET /employees/basic", get("/employees/basic"));
+            CompletableFuture<Void> assigned = callAsync("GET /assignments/project/{id}", get("/assignments/project/" + projectId));
+            CompletableFuture.allOf(basic, assigned).join();
+        }
+
+        private String newEmployeeJson() {
+            LocalDate today = LocalDate.now();
+            int nif = random.nextInt(100_000_000);
+            return "{\"nif\":\"" + SpanishNames.nif(nif) + "\","
+                    + "\"firstName\":\"" + SpanishNames.firstName(random) + "\","
+                    + "\"lastName1\":\"" + SpanishNames.lastName(random) + "\","
+                    + "\"lastName2\":\"" + SpanishNames.lastName(random) + "\","
+                    + "\"birthDate\":\"" + today.minusYears(20 + random.nextInt(40)) + "\","
+                    + "\"phone1\":\"6" + (10_000_000 + random.nextInt(90_000_000)) + "\","
+                    + "\"phone2\":\"9" + (10_000_000 + random.nextInt(90_000_000)) + "\","
+                    + "\"email\":\"carga" + nif + "@empresa.es\","
+                    + "\"startDate\":\"" + today + "\","
+                    + "\"civilStatus\":\"S\",\"universityEducation\":\"N\"}";
+        }
+    }
+
+    private HttpRequest get(String path) {
+        return send("GET", path, null);
+    }
+
+    // Browsers always accept gzip, the snapshot cache serves it when asked
+    private HttpRequest send(String method, String path, String json) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(baseUri.resolve(path))
+                .timeout(Duration.ofSeconds(60))
+                .header("Accept-Encoding", "gzip");
+        if (json == null) {
+            builder.method(method, HttpRequest.BodyPublishers.noBody());
+        } else {
+            builder.header("Content-Type", "application/json").method(method, HttpRequest.BodyPublishers.ofString(json));
+        }
+        return builder.build();
+    }
+
+    private int call(String endpoint, HttpRequest request) throws InterruptedException {
+        long started = System.nanoTime();
+        int status;
+        try {
+            status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException e) {
+            status = -1;
+        }
+        record(endpoint, started, status);
+        return status;
+    }
+
+    private HttpResponse<String> callForBody(String endpoint, HttpRequest request) throws InterruptedException {
+        long started = System.nanoTime();
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            record(endpoint, started, response.statusCode());
+            return response.statusCode() == 200 ? response : null;
+        } catch (IOException e) {
+            record(endpoint, started, -1);
+            return null;
+        }
+    }
+
+    private CompletableFuture<Void> callAsync(String endpoint, HttpRequest request) {
+        long started = System.nanoTime();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .handle((response, error) -> {
+                    record(endpoint, started, error == null ? response.statusCode() : -1);
+                    return null;
+                });
+    }
+
+    private void record(String endpoint, long started, int status) {
+        if (recording) {
+            stats.computeIfAbsent(endpoint, name -> new EndpointStats())
+                    .record((System.nanoTime() - started) / 1000, status);
+        }
+    }
+
+    private static String nextCursorOf(String json) {
+        try {
+            JsonNode next = JSON.readTree(json).path("nextCursor");
+            return next.isTextual() ? next.textValue() : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static Integer idOf(String json) {
+        try {
+            JsonNode id = JSON.readTree(json).path("id");
+            return id.canConvertToInt() ? id.intValue() : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
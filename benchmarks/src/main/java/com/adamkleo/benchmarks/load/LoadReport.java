@@ -0,0 +1,141 @@
+package com.adamkleo.benchmarks.load;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Throughput and latency percentiles per endpoint for one load run. Serialized
+ * as JSON by {@link ScaleHarness} so runs can be compared.
+ */
+public class LoadReport {
+
+    private final int users;
+    private final double seconds;
+    private final List<EndpointLine> endpoints = new ArrayList<>();
+
+    LoadReport(int users, double seconds, Map<String, EndpointStats> stats) {
+        this.users = users;
+        this.seconds = seconds;
+        stats.forEach((name, endpoint) -> endpoints.add(new EndpointLine(name, endpoint, seconds)));
+    }
+
+    public int getUsers() {
+        return users;
+    }
+
+    public double getSeconds() {
+        return seconds;
+    }
+
+    public List<EndpointLine> getEndpoints() {
+        return endpoints;
+    }
+
+    public String toTable() {
+        StringBuilder table = new StringBuilder(String.format("%-36s %9s %9s %8s %8s %8s %8s %9s %8s %7s%n",
+                "Endpoint", "Requests", "Req/s", "p50 ms", "p90 ms", "p99 ms", "p999 ms", "Max ms", "4xx", "Errors"));
+        for (EndpointLine line : endpoints) {
+            table.append(String.format("%-36s %9d %9.1f %8.2f %8.2f %8.2f %8.2f %9.2f %8d %7d%n",
+                    line.endpoint, line.requests, line.throughput, line.p50, line.p90, line.p99, line.p999,
+                    line.max, line.rejected, line.errors));
+        }
+        return table.toString();
+    }
+
+    // Throughput, p50, p99 and errors of each endpoint, one group of columns per report
+    public static String compare(Map<String, LoadReport> reports) {
+        Map<String, Map<String, EndpointLine>> rows = new TreeMap<>();
+        StringBuilder header = new StringBuilder(String.format("%-36s", "Endpoint"));
+        for (Map.Entry<String, LoadReport> report : reports.entrySet()) {
+            header.append(String.format(" | %9s %9s %9s %7s", report.getKey() + " r/s", "p50 ms", "p99 ms", "Errors"));
+            for (EndpointLine line : report.getValue().endpoints) {
+                rows.computeIfAbsent(line.endpoint, endpoint -> new HashMap<>()).put(report.getKey(), line);
+            }
+        }
+        StringBuilder table = new StringBuilder(header).append(System.lineSeparator());
+        rows.forEach((endpoint, lines) -> {
+            table.append(String.format("%-36s", endpoint));
+            for (String name : reports.keySet()) {
+                EndpointLine line = lines.get(name);
+                table.append(line == null
+                        ? String.format(" | %9s %9s %9s %7s", "-", "-", "-", "-")
+                        : String.format(" | %9.1f %9.2f %9.2f %7d", line.throughput, line.p50, line.p99, line.errors));
+            }
+            table.append(System.lineSeparator());
+        });
+        return table.toString();
+    }
+
+    public static class EndpointLine {
+
+        private final String endpoint;
+        private final long requests;
+        private final double throughput;
+        private final double p50;
+        private final double p90;
+        private final double p99;
+        private final double p999;
+        private final double max;
+        private final long rejected;
+        private final long errors;
+
+        EndpointLine(String endpoint, EndpointStats stats, double seconds) {
+            Histogram latencies = stats.getLatencies();
+            this.endpoint = endpoint;
+            this.requests = latencies.getTotalCount();
+            this.throughput = requests / seconds;
+            this.p50 = latencies.getValueAtPercentile(50) / 1000.0;
+            this.p90 = latencies.getValueAtPercentile(90) / 1000.0;
+            this.p99 = latencies.getValueAtPercentile(99) / 1000.0;
+            this.p999 = latencies.getValueAtPercentile(99.9) / 1000.0;
+            this.max = latencies.getMaxValue() / 1000.0;
+            this.rejected = stats.getRejected();
+            this.errors = stats.getFailed();
+        }
+
+        public String getEndpoint() {
+            return endpoint;
+        }
+
+        public long getRequests() {
+            return requests;
+        }
+
+        public double getThroughput() {
+            return throughput;
+        }
+
+        public double getP50() {
+            return p50;
+        }
+
+        public double getP90() {
+            return p90;
+        }
+
+        public double getP99() {
+            return p99;
+        }
+
+        public double getP999() {
+            return p999;
+        }
+
+        public double getMax() {
+            return max;
+        }
+
+        public long getRejected() {
+            return rejected;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+    }
+}
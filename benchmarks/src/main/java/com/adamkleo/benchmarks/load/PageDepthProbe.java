@@ -0,0 +1,102 @@
+package com.adamkleo.benchmarks.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * Page latency by depth in the active employee list. One client walks the whole list
+ * with {@code GET /employees/cursor}, following {@code nextCursor}, and the pages are
+ * grouped into tenths of the list by position. At the start of every tenth it also
+ * requests the same page with {@code GET /employees/paginated} (OFFSET and COUNT) a
+ * few times. Cursor pages should take the same time at any depth, offset pages grow
+ * with it.
+ */
+class PageDepthProbe {
+
+    static final int TENTHS = 10;
+    private static final int WARMUP_REQUESTS = 50;
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final URI baseUri;
+    private final int pageSize;
+    private final int offsetSamples;
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    PageDepthProbe(URI baseUri, int pageSize, int offsetSamples) {
+        this.baseUri = baseUri;
+        this.pageSize = pageSize;
+        this.offsetSamples = offsetSamples;
+    }
+
+    PageDepthReport run() throws IOException, InterruptedException {
+        long total = get("/employees/cursor?size=1&includeTotal=true").path("totalElements").longValue();
+        long pages = Math.max(1, (total + pageSize - 1) / pageSize);
+        EndpointStats[] cursor = newStats();
+        EndpointStats[] offset = newStats();
+
+        // Both kinds of page compiled and cached before anything is timed
+        for (int i = 0; i < WARMUP_REQUESTS; i++) {
+            get("/employees/cursor?size=" + pageSize);
+            get("/employees/paginated?page=0&size=" + pageSize);
+        }
+
+        for (int tenth = 0; tenth < TENTHS; tenth++) {
+            long page = pages * tenth / TENTHS;
+            for (int i = 0; i < offsetSamples; i++) {
+                long started = System.nanoTime();
+                get("/employees/paginated?page=" + page + "&size=" + pageSize);
+                offset[tenth].record((System.nanoTime() - started) / 1000, 200);
+            }
+        }
+
+        String next = null;
+        long page = 0;
+        do {
+            String path = "/employees/cursor?size=" + pageSize
+                    + (next == null ? "" : "&cursor=" + URLEncoder.encode(next, StandardCharsets.UTF_8));
+            long started = System.nanoTime();
+            JsonNode body = get(path);
+            int tenth = (int) Math.min(TENTHS - 1, page * TENTHS / pages);
+            cursor[tenth].record((System.nanoTime() - started) / 1000, 200);
+            next = body.path("hasNext").booleanValue() ? body.path("nextCursor").textValue() : null;
+            page++;
+            if (page % Math.max(1, pages / TENTHS) == 0) {
+                System.out.printf("  %d of %d pages%n", page, pages);
+            }
+        } while (next != null);
+
+        return new PageDepthReport(total, pageSize, page, cursor, offset);
+    }
+
+    private JsonNode get(String path) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = client.send(HttpRequest.newBuilder(baseUri.resolve(path))
+                .timeout(Duration.ofMinutes(5))
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(path + " answered " + response.statusCode());
+        }
+        return JSON.readTree(response.body());
+    }
+
+    private static EndpointStats[] newStats() {
+        EndpointStats[] stats = new EndpointStats[TENTHS];
+        for (int i = 0; i < TENTHS; i++) {
+            stats[i] = new EndpointStats();
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,91 @@
+package com.adamkleo.benchmarks.load;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Page latency per tenth of the active employee list, for cursor and offset pages.
+ * Serialized as JSON by {@link ScaleHarness} so runs can be compared.
+ */
+public class PageDepthReport {
+
+    private final long activeEmployees;
+    private final int pageSize;
+    private final long cursorPages;
+    private final List<Tenth> tenths = new ArrayList<>();
+
+    PageDepthReport(long activeEmployees, int pageSize, long cursorPages, EndpointStats[] cursor, EndpointStats[] offset) {
+        this.activeEmployees = activeEmployees;
+        this.pageSize = pageSize;
+        this.cursorPages = cursorPages;
+        for (int i = 0; i < cursor.length; i++) {
+            tenths.add(new Tenth(i, cursor[i].getLatencies(), offset[i].getLatencies()));
+        }
+    }
+
+    public String toTable() {
+        StringBuilder table = new StringBuilder(String.format(
+                "%d active employees, %d pages of %d%n%-8s %16s %16s %16s %16s%n", activeEmployees, cursorPages, pageSize,
+                "Depth", "Cursor p50 ms", "Cursor p99 ms", "Offset p50 ms", "Offset p99 ms"));
+        for (Tenth tenth : tenths) {
+            table.append(String.format("%3d%%     %16.2f %16.2f %16.2f %16.2f%n", tenth.fromPercent,
+                    tenth.cursorP50, tenth.cursorP99, tenth.offsetP50, tenth.offsetP99));
+        }
+        return table.toString();
+    }
+
+    public long getActiveEmployees() {
+        return activeEmployees;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public long getCursorPages() {
+        return cursorPages;
+    }
+
+    public List<Tenth> getTenths() {
+        return tenths;
+    }
+
+    public static class Tenth {
+
+        private final int fromPercent;
+        private final double cursorP50;
+        private final double cursorP99;
+        private final double offsetP50;
+        private final double offsetP99;
+
+        Tenth(int index, Histogram cursor, Histogram offset) {
+            this.fromPercent = index * 100 / PageDepthProbe.TENTHS;
+            this.cursorP50 = cursor.getValueAtPercentile(50) / 1000.0;
+            this.cursorP99 = cursor.getValueAtPercentile(99) / 1000.0;
+            this.offsetP50 = offset.getValueAtPercentile(50) / 1000.0;
+            this.offsetP99 = offset.getValueAtPercentile(99) / 1000.0;
+        }
+
+        public int getFromPercent() {
+            return fromPercent;
+        }
+
+        public double getCursorP50() {
+            return cursorP50;
+        }
+
+        public double getCursorP99() {
+            return cursorP99;
+        }
+
+        public double getOffsetP50() {
+            return offsetP50;
+        }
+
+        public double getOffsetP99() {
+            return offsetP99;
+        }
+    }
+}
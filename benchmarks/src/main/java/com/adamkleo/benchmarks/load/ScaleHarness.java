@@ -0,0 +1,206 @@
+package com.adamkleo.benchmarks.load;
+
+import com.adamkleo.backend.ProjectManagementAppApplication;
+import com.adamkleo.backend.index.AssignmentIndex;
+import com.adamkleo.backend.index.EmployeeSearchIndex;
+import com.adamkleo.backend.stats.WorkforceStatistics;
+import com.adamkleo.benchmarks.dataset.DatasetGenerator;
+import com.adamkleo.benchmarks.dataset.DatasetSummary;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Command line entry point for scale tests. Three ways to use it:
+ *
+ * <ul>
+ *   <li>Default: start the backend on a random port over an embedded H2 database,
+ *       load the synthetic dataset and run the load driver against it.</li>
+ *   <li>{@code --jdbc-url=...}: only load the dataset into an existing, empty
+ *       database (for example a local MySQL), then drive {@code --target} if given.</li>
+ *   <li>{@code --target=http://host:port}: only run the load driver against a running backend.</li>
+ *   <li>{@code --compare-threads=true}: the default run twice, with {@code spring.threads.virtual.enabled}
+ *       off and then on, each over its own freshly loaded database, and the two reports side by side.
+ *       Needs JDK 21, on 17 the property would be ignored and both runs would use platform threads.
+ *       Users default to 1000, and the depth probe is skipped.</li>
+ * </ul>
+ *
+ * Before the load, a {@link PageDepthProbe} walks the active employee list page by page
+ * and reports the page latency by depth, for cursor and offset pages.
+ *
+ * <p>Options (defaults in brackets): employees [100000], projects [2000], assignments [1000000],
+ * seed [42], batch-size [5000], users [100], warmup seconds [10], duration seconds [60],
+ * think-ms [0], h2-file [in memory], report [target/load-report.json], depth-probe [true],
+ * probe-page-size [100], probe-offset-samples [5], depth-report [target/page-depth-report.json],
+ * compare-threads [false], comparison-report [target/thread-comparison-report.json].
+ */
+public class ScaleHarness {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        int employees = Integer.parseInt(options.getOrDefault("employees", "100000"));
+        int projects = Integer.parseInt(options.getOrDefault("projects", "2000"));
+        long assignments = Long.parseLong(options.getOrDefault("assignments", "1000000"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        int batchSize = Integer.parseInt(options.getOrDefault("batch-size", "5000"));
+        DatasetGenerator generator = new DatasetGenerator(seed, employees, projects, assignments, batchSize);
+
+        if (Boolean.parseBoolean(options.getOrDefault("compare-threads", "false"))) {
+            compareThreads(options, generator, seed, employees, projects);
+            return;
+        }
+
+        String target = options.get("target");
+        ConfigurableApplicationContext context = null;
+        try {
+            if (options.containsKey("jdbc-url")) {
+                try (HikariDataSource dataSource = new HikariDataSource()) {
+                    dataSource.setJdbcUrl(options.get("jdbc-url"));
+                    dataSource.setUsername(options.getOrDefault("jdbc-user", "root"));
+                    dataSource.setPassword(options.getOrDefault("jdbc-password", ""));
+                    dataSource.addDataSourceProperty("rewriteBatchedStatements", "true");
+                    System.out.println("Loaded " + generator.load(dataSource));
+                }
+            } else if (target == null) {
+                context = startLoaded(generator, "PRACTICA", options.get("h2-file"), false);
+                target = targetOf(context);
+            }
+            if (target == null) {
+                return;
+            }
+
+            if (Boolean.parseBoolean(options.getOrDefault("depth-probe", "true"))) {
+                PageDepthProbe probe = new PageDepthProbe(URI.create(target + "/"),
+                        Integer.parseInt(options.getOrDefault("probe-page-size", "100")),
+                        Integer.parseInt(options.getOrDefault("probe-offset-samples", "5")));
+                System.out.println("Walking the employee list of " + target);
+                PageDepthReport depthReport = probe.run();
+                System.out.print(depthReport.toTable());
+                write(depthReport, options.getOrDefault("depth-report", "target/page-depth-report.json"));
+            }
+
+            LoadReport report = drive(target, options, "100", seed, employees, projects);
+            System.out.print(report.toTable());
+
+            write(report, options.getOrDefault("report", "target/load-report.json"));
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    private static void compareThreads(Map<String, String> options, DatasetGenerator generator,
+                                       long seed, int employees, int projects) throws Exception {
+        if (Runtime.version().feature() < 21) {
+            throw new IllegalStateException("--compare-threads needs JDK 21 for virtual threads, this is JDK "
+                    + Runtime.version().feature());
+        }
+        Map<String, LoadReport> reports = new LinkedHashMap<>();
+        for (boolean virtualThreads : new boolean[]{false, true}) {
+            String threads = virtualThreads ? "virtual" : "platform";
+            // Each run over its own database, so the second does not see the rows the first one wrote
+            String h2File = options.containsKey("h2-file") ? options.get("h2-file") + "-" + threads : null;
+            try (ConfigurableApplicationContext context = startLoaded(generator, "PRACTICA_" + threads.toUpperCase(),
+                    h2File, virtualThreads)) {
+                System.out.println("Request threads: " + threads);
+                LoadReport report = drive(targetOf(context), options, "1000", seed, employees, projects);
+                System.out.print(report.toTable());
+                reports.put(threads, report);
+            }
+        }
+        System.out.print(LoadReport.compare(reports));
+        write(reports, options.getOrDefault("comparison-report", "target/thread-comparison-report.json"));
+    }
+
+    private static LoadReport drive(String target, Map<String, String> options, String defaultUsers,
+                                    long seed, int employees, int projects) throws InterruptedException {
+        String users = options.getOrDefault("users", defaultUsers);
+        LoadDriver driver = new LoadDriver(URI.create(target + "/"),
+                Integer.parseInt(users),
+                Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "10"))),
+                Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "60"))),
+                Duration.ofMillis(Long.parseLong(options.getOrDefault("think-ms", "0"))),
+                seed, employees, projects);
+        System.out.println("Driving " + target + " with " + users + " users");
+        return driver.run();
+    }
+
+    private static ConfigurableApplicationContext startLoaded(DatasetGenerator generator, String database,
+                                                              String h2File, boolean virtualThreads)
+            throws SQLException {
+        ConfigurableApplicationContext context = startEmbedded(database, h2File, virtualThreads);
+        DatasetSummary summary = generator.load(context.getBean(DataSource.class));
+        System.out.println("Loaded " + summary);
+        // The rows bypassed the services, so rebuild what normally follows their events
+        AssignmentIndex assignmentIndex = context.getBean(AssignmentIndex.class);
+        assignmentIndex.rebuild();
+        context.getBean(EmployeeSearchIndex.class).rebuild();
+        context.getBean(WorkforceStatistics.class).rebuild();
+        // Bytes per assignment is also MB per million
+        System.out.printf("Assignment index: %,d assignments in %.1f MB (%.1f MB per million)%n",
+                assignmentIndex.size(), assignmentIndex.estimatedBytes() / 1e6,
+                (double) assignmentIndex.estimatedBytes() / Math.max(1, assignmentIndex.size()));
+        return context;
+    }
+
+    private static String targetOf(ConfigurableApplicationContext context) {
+        return "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+    }
+
+    private static void write(Object report, String path) throws IOException {
+        File file = new File(path);
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, report);
+        System.out.println("Report written to " + file);
+    }
+
+    private static ConfigurableApplicationContext startEmbedded(String database, String h2File, boolean virtualThreads) {
+        if (h2File != null) {
+            // The generator expects empty tables, the migrations recreate them
+            new File(new File(h2File).getAbsolutePath() + ".mv.db").delete();
+        }
+        String url = (h2File == null ? "jdbc:h2:mem:" + database : "jdbc:h2:file:" + new File(h2File).getAbsolutePath())
+                + ";MODE=MySQL;DB_CLOSE_DELAY=-1;INIT=CREATE SCHEMA IF NOT EXISTS PRACTICA\\;SET SCHEMA PRACTICA";
+        return new SpringApplicationBuilder(ProjectManagementAppApplication.class)
+                .run("--server.port=0",
+                        "--spring.datasource.url=" + url,
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.show-sql=false",
+                        "--app.database.create-on-startup=false",
+                        // A scheduled rebuild of an index would share the CPU with the timed requests
+                        "--app.search-index.reconcile-cron=-",
+                        "--app.assignment-index.reconcile-cron=-",
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--logging.level.root=WARN");
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        return options;
+    }
+}
@@ -0,0 +1,195 @@
+package com.adamkleo.benchmarks.pool;
+
+import com.adamkleo.backend.ProjectManagementAppApplication;
+import com.adamkleo.backend.metrics.StatementCountingDataSource;
+import com.adamkleo.backend.repository.EmployeeRepository;
+import com.adamkleo.backend.service.EmployeeService;
+import com.adamkleo.benchmarks.BenchmarkData;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per-request latency of {@code GET /employees} with the HikariCP pool the backend
+ * uses and with the {@code DriverManagerDataSource} it replaced, which opened a new
+ * connection for every transaction. {@code GET /employees/paginated} is measured too:
+ * it always runs its queries, while {@code GET /employees} is mostly served from the
+ * snapshot cache. The table versions are read on every request
+ * ({@code app.snapshot-cache.versions-max-age=0s}), so each {@code GET /employees}
+ * still takes one connection.
+ *
+ * <p>The backend runs in this JVM, by default over an in-memory H2 database, where
+ * opening a connection is cheap. With {@code --jdbc-url} it runs against that MySQL
+ * database instead, which is where the TCP and authentication handshakes show.
+ *
+ * <p>Options (defaults in brackets): requests [2000], warmup [1000], clients [8],
+ * employees [200], rounds [2], jdbc-url, jdbc-user [root], jdbc-password [], report [target/pool-report.json].
+ */
+public class PoolBenchmark {
+
+    private static final String[] ENDPOINTS = {"/employees", "/employees/paginated?page=0&size=20"};
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        int requests = Integer.parseInt(options.getOrDefault("requests", "2000"));
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "1000"));
+        int clients = Integer.parseInt(options.getOrDefault("clients", "8"));
+        int employees = Integer.parseInt(options.getOrDefault("employees", "200"));
+
+        int rounds = Integer.parseInt(options.getOrDefault("rounds", "2"));
+
+        // Both data sources share the JVM, so only the last round is kept, once the JIT has settled for both
+        PoolReport report = new PoolReport(requests, clients);
+        for (int round = 0; round < rounds; round++) {
+            for (boolean pooled : new boolean[]{false, true}) {
+                ConfigurableApplicationContext context = startEmbedded(pooled, round, options);
+                try {
+                    seed(context, employees);
+                    URI base = URI.create("http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort());
+                    for (String endpoint : ENDPOINTS) {
+                        run(base.resolve(endpoint), clients, warmup);
+                        List<Double> latencies = run(base.resolve(endpoint), clients, requests);
+                        if (round == rounds - 1) {
+                            report.add(new PoolReport.Line(pooled, endpoint, latencies));
+                        }
+                        System.out.printf("Round %d, %s %s: %d requests%n", round + 1,
+                                pooled ? "HikariCP" : "DriverManager", endpoint, latencies.size());
+                    }
+                } finally {
+                    context.close();
+                }
+            }
+        }
+        System.out.print(report.toTable());
+
+        File file = new File(options.getOrDefault("report", "target/pool-report.json"));
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, report);
+        System.out.println("Report written to " + file);
+    }
+
+    // Closed loop: each client sends its next request once the previous one has been answered
+    private static List<Double> run(URI uri, int clients, int requests) throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(uri).header("Accept-Encoding", "gzip").GET().build();
+        List<Double> latencies = Collections.synchronizedList(new ArrayList<>(requests));
+        AtomicInteger remaining = new AtomicInteger(requests);
+        ExecutorService callers = Executors.newFixedThreadPool(clients);
+        try {
+            List<Future<?>> running = new ArrayList<>();
+            for (int i = 0; i < clients; i++) {
+                running.add(callers.submit(() -> {
+                    while (remaining.getAndDecrement() > 0) {
+                        long sent = System.nanoTime();
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() != 200) {
+                            throw new IllegalStateException(uri + " answered " + response.statusCode());
+                        }
+                        latencies.add((System.nanoTime() - sent) / 1_000_000.0);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> caller : running) {
+                caller.get();
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+        return latencies;
+    }
+
+    // A MySQL database is shared by both runs, it is only filled once
+    private static void seed(ConfigurableApplicationContext context, int employees) {
+        long existing = context.getBean(EmployeeRepository.class).count();
+        if (existing < employees) {
+            context.getBean(EmployeeService.class).addEmployees(
+                    BenchmarkData.employees(employees, false).subList((int) existing, employees));
+        }
+    }
+
+    private static ConfigurableApplicationContext startEmbedded(boolean pooled, int round, Map<String, String> options) {
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.jpa.show-sql=false",
+                "--app.snapshot-cache.versions-max-age=0s",
+                "--logging.level.root=WARN"));
+        String jdbcUrl = options.get("jdbc-url");
+        if (jdbcUrl == null) {
+            // Its own database per run, an in-memory H2 database outlives the context
+            args.addAll(List.of(
+                    "--spring.datasource.url=jdbc:h2:mem:" + (pooled ? "pooled" : "unpooled") + round + ";MODE=MySQL;DB_CLOSE_DELAY=-1;"
+                            + "INIT=CREATE SCHEMA IF NOT EXISTS PRACTICA\\;SET SCHEMA PRACTICA",
+                    "--spring.datasource.username=sa",
+                    "--spring.datasource.password=",
+                    "--spring.datasource.driver-class-name=org.h2.Driver",
+                    "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                    "--app.database.create-on-startup=false"));
+        } else {
+            args.addAll(List.of(
+                    "--spring.datasource.url=" + jdbcUrl,
+                    "--spring.datasource.username=" + options.getOrDefault("jdbc-user", "root"),
+                    "--spring.datasource.password=" + options.getOrDefault("jdbc-password", "")));
+        }
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(ProjectManagementAppApplication.class);
+        if (!pooled) {
+            builder.initializers(context -> context.getBeanFactory().addBeanPostProcessor(
+                    unpooled(context.getEnvironment())));
+        }
+        return builder.run(args.toArray(String[]::new));
+    }
+
+    // Swaps the pool for what DatabaseConfig built before it, the pool is never started
+    private static BeanPostProcessor unpooled(Environment env) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!beanName.equals("dataSource") || !(bean instanceof DataSource)) {
+                    return bean;
+                }
+                DriverManagerDataSource driverManager = new DriverManagerDataSource(env.getProperty("spring.datasource.url"),
+                        env.getProperty("spring.datasource.username"), env.getProperty("spring.datasource.password"));
+                driverManager.setDriverClassName(env.getProperty("spring.datasource.driver-class-name"));
+                return new StatementCountingDataSource(driverManager);
+            }
+        };
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        return options;
+    }
+}
@@ -0,0 +1,97 @@
+package com.adamkleo.benchmarks.pool;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Results of a {@link PoolBenchmark} run, one line per data source and endpoint.
+ * Serialized as JSON so runs can be compared.
+ */
+public class PoolReport {
+
+    private final int requests;
+    private final int clients;
+    private final List<Line> lines = new ArrayList<>();
+
+    PoolReport(int requests, int clients) {
+        this.requests = requests;
+        this.clients = clients;
+    }
+
+    void add(Line line) {
+        lines.add(line);
+    }
+
+    public String toTable() {
+        StringBuilder table = new StringBuilder(String.format(
+                "%d requests per endpoint, %d clients%n%-14s %-36s %10s %10s %10s %10s%n", requests, clients,
+                "Data source", "Endpoint", "Mean ms", "p50 ms", "p90 ms", "p99 ms"));
+        for (Line line : lines) {
+            table.append(String.format("%-14s %-36s %10.2f %10.2f %10.2f %10.2f%n",
+                    line.pooled ? "HikariCP" : "DriverManager", line.endpoint,
+                    line.meanMillis, line.p50Millis, line.p90Millis, line.p99Millis));
+        }
+        return table.toString();
+    }
+
+    public int getRequests() {
+        return requests;
+    }
+
+    public int getClients() {
+        return clients;
+    }
+
+    public List<Line> getLines() {
+        return lines;
+    }
+
+    public static class Line {
+
+        private final boolean pooled;
+        private final String endpoint;
+        private final double meanMillis;
+        private final double p50Millis;
+        private final double p90Millis;
+        private final double p99Millis;
+
+        Line(boolean pooled, String endpoint, List<Double> latencies) {
+            this.pooled = pooled;
+            this.endpoint = endpoint;
+            List<Double> sorted = new ArrayList<>(latencies);
+            sorted.sort(null);
+            this.meanMillis = sorted.stream().mapToDouble(Double::doubleValue).average().orElse(0);
+            this.p50Millis = percentile(sorted, 0.50);
+            this.p90Millis = percentile(sorted, 0.90);
+            this.p99Millis = percentile(sorted, 0.99);
+        }
+
+        private static double percentile(List<Double> sorted, double quantile) {
+            return sorted.isEmpty() ? 0 : sorted.get(Math.min(sorted.size() - 1, (int) (sorted.size() * quantile)));
+        }
+
+        public boolean isPooled() {
+            return pooled;
+        }
+
+        public String getEndpoint() {
+            return endpoint;
+        }
+
+        public double getMeanMillis() {
+            return meanMillis;
+        }
+
+        public double getP50Millis() {
+            return p50Millis;
+        }
+
+        public double getP90Millis() {
+            return p90Millis;
+        }
+
+        public double getP99Millis() {
+            return p99Millis;
+        }
+    }
+}
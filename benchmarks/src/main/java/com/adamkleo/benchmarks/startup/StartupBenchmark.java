@@ -0,0 +1,164 @@
+package com.adamkleo.benchmarks.startup;
+
+import com.adamkleo.backend.ProjectManagementAppApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to first request: from launching a new JVM with the backend to the first
+ * successful response of an endpoint that reads the database. Each variant is started
+ * several times over a fresh in-memory H2 database and the times are reported.
+ *
+ * <p>Variants: {@code default}, {@code fast-startup} (the Spring profile) and
+ * {@code fast-startup-cds} (the profile plus a class-data-sharing archive, recorded
+ * by a training run before the measured ones).
+ *
+ * <p>Options (defaults in brackets): variants [default,fast-startup,fast-startup-cds],
+ * runs [5], path [/employees], timeout seconds [120], report [target/startup-report.json].
+ */
+public class StartupBenchmark {
+
+    private static final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(1))
+            .build();
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        List<String> variants = List.of(options.getOrDefault("variants", "default,fast-startup,fast-startup-cds").split(","));
+        int runs = Integer.parseInt(options.getOrDefault("runs", "5"));
+        String path = options.getOrDefault("path", "/employees");
+        Duration timeout = Duration.ofSeconds(Long.parseLong(options.getOrDefault("timeout", "120")));
+        File workDir = new File("target/startup");
+        workDir.mkdirs();
+
+        StartupReport report = new StartupReport(path);
+        for (String variant : variants) {
+            List<String> jvmOptions = new ArrayList<>();
+            String profile = variant.startsWith("fast-startup") ? "fast-startup" : null;
+            if (variant.endsWith("-cds")) {
+                File archive = new File(workDir, variant + ".jsa");
+                archive.delete();
+                System.out.println("Recording " + archive);
+                launch(List.of("-XX:ArchiveClassesAtExit=" + archive.getPath()), profile, path, timeout,
+                        new File(workDir, variant + "-training.log"));
+                if (!archive.isFile()) {
+                    throw new IllegalStateException("No CDS archive was written, see " + workDir + "/" + variant + "-training.log");
+                }
+                jvmOptions.add("-XX:SharedArchiveFile=" + archive.getPath());
+            } else if (!variant.equals("default") && !variant.equals("fast-startup")) {
+                throw new IllegalArgumentException("Unknown variant " + variant);
+            }
+
+            List<Double> millis = new ArrayList<>();
+            for (int run = 1; run <= runs; run++) {
+                double ms = launch(jvmOptions, profile, path, timeout, new File(workDir, variant + "-" + run + ".log"));
+                System.out.printf("%-20s run %d: %.0f ms%n", variant, run, ms);
+                millis.add(ms);
+            }
+            report.add(variant, millis);
+        }
+        System.out.print(report.toTable());
+
+        File file = new File(options.getOrDefault("report", "target/startup-report.json"));
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, report);
+        System.out.println("Report written to " + file);
+    }
+
+    // Starts the backend, waits for the first 200 on the path and stops it again (SIGTERM, so a CDS archive is written)
+    private static double launch(List<String> jvmOptions, String profile, String path, Duration timeout, File log)
+            throws IOException, InterruptedException {
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(new File(System.getProperty("java.home"), "bin/java").getPath());
+        command.addAll(jvmOptions);
+        command.add("-cp");
+        command.add(applicationClassPath());
+        command.add(ProjectManagementAppApplication.class.getName());
+        command.add("--server.port=" + port);
+        command.add("--spring.datasource.url=jdbc:h2:mem:PRACTICA;MODE=MySQL;DB_CLOSE_DELAY=-1;"
+                + "INIT=CREATE SCHEMA IF NOT EXISTS PRACTICA\\;SET SCHEMA PRACTICA");
+        command.add("--spring.datasource.username=sa");
+        command.add("--spring.datasource.password=");
+        command.add("--spring.datasource.driver-class-name=org.h2.Driver");
+        command.add("--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect");
+        command.add("--spring.jpa.show-sql=false");
+        command.add("--app.database.create-on-startup=false");
+        if (profile != null) {
+            command.add("--spring.profiles.active=" + profile);
+        }
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log)
+                .start();
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET().build();
+            long deadline = start + timeout.toNanos();
+            while (System.nanoTime() < deadline) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("The backend exited during startup, see " + log);
+                }
+                try {
+                    if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return (System.nanoTime() - start) / 1_000_000.0;
+                    }
+                } catch (IOException e) {
+                    // Not listening yet
+                }
+                Thread.sleep(5);
+            }
+            throw new IllegalStateException("No response from " + path + " within " + timeout + ", see " + log);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(60, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    // Jars only: a class-data-sharing archive cannot be recorded with class directories on the class path
+    private static String applicationClassPath() {
+        List<String> jars = new ArrayList<>();
+        for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            if (entry.endsWith(".jar")) {
+                jars.add(entry);
+            }
+        }
+        return String.join(File.pathSeparator, jars);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        return options;
+    }
+}
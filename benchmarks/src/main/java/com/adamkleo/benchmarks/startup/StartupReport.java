@@ -0,0 +1,79 @@
+package com.adamkleo.benchmarks.startup;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Time to first request per startup variant. Serialized as JSON by
+ * {@link StartupBenchmark} so runs can be compared.
+ */
+public class StartupReport {
+
+    private final String path;
+    private final List<VariantLine> variants = new ArrayList<>();
+
+    StartupReport(String path) {
+        this.path = path;
+    }
+
+    void add(String variant, List<Double> millis) {
+        variants.add(new VariantLine(variant, millis));
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public List<VariantLine> getVariants() {
+        return variants;
+    }
+
+    public String toTable() {
+        StringBuilder table = new StringBuilder(String.format("%-20s %5s %9s %9s %9s%n",
+                "Variant", "Runs", "Min ms", "Median ms", "Max ms"));
+        for (VariantLine line : variants) {
+            table.append(String.format("%-20s %5d %9.0f %9.0f %9.0f%n",
+                    line.variant, line.millis.size(), line.min, line.median, line.max));
+        }
+        return table.toString();
+    }
+
+    public static class VariantLine {
+
+        private final String variant;
+        private final List<Double> millis;
+        private final double min;
+        private final double median;
+        private final double max;
+
+        VariantLine(String variant, List<Double> millis) {
+            List<Double> sorted = new ArrayList<>(millis);
+            sorted.sort(null);
+            this.variant = variant;
+            this.millis = millis;
+            this.min = sorted.get(0);
+            this.median = sorted.get(sorted.size() / 2);
+            this.max = sorted.get(sorted.size() - 1);
+        }
+
+        public String getVariant() {
+            return variant;
+        }
+
+        public List<Double> getMillis() {
+            return millis;
+        }
+
+        public double getMin() {
+            return min;
+        }
+
+        public double getMedian() {
+            return median;
+        }
+
+        public double getMax() {
+            return max;
+        }
+    }
+}
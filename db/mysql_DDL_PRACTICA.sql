@@ -38,4 +38,8 @@ CREATE TABLE PRACTICA.PR_EMPLEADOS_PROYECTO
 );
 
 ALTER TABLE PRACTICA.PR_EMPLEADOS_PROYECTO ADD CONSTRAINT FK_PR_EMPLEADOS_PROYECTO_EM_EMPLEADOS_01 FOREIGN KEY (ID_EMPLEADO) REFERENCES PRACTICA.EM_EMPLEADOS (ID_EMPLEADO);
-ALTER TABLE PRACTICA.PR_EMPLEADOS_PROYECTO ADD CONSTRAINT FK_PR_EMPLEADOS_PROYECTO_PR_PROYECTOS_02 FOREIGN KEY (ID_PROYECTO) REFERENCES PRACTICA.PR_PROYECTOS (ID_PROYECTO);
\ No newline at end of file
+ALTER TABLE PRACTICA.PR_EMPLEADOS_PROYECTO ADD CONSTRAINT FK_PR_EMPLEADOS_PROYECTO_PR_PROYECTOS_02 FOREIGN KEY (ID_PROYECTO) REFERENCES PRACTICA.PR_PROYECTOS (ID_PROYECTO);
+
+CREATE INDEX IX_PR_PROYECTOS_F_BAJA ON PRACTICA.PR_PROYECTOS (F_BAJA);
+-- InnoDB appends the primary key, so this also serves (F_BAJA, ID_EMPLEADO) keyset scans
+CREATE INDEX IX_EM_EMPLEADOS_F_BAJA ON PRACTICA.EM_EMPLEADOS (F_BAJA);
\ No newline at end of file
@@ -13,6 +13,8 @@ const baseURL = import.meta.env.VITE_API_BASE_URL || 'http://localhost:8080'; //
 // Create the Axios instance
 const apiClient = axios.create({
   baseURL: baseURL,
+  // Send and keep the backend's cookies (read-your-writes) on these cross-origin calls
+  withCredentials: true,
   headers: {
     'Content-Type': 'application/json',
     // You can add other default headers here if necessary
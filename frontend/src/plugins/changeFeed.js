@@ -0,0 +1,50 @@
+// src/plugins/changeFeed.js
+
+// Conexión única al flujo de cambios del backend (Server-Sent Events en /changes/stream).
+// Los stores se suscriben a los cambios de su entidad y los aplican a sus listas,
+// en lugar de volver a pedir la lista completa tras cada operación.
+
+const baseURL = import.meta.env.VITE_API_BASE_URL || "http://localhost:8080";
+
+const handlers = {
+  employees: new Set(),
+  projects: new Set(),
+  assignments: new Set(),
+};
+// Se llaman al reconectar: los cambios perdidos mientras tanto no se reenvían
+const resyncHandlers = new Set();
+
+let source = null;
+let connectedBefore = false;
+
+function connect() {
+  if (source) {
+    return;
+  }
+  source = new EventSource(`${baseURL}/changes/stream`);
+
+  source.addEventListener("subscribed", () => {
+    if (connectedBefore) {
+      resyncHandlers.forEach((handler) => handler());
+    }
+    connectedBefore = true;
+  });
+
+  for (const entity of Object.keys(handlers)) {
+    source.addEventListener(entity, (event) => {
+      const change = JSON.parse(event.data);
+      handlers[entity].forEach((handler) => handler(change));
+    });
+  }
+  // EventSource reconecta solo si se corta la conexión (por ejemplo, si el servidor nos desconecta por ir lentos)
+}
+
+// Registrar un manejador para los cambios de una entidad ("employees", "projects" o "assignments").
+// El manejador recibe { sequence, entity, operation, changes: [{ id, state }] }
+export function onChange(entity, handler, onResync) {
+  connect();
+  handlers[entity].add(handler);
+  if (onResync) {
+    resyncHandlers.add(onResync);
+  }
+}
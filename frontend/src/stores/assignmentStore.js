@@ -1,11 +1,22 @@
 import { defineStore } from "pinia";
 import apiClient from "@/plugins/axios";
+import { onChange } from "@/plugins/changeFeed";
+import { useEmployeeStore } from "@/stores/employeeStore";
+
+let listening = false;
+
+// Comparar dos ids de asignación ({ projectId, employeeId })
+function sameAssignment(a, b) {
+  return a.projectId === b.projectId && a.employeeId === b.employeeId;
+}
 
 // Definimos el store de asignaciones
 export const useAssignmentStore = defineStore("assignments", {
   state: () => ({
     // Lista de asignaciones cargadas desde el backend
     assignments: [],
+    // Proyecto cuyas asignaciones están cargadas (null si son todas)
+    projectId: null,
     // Indicador de carga para mostrar spinners o deshabilitar acciones
     isLoading: false,
     // Mensaje de error si ocurre un fallo en alguna petición
@@ -15,6 +26,8 @@ export const useAssignmentStore = defineStore("assignments", {
   actions: {
     // Obtener todas las asignaciones desde el backend
     async fetchAssignments() {
+      this.listenForChanges();
+      this.projectId = null;
       this.isLoading = true;
       this.error = null;
 
@@ -53,6 +66,8 @@ export const useAssignmentStore = defineStore("assignments", {
 
     // Obtener asignaciones relacionadas con un proyecto específico
     async fetchProjectAssignments(projectId) {
+      this.listenForChanges();
+      this.projectId = projectId;
       this.isLoading = true;
       this.error = null;
 
@@ -137,8 +152,11 @@ export const useAssignmentStore = defineStore("assignments", {
         const response = await apiClient.post(
           `/assignments/${projectId}/assign/${employeeId}`
         );
-        // Actualizamos las asignaciones del proyecto luego de la operación
-        await this.fetchProjectAssignments(projectId);
+        // Aplicamos la asignación en local, sin volver a pedir las del proyecto
+        this.applyChange({
+          operation: "CREATED",
+          changes: [{ id: { projectId, employeeId } }],
+        });
         return response.data;
       } catch (err) {
         console.error("No se pudo asignar el empleado al proyecto:", err);
@@ -166,8 +184,11 @@ export const useAssignmentStore = defineStore("assignments", {
         const response = await apiClient.delete(
           `/assignments/${projectId}/unassign/${employeeId}`
         );
-        // Actualizamos las asignaciones del proyecto luego de la operación
-        await this.fetchProjectAssignments(projectId);
+        // Quitamos la asignación en local, sin volver a pedir las del proyecto
+        this.applyChange({
+          operation: "DELETED",
+          changes: [{ id: { projectId, employeeId } }],
+        });
         return response.data;
       } catch (err) {
         console.error("No se pudo desasignar el empleado del proyecto:", err);
@@ -185,5 +206,82 @@ export const useAssignmentStore = defineStore("assignments", {
         this.isLoading = false;
       }
     },
+
+    // Sustituir todas las asignaciones de un proyecto por el conjunto de empleados indicado
+    async syncProjectAssignments(projectId, employeeIds) {
+      this.isLoading = true;
+      this.error = null;
+
+      try {
+        const response = await apiClient.put(
+          `/assignments/project/${projectId}`,
+          employeeIds
+        );
+        // Actualizamos las asignaciones del proyecto luego de la operación
+        await this.fetchProjectAssignments(projectId);
+        return response.data;
+      } catch (err) {
+        console.error("No se pudieron actualizar las asignaciones del proyecto:", err);
+        if (err.response) {
+          this.error = `Error ${err.response.status}: ${
+            err.response.data.message || "No se pudieron actualizar las asignaciones."
+          }`;
+        } else if (err.request) {
+          this.error = "Error de red: No se pudo contactar con el servidor.";
+        } else {
+          this.error = `Ocurrió un error inesperado: ${err.message}`;
+        }
+        throw new Error(this.error);
+      } finally {
+        this.isLoading = false;
+      }
+    },
+
+    // Suscribirse una sola vez a los cambios de asignaciones del backend
+    listenForChanges() {
+      if (listening) {
+        return;
+      }
+      listening = true;
+      onChange(
+        "assignments",
+        (change) => this.applyChange(change),
+        () => this.reloadAfterReconnect()
+      );
+    },
+
+    // Aplicar un cambio (del backend o de una operación propia) a las asignaciones cargadas
+    applyChange({ operation, changes }) {
+      if (operation === "DELETED") {
+        this.assignments = this.assignments.filter(
+          (a) => !changes.some((c) => sameAssignment(a.id, c.id))
+        );
+        return;
+      }
+      // Las nuevas solo se añaden a la vista de un proyecto, con el empleado de la lista básica
+      const basicEmployees = useEmployeeStore().basicEmployees;
+      for (const { id } of changes) {
+        if (
+          id.projectId !== this.projectId ||
+          this.assignments.some((a) => sameAssignment(a.id, id))
+        ) {
+          continue;
+        }
+        const employee = basicEmployees.find((e) => e.id === id.employeeId);
+        if (!employee) {
+          // Empleado que aún no conocemos: pedimos las asignaciones del proyecto
+          this.fetchProjectAssignments(this.projectId);
+          return;
+        }
+        this.assignments.push({ id, employee });
+      }
+    },
+
+    // Tras una reconexión se han podido perder cambios: recargar lo que ya estaba cargado
+    async reloadAfterReconnect() {
+      if (this.projectId !== null) {
+        await this.fetchProjectAssignments(this.projectId);
+      }
+    },
   },
 });
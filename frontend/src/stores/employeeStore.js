@@ -1,5 +1,6 @@
 import { defineStore } from "pinia";
 import apiClient from "@/plugins/axios"; // Cliente Axios configurado
+import { onChange } from "@/plugins/changeFeed"; // Cambios en directo del backend
 
 // Utilidad para traducir campos booleanos a texto legible
 function mapEmployee(employee) {
@@ -10,6 +11,10 @@ function mapEmployee(employee) {
   };
 }
 
+// Listas cargadas completas, a las que se pueden añadir los empleados nuevos que lleguen por el flujo de cambios
+const loaded = { employees: false, basicEmployees: false };
+let listening = false;
+
 export const useEmployeeStore = defineStore("employees", {
   // --- Estado ---
   state: () => ({
@@ -25,6 +30,7 @@ export const useEmployeeStore = defineStore("employees", {
   actions: {
     // Obtener todos los empleados
     async fetchEmployees() {
+      this.listenForChanges();
       this.isLoading = true;
       this.error = null;
 
@@ -33,6 +39,7 @@ export const useEmployeeStore = defineStore("employees", {
 
         if (Array.isArray(response.data)) {
           this.employees = response.data.map(mapEmployee);
+          loaded.employees = true;
         } else {
           console.warn(
             "La respuesta de /employees no es un array:",
@@ -71,7 +78,10 @@ export const useEmployeeStore = defineStore("employees", {
 
       try {
         const response = await apiClient.post("/employees", newEmployee);
-        this.employees.push(mapEmployee(response.data));
+        // El flujo de cambios puede haberlo añadido ya
+        if (!this.employees.some((emp) => emp.id === response.data.id)) {
+          this.employees.push(mapEmployee(response.data));
+        }
       } catch (err) {
         console.error("No se pudo añadir el empleado:", err);
         if (err.response) {
@@ -117,6 +127,7 @@ export const useEmployeeStore = defineStore("employees", {
 
     // Obtener lista básica de empleados (usado por selects)
     async fetchBasicEmployees() {
+      this.listenForChanges();
       this.isLoading = true;
       this.error = null;
 
@@ -125,6 +136,7 @@ export const useEmployeeStore = defineStore("employees", {
 
         if (Array.isArray(response.data)) {
           this.basicEmployees = response.data;
+          loaded.basicEmployees = true;
         } else {
           console.warn(
             "La respuesta de /employees/basic no es un array:",
@@ -161,6 +173,8 @@ export const useEmployeeStore = defineStore("employees", {
         });
 
         const { content, totalElements, totalPages } = response.data;
+        // Una página no es la lista completa, los empleados nuevos no se añaden a ella
+        loaded.employees = false;
 
         if (Array.isArray(content)) {
           this.employees = content.map(mapEmployee);
@@ -191,5 +205,68 @@ export const useEmployeeStore = defineStore("employees", {
         this.isLoading = false;
       }
     },
+
+    // Suscribirse una sola vez a los cambios de empleados del backend
+    listenForChanges() {
+      if (listening) {
+        return;
+      }
+      listening = true;
+      onChange(
+        "employees",
+        (change) => this.applyChange(change),
+        () => this.reloadAfterReconnect()
+      );
+    },
+
+    // Aplicar un cambio recibido del backend a las listas cargadas
+    applyChange({ operation, changes }) {
+      if (operation === "CREATED") {
+        for (const { id, state } of changes) {
+          if (loaded.employees && !this.employees.some((emp) => emp.id === id)) {
+            this.employees.push(mapEmployee(state));
+          }
+          if (
+            loaded.basicEmployees &&
+            !this.basicEmployees.some((emp) => emp.id === id)
+          ) {
+            const { firstName, lastName1, lastName2 } = state;
+            this.basicEmployees.push({ id, firstName, lastName1, lastName2 });
+          }
+        }
+      } else {
+        // Los empleados dados de baja salen de la lista de activos. La lista básica
+        // (/employees/basic) incluye también a los dados de baja y no cambia
+        const ids = new Set(changes.map((c) => c.id));
+        this.employees = this.employees.filter((emp) => !ids.has(emp.id));
+      }
+    },
+
+    // Tras una reconexión se han podido perder cambios: recargar lo que ya estaba cargado
+    async reloadAfterReconnect() {
+      if (loaded.employees) {
+        await this.fetchEmployees();
+      }
+      if (loaded.basicEmployees) {
+        await this.fetchBasicEmployees();
+      }
+    },
+
+    // Buscar empleados activos por nombre, NIF o email (para el buscador de asignaciones)
+    async searchEmployees(query, limit = 10) {
+      if (!query || !query.trim()) {
+        return [];
+      }
+
+      try {
+        const response = await apiClient.get("/employees/search", {
+          params: { q: query, limit },
+        });
+        return Array.isArray(response.data) ? response.data : [];
+      } catch (err) {
+        console.error("No se pudo buscar empleados:", err);
+        return [];
+      }
+    },
   },
 });
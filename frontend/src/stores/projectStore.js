@@ -1,5 +1,8 @@
 import { defineStore } from "pinia";
 import apiClient from "@/plugins/axios"; // Cliente Axios configurado
+import { onChange } from "@/plugins/changeFeed"; // Cambios en directo del backend
+
+let listening = false;
 
 export const useProjectStore = defineStore("projects", {
   // --- Estado ---
@@ -13,6 +16,7 @@ export const useProjectStore = defineStore("projects", {
   actions: {
     // Obtener todos los proyectos
     async fetchProjects() {
+      this.listenForChanges();
       this.isLoading = true;
       this.error = null;
 
@@ -60,7 +64,10 @@ export const useProjectStore = defineStore("projects", {
 
       try {
         const response = await apiClient.post("/projects", newProject);
-        this.projects.push(response.data); // Agregar el nuevo proyecto a la lista local
+        // Agregar el nuevo proyecto a la lista local, si el flujo de cambios no lo ha hecho ya
+        if (!this.projects.some((p) => p.id === response.data.id)) {
+          this.projects.push(response.data);
+        }
       } catch (err) {
         console.error("No se pudo añadir el proyecto:", err);
         if (err.response) {
@@ -104,5 +111,32 @@ export const useProjectStore = defineStore("projects", {
         this.isLoading = false;
       }
     },
+
+    // Suscribirse una sola vez a los cambios de proyectos del backend
+    listenForChanges() {
+      if (listening) {
+        return;
+      }
+      listening = true;
+      onChange(
+        "projects",
+        (change) => this.applyChange(change),
+        () => this.fetchProjects()
+      );
+    },
+
+    // Aplicar un cambio recibido del backend a la lista de proyectos activos
+    applyChange({ operation, changes }) {
+      if (operation === "CREATED") {
+        for (const { id, state } of changes) {
+          if (!this.projects.some((p) => p.id === id)) {
+            this.projects.push(state);
+          }
+        }
+      } else {
+        const ids = new Set(changes.map((c) => c.id));
+        this.projects = this.projects.filter((p) => !ids.has(p.id));
+      }
+    },
   },
 });